@@ -0,0 +1,92 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load generator: for each concurrency level, N clients repeatedly GET the target URL
+ * for a fixed time. Goodput counts 2xx responses that met the latency objective, which is what
+ * stays flat past saturation when load shedding works.
+ *
+ *   java scripts/LoadTest.java <url> <seconds-per-level> <slo-ms> <level> [<level> ...]
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        URI target = URI.create(args[0]);
+        long seconds = Long.parseLong(args[1]);
+        long sloNanos = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(args[2]));
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        HttpRequest request = HttpRequest.newBuilder(target).timeout(Duration.ofSeconds(60)).GET().build();
+
+        System.out.printf("%8s %10s %10s %10s %10s %10s %10s%n",
+                "clients", "req/s", "goodput/s", "503/s", "errors/s", "p50 ms", "p99 ms");
+        for (int i = 3; i < args.length; i++) {
+            int clients = Integer.parseInt(args[i]);
+            AtomicLong good = new AtomicLong();
+            AtomicLong shed = new AtomicLong();
+            AtomicLong errors = new AtomicLong();
+            List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+            CountDownLatch done = new CountDownLatch(clients);
+
+            for (int c = 0; c < clients; c++) {
+                Thread thread = new Thread(() -> {
+                    try {
+                        while (System.nanoTime() < deadline) {
+                            long start = System.nanoTime();
+                            int status;
+                            try {
+                                status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            } catch (Exception e) {
+                                status = -1;
+                            }
+                            long elapsed = System.nanoTime() - start;
+                            if (status >= 200 && status < 300) {
+                                latencies.add(elapsed);
+                                if (elapsed <= sloNanos) {
+                                    good.incrementAndGet();
+                                }
+                            } else if (status == 503) {
+                                shed.incrementAndGet();
+                                // Back off briefly instead of spinning on rejections
+                                Thread.sleep(10);
+                            } else {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+                thread.setDaemon(true);
+                thread.start();
+            }
+            done.await();
+
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            System.out.printf("%8d %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f%n", clients,
+                    (double) sorted.size() / seconds, (double) good.get() / seconds,
+                    (double) shed.get() / seconds, (double) errors.get() / seconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99));
+        }
+    }
+
+    private static double percentile(List<Long> sorted, double quantile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.size() - 1, Math.ceil(quantile * sorted.size()) - 1);
+        return sorted.get(Math.max(index, 0)) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,52 @@
+#!/usr/bin/env bash
+#
+# Drives GET /api/orders past saturation with the adaptive concurrency limiter enabled and then
+# disabled, printing throughput, goodput (2xx within the latency objective), shed load and
+# latency percentiles per concurrency level.
+#
+#   scripts/load-test.sh [seconds-per-level] [slo-ms]
+set -euo pipefail
+
+SECONDS_PER_LEVEL=${1:-20}
+SLO_MS=${2:-500}
+LEVELS=${LEVELS:-"4 8 16 32 64 128 256"}
+PORT=${PORT:-18082}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+LOG="$ROOT/target/load-test.log"
+JAR=$(ls "$ROOT"/target/demo-*.jar 2>/dev/null | grep -v plain | head -n 1 || true)
+
+if [[ -z "$JAR" ]]; then
+    (cd "$ROOT" && ${MVN:-mvn} -q -B package -DskipTests)
+    JAR=$(ls "$ROOT"/target/demo-*.jar | grep -v plain | head -n 1)
+fi
+
+run() {
+    local limiter=$1
+    java -jar "$JAR" --server.port="$PORT" --spring.jpa.show-sql=false \
+        --app.concurrency-limit.enabled="$limiter" > "$LOG" 2>&1 &
+    local pid=$!
+    until curl -sf -o /dev/null "http://localhost:$PORT/api/products"; do
+        kill -0 "$pid" 2>/dev/null || { echo "Application exited, see $LOG" >&2; exit 1; }
+        sleep 0.2
+    done
+
+    # Enough orders that listing them keeps the database busy
+    for i in $(seq 1 20); do
+        curl -sf -o /dev/null -H 'Content-Type: application/json' \
+            -d "{\"name\":\"Product $i\",\"price\":$i.99}" "http://localhost:$PORT/api/products"
+    done
+    for i in $(seq 1 300); do
+        curl -sf -o /dev/null -H 'Content-Type: application/json' \
+            -d "{\"buyerEmail\":\"buyer$((i % 50))@example.com\",\"items\":[{\"productId\":$((i % 20 + 1)),\"quantity\":2},{\"productId\":$(((i + 7) % 20 + 1)),\"quantity\":1}]}" \
+            "http://localhost:$PORT/api/orders"
+    done
+
+    echo "== concurrency limiter enabled=$limiter"
+    # shellcheck disable=SC2086
+    java "$ROOT/scripts/LoadTest.java" "http://localhost:$PORT/api/orders" "$SECONDS_PER_LEVEL" "$SLO_MS" $LEVELS
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+}
+
+run true
+run false
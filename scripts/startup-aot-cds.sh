@@ -0,0 +1,65 @@
+#!/usr/bin/env bash
+#
+# Builds the aot-cds artifact, trains a class-data-sharing archive and compares startup time and
+# resident memory with and without AOT and CDS. All three runs start the same extracted jar with the
+# same profile, so the flag and the archive are the only differences.
+#
+#   scripts/startup-aot-cds.sh [runs]
+#
+# Startup time is taken from the first successful response to GET /api/products, measured from
+# process launch; RSS is read from /proc once that request has been served.
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-18081}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+OUT="$ROOT/target/aot-cds"
+
+(cd "$ROOT" && ${MVN:-mvn} -q -B -Paot-cds package -DskipTests)
+JAR=$(ls "$ROOT"/target/demo-*.jar | grep -v plain | head -n 1)
+
+# CDS needs the exploded layout: the archive records class paths, and nested jars cannot be mapped
+rm -rf "$OUT"
+java -Djarmode=tools -jar "$JAR" extract --destination "$OUT"
+APP_JAR="$OUT/$(basename "$JAR")"
+
+# Training run: start the context, dump the loaded classes and exit without serving traffic
+java -XX:ArchiveClassesAtExit="$OUT/application.jsa" -Dspring.context.exit=onRefresh \
+    -Dspring.aot.enabled=true -jar "$APP_JAR" --spring.profiles.active=fast-start > "$OUT/training.log" 2>&1
+
+now_ms() {
+    date +%s%3N
+}
+
+measure() {
+    local label=$1
+    shift
+    local total_ms=0 total_rss=0
+    for run in $(seq 1 "$RUNS"); do
+        local launched
+        launched=$(now_ms)
+        java "$@" --server.port="$PORT" > "$OUT/run.log" 2>&1 &
+        local pid=$!
+        until curl -sf -o /dev/null "http://localhost:$PORT/api/products"; do
+            if ! kill -0 "$pid" 2>/dev/null; then
+                echo "$label: application exited, see $OUT/run.log" >&2
+                exit 1
+            fi
+            sleep 0.02
+        done
+        local elapsed=$(( $(now_ms) - launched ))
+        local rss
+        rss=$(awk '/VmRSS/ {print $2}' "/proc/$pid/status")
+        kill "$pid"
+        wait "$pid" 2>/dev/null || true
+        total_ms=$((total_ms + elapsed))
+        total_rss=$((total_rss + rss))
+    done
+    printf '%-12s startup=%6d ms  rss=%7d KB  (mean of %d runs)\n' \
+        "$label" $((total_ms / RUNS)) $((total_rss / RUNS)) "$RUNS"
+}
+
+measure "baseline" -jar "$APP_JAR" --spring.profiles.active=fast-start
+measure "aot" -Dspring.aot.enabled=true -jar "$APP_JAR" --spring.profiles.active=fast-start
+measure "aot+cds" -XX:SharedArchiveFile="$OUT/application.jsa" -Dspring.aot.enabled=true \
+    -jar "$APP_JAR" --spring.profiles.active=fast-start
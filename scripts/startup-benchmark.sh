@@ -0,0 +1,96 @@
+#!/usr/bin/env bash
+#
+# Measures time-to-first-request of the durable profile on a large database, with and without
+# page-cache prewarming.
+#
+#   scripts/startup-benchmark.sh [orders] [runs]
+#
+# Without a jar in target/ it is built first with Maven from PATH, or with $MVN when set (the
+# wrapper is not executable in this checkout, so it is not called directly).
+# The database is created once under target/benchmark-db (5,000,000 orders by default) and
+# reused by later invocations. Dropping the OS page cache between runs needs root; without it
+# the "cold" numbers only reflect the H2 cache.
+set -euo pipefail
+
+ORDERS=${1:-5000000}
+RUNS=${2:-3}
+PORT=${PORT:-18080}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+DB_DIR="$ROOT/target/benchmark-db"
+DB_URL="jdbc:h2:nioMapped:$DB_DIR/productdb"
+JAR=$(ls "$ROOT"/target/demo-*.jar 2>/dev/null | grep -v plain | head -n 1 || true)
+
+if [[ -z "$JAR" ]]; then
+    (cd "$ROOT" && ${MVN:-mvn} -q -B package -DskipTests)
+    JAR=$(ls "$ROOT"/target/demo-*.jar | grep -v plain | head -n 1)
+fi
+H2_JAR=$(find "${HOME}/.m2/repository/com/h2database/h2" -name 'h2-*.jar' | sort | tail -n 1)
+
+start_app() {
+    java -jar "$JAR" --spring.profiles.active=durable --server.port="$PORT" \
+        --app.storage.path="$DB_DIR" --spring.jpa.show-sql=false "$@" > "$DB_DIR/app.log" 2>&1 &
+    APP_PID=$!
+}
+
+stop_app() {
+    kill "$APP_PID" 2>/dev/null || true
+    wait "$APP_PID" 2>/dev/null || true
+}
+
+wait_for() {
+    until curl -sf -o /dev/null "http://localhost:$PORT$1"; do
+        if ! kill -0 "$APP_PID" 2>/dev/null; then
+            echo "Application exited, see $DB_DIR/app.log" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+}
+
+drop_os_cache() {
+    sync
+    if [[ -w /proc/sys/vm/drop_caches ]]; then
+        echo 3 > /proc/sys/vm/drop_caches
+    fi
+}
+
+now_ms() {
+    date +%s%3N
+}
+
+if [[ ! -f "$DB_DIR/productdb.mv.db" ]]; then
+    mkdir -p "$DB_DIR"
+    echo "Creating schema"
+    start_app --app.storage.prewarm.enabled=false
+    wait_for /api/products
+    stop_app
+
+    echo "Seeding $ORDERS orders"
+    cat > "$DB_DIR/seed.sql" <<SQL
+INSERT INTO products(name, price) SELECT 'Product ' || X, 1 + MOD(X, 500) FROM SYSTEM_RANGE(1, 1000);
+INSERT INTO orders(buyer_email, normalized_buyer_email, order_time, total_value)
+    SELECT 'buyer' || MOD(X, 100000) || '@example.com', 'buyer' || MOD(X, 100000) || '@example.com',
+           DATEADD('SECOND', X - $ORDERS, CURRENT_TIMESTAMP), 1 + MOD(X, 500)
+    FROM SYSTEM_RANGE(1, $ORDERS);
+INSERT INTO order_items(order_id, product_id, product_name, price, quantity)
+    SELECT X, 1 + MOD(X, 1000), 'Product ' || (1 + MOD(X, 1000)), 1 + MOD(X, 500), 1 FROM SYSTEM_RANGE(1, $ORDERS);
+SQL
+    java -cp "$H2_JAR" org.h2.tools.RunScript -url "$DB_URL" -user sa -password password -script "$DB_DIR/seed.sql"
+fi
+
+# First request touches a random old order and a day of orders, i.e. pages that are not hot
+FIRST_REQUEST="/api/orders/$((ORDERS / 3))"
+
+for prewarm in false true; do
+    for run in $(seq 1 "$RUNS"); do
+        drop_os_cache
+        launched=$(now_ms)
+        start_app --app.storage.prewarm.enabled="$prewarm"
+        wait_for "$FIRST_REQUEST"
+        first=$(now_ms)
+        curl -sf -o /dev/null -w '%{time_total}' "http://localhost:$PORT$FIRST_REQUEST" > "$DB_DIR/second.txt"
+        stop_app
+        printf 'prewarm=%-5s run=%d time-to-first-request=%6d ms  next request=%s s\n' \
+            "$prewarm" "$run" $((first - launched)) "$(cat "$DB_DIR/second.txt")"
+    done
+done
@@ -0,0 +1,402 @@
+package com.example.demo.archive;
+
+import com.example.demo.dto.OrderDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Append-only store for archived orders.
+ * <p>
+ * Orders are written in ascending id order to segment files made of deflate-compressed blocks.
+ * Each block header carries the block's id and order-time bounds, and the in-memory sparse index
+ * is simply that list of headers. Lookups binary-search the index and inflate one block straight
+ * from a read-only memory mapping of the segment.
+ * <pre>
+ * block  := header compressed-records
+ * header := compressedLength:int rawLength:int count:int firstId:long lastId:long minTime:long maxTime:long
+ * record := id:long length:int json:byte[length]
+ * </pre>
+ */
+@Component
+public class OrderArchive {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderArchive.class);
+
+    static final int BLOCK_HEADER_BYTES = 3 * Integer.BYTES + 4 * Long.BYTES;
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final int ordersPerBlock;
+    private final long maxSegmentBytes;
+
+    private volatile List<Segment> segments = Collections.emptyList();
+    // Segment files are numbered in creation order, so a new segment never reuses an existing file
+    private long nextSegmentNumber;
+
+    public OrderArchive(@Value("${app.orders.archive.path:./data/archive}") String directory,
+                        ObjectMapper objectMapper,
+                        @Value("${app.orders.archive.orders-per-block:64}") int ordersPerBlock,
+                        @Value("${app.orders.archive.max-segment-bytes:67108864}") long maxSegmentBytes) throws IOException {
+        this.directory = Paths.get(directory);
+        this.objectMapper = objectMapper;
+        this.ordersPerBlock = ordersPerBlock;
+        this.maxSegmentBytes = maxSegmentBytes;
+        load();
+    }
+
+    public boolean isEmpty() {
+        return segments.isEmpty();
+    }
+
+    /**
+     * Appends orders, which must be sorted by id, and forces them to disk before returning so that
+     * the caller may delete them from the database afterwards. Orders that are already archived,
+     * for example because a previous run crashed between appending and deleting them, are skipped.
+     */
+    public synchronized void append(List<OrderDTO> orders) throws IOException {
+        List<OrderDTO> fresh = withoutArchived(orders);
+        if (fresh.isEmpty()) {
+            return;
+        }
+        Files.createDirectories(directory);
+
+        List<Segment> current = segments;
+        Segment segment = current.isEmpty() ? null : current.get(current.size() - 1);
+        long firstId = fresh.get(0).getId();
+        // Ids must keep increasing within a segment for the index to be searchable
+        if (segment == null || segment.view.lastId() >= firstId || segment.view.size() >= maxSegmentBytes) {
+            segment = new Segment(newSegmentFile());
+            List<Segment> extended = new ArrayList<>(current);
+            extended.add(segment);
+            current = extended;
+        }
+
+        try (FileChannel channel = FileChannel.open(segment.file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            for (int from = 0; from < fresh.size(); from += ordersPerBlock) {
+                ByteBuffer block = encodeBlock(fresh.subList(from, Math.min(fresh.size(), from + ordersPerBlock)));
+                while (block.hasRemaining()) {
+                    channel.write(block);
+                }
+            }
+            channel.force(false);
+        }
+        segment.view = View.map(segment.file);
+        segments = current;
+    }
+
+    private List<OrderDTO> withoutArchived(List<OrderDTO> orders) {
+        List<OrderDTO> fresh = new ArrayList<>(orders.size());
+        // Inflated once per block: re-appended orders usually share a few blocks
+        Map<Block, Set<Long>> blockIds = new HashMap<>();
+        for (OrderDTO order : orders) {
+            long id = order.getId();
+            boolean archived = false;
+            for (Segment segment : segments) {
+                View view = segment.view;
+                Block block = id < view.firstId() || id > view.lastId() ? null : view.blockContaining(id);
+                if (block != null && blockIds.computeIfAbsent(block, b -> archivedIds(view, b)).contains(id)) {
+                    archived = true;
+                    break;
+                }
+            }
+            if (!archived) {
+                fresh.add(order);
+            }
+        }
+        return fresh;
+    }
+
+    private Path newSegmentFile() {
+        Path file;
+        do {
+            file = directory.resolve(String.format("orders-%020d%s", nextSegmentNumber++, SEGMENT_SUFFIX));
+        } while (Files.exists(file));
+        return file;
+    }
+
+    public Optional<OrderDTO> find(long id) {
+        for (Segment segment : segments) {
+            View view = segment.view;
+            if (id < view.firstId() || id > view.lastId()) {
+                continue;
+            }
+            Block block = view.blockContaining(id);
+            if (block != null) {
+                Optional<OrderDTO> order = decode(view, block, id);
+                if (order.isPresent()) {
+                    return order;
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Archived orders with {@code startDate <= orderTime <= endDate}, ordered by order time.
+     */
+    public List<OrderDTO> findBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        long from = toMillis(startDate);
+        long to = toMillis(endDate);
+        List<OrderDTO> result = new ArrayList<>();
+        for (Segment segment : segments) {
+            View view = segment.view;
+            for (Block block : view.blocks()) {
+                if (block.maxTime() < from || block.minTime() > to) {
+                    continue;
+                }
+                for (OrderDTO order : decodeAll(view, block)) {
+                    if (!order.getOrderTime().isBefore(startDate) && !order.getOrderTime().isAfter(endDate)) {
+                        result.add(order);
+                    }
+                }
+            }
+        }
+        result.sort(Comparator.comparing(OrderDTO::getOrderTime));
+        return result;
+    }
+
+    private void load() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Segment> loaded = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList()) {
+                Segment segment = new Segment(file);
+                if (segment.view.blocks().length > 0) {
+                    loaded.add(segment);
+                }
+            }
+        }
+        segments = loaded;
+        // Older archives named segments after their first order id; numbering continues above them
+        try (Stream<Path> files = Files.list(directory)) {
+            nextSegmentNumber = files.map(OrderArchive::segmentNumber).max(Long::compare).orElse(-1L) + 1;
+        }
+        log.info("Opened order archive at {} with {} segments", directory, loaded.size());
+    }
+
+    private static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith("orders-") || !name.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring("orders-".length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private ByteBuffer encodeBlock(List<OrderDTO> orders) throws IOException {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream(orders.size() * 512);
+        long minTime = Long.MAX_VALUE;
+        long maxTime = Long.MIN_VALUE;
+        for (OrderDTO order : orders) {
+            byte[] json = objectMapper.writeValueAsBytes(order);
+            raw.write(ByteBuffer.allocate(Long.BYTES + Integer.BYTES).putLong(order.getId()).putInt(json.length).array());
+            raw.write(json);
+            long time = toMillis(order.getOrderTime());
+            minTime = Math.min(minTime, time);
+            maxTime = Math.max(maxTime, time);
+        }
+
+        byte[] input = raw.toByteArray();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        byte[] compressed;
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 4 + 64);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            compressed = out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+
+        return ByteBuffer.allocate(BLOCK_HEADER_BYTES + compressed.length)
+                .putInt(compressed.length)
+                .putInt(input.length)
+                .putInt(orders.size())
+                .putLong(orders.get(0).getId())
+                .putLong(orders.get(orders.size() - 1).getId())
+                .putLong(minTime)
+                .putLong(maxTime)
+                .put(compressed)
+                .flip();
+    }
+
+    private Optional<OrderDTO> decode(View view, Block block, long id) {
+        ByteBuffer records = inflate(view, block);
+        while (records.hasRemaining()) {
+            long recordId = records.getLong();
+            int length = records.getInt();
+            if (recordId == id) {
+                return Optional.of(readOrder(records, length));
+            }
+            records.position(records.position() + length);
+        }
+        return Optional.empty();
+    }
+
+    private static Set<Long> archivedIds(View view, Block block) {
+        ByteBuffer records = inflate(view, block);
+        Set<Long> ids = new HashSet<>(block.count() * 2);
+        while (records.hasRemaining()) {
+            ids.add(records.getLong());
+            int length = records.getInt();
+            records.position(records.position() + length);
+        }
+        return ids;
+    }
+
+    private List<OrderDTO> decodeAll(View view, Block block) {
+        ByteBuffer records = inflate(view, block);
+        List<OrderDTO> orders = new ArrayList<>(block.count());
+        while (records.hasRemaining()) {
+            records.getLong();
+            orders.add(readOrder(records, records.getInt()));
+        }
+        return orders;
+    }
+
+    private OrderDTO readOrder(ByteBuffer records, int length) {
+        try {
+            OrderDTO order = objectMapper.readValue(records.array(), records.position(), length, OrderDTO.class);
+            records.position(records.position() + length);
+            return order;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt archived order record", e);
+        }
+    }
+
+    private static ByteBuffer inflate(View view, Block block) {
+        ByteBuffer input = view.buffer().duplicate();
+        input.position(block.offset() + BLOCK_HEADER_BYTES).limit(block.offset() + BLOCK_HEADER_BYTES + block.compressedLength());
+        byte[] output = new byte[block.rawLength()];
+        Inflater inflater = new Inflater();
+        try {
+            // Inflates directly from the mapped file, without copying the compressed bytes to the heap
+            inflater.setInput(input);
+            int written = 0;
+            while (written < output.length && !inflater.finished()) {
+                written += inflater.inflate(output, written, output.length - written);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt archive block at offset " + block.offset(), e);
+        } finally {
+            inflater.end();
+        }
+        return ByteBuffer.wrap(output);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static final class Segment {
+
+        private final Path file;
+        private volatile View view;
+
+        Segment(Path file) throws IOException {
+            this.file = file;
+            this.view = Files.exists(file) ? View.map(file) : View.EMPTY;
+        }
+    }
+
+    private record Block(int offset, int compressedLength, int rawLength, int count,
+                         long firstId, long lastId, long minTime, long maxTime) {
+    }
+
+    private record View(MappedByteBuffer buffer, Block[] blocks, long size) {
+
+        static final View EMPTY = new View(null, new Block[0], 0);
+
+        static View map(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                List<Block> blocks = new ArrayList<>();
+                int offset = 0;
+                while (buffer.limit() - offset >= BLOCK_HEADER_BYTES) {
+                    int compressedLength = buffer.getInt(offset);
+                    if (buffer.limit() - offset - BLOCK_HEADER_BYTES < compressedLength) {
+                        break;
+                    }
+                    blocks.add(new Block(offset, compressedLength, buffer.getInt(offset + 4), buffer.getInt(offset + 8),
+                            buffer.getLong(offset + 12), buffer.getLong(offset + 20),
+                            buffer.getLong(offset + 28), buffer.getLong(offset + 36)));
+                    offset += BLOCK_HEADER_BYTES + compressedLength;
+                }
+                if (offset < channel.size()) {
+                    // Torn write from a crash during append: the orders are still in the database
+                    log.warn("Truncating {} to {} bytes, dropping an incomplete block", file, offset);
+                    channel.truncate(offset);
+                    buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, offset);
+                }
+                return new View(buffer, blocks.toArray(new Block[0]), offset);
+            }
+        }
+
+        long firstId() {
+            return blocks.length == 0 ? Long.MAX_VALUE : blocks[0].firstId();
+        }
+
+        long lastId() {
+            return blocks.length == 0 ? Long.MIN_VALUE : blocks[blocks.length - 1].lastId();
+        }
+
+        Block blockContaining(long id) {
+            Block block = lastBlockStartingAtOrBefore(id);
+            return block != null && id <= block.lastId() ? block : null;
+        }
+
+        Block lastBlockStartingAtOrBefore(long id) {
+            int low = 0;
+            int high = blocks.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (blocks[mid].firstId() <= id) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return high >= 0 ? blocks[high] : null;
+        }
+    }
+}
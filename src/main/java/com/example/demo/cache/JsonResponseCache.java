@@ -0,0 +1,193 @@
+package com.example.demo.cache;
+
+import com.example.demo.dto.OrderDTO;
+import com.example.demo.dto.OrderLookupDTO;
+import com.example.demo.dto.ProductDTO;
+import com.example.demo.event.ProductChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+/**
+ * Response bodies that were already serialized to JSON, so that repeated reads skip both DTO
+ * mapping and Jackson.
+ * <p>
+ * Orders never change once placed, so their bytes are kept until the least recently used ones
+ * have to make room ({@code app.cache.json.orders.max-bytes}). The full product list is kept
+ * until the next product change commits.
+ */
+@Component
+public class JsonResponseCache {
+
+    // Rough cost of one cached order besides its bytes: map entry, boxed key and array header
+    static final int ENTRY_OVERHEAD_BYTES = 80;
+
+    // The fields of OrderLookupDTO around the cached orders
+    private static final byte[] LOOKUP_START = "{\"orders\":[".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] LOOKUP_MISSING = "],\"missingIds\":".getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper;
+    private final long maxOrderBytes;
+
+    // Guarded by itself
+    private final LinkedHashMap<Long, byte[]> orders = new LinkedHashMap<>(256, 0.75f, true);
+    private long orderBytes;
+
+    // Bumped on every product change so that a list read before the change is never cached after it
+    private final AtomicLong productGeneration = new AtomicLong();
+    private volatile byte[] productList;
+
+    public JsonResponseCache(ObjectMapper objectMapper,
+                             @Value("${app.cache.json.orders.max-bytes:33554432}") long maxOrderBytes) {
+        this.objectMapper = objectMapper;
+        this.maxOrderBytes = maxOrderBytes;
+    }
+
+    /**
+     * The JSON of an order, serialized from {@code loader} on a miss. Exceptions of the loader,
+     * such as a missing order, are passed on and nothing is cached.
+     */
+    public byte[] getOrder(long id, LongFunction<OrderDTO> loader) {
+        synchronized (orders) {
+            byte[] cached = orders.get(id);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        byte[] json = serialize(loader.apply(id));
+        putOrder(id, json);
+        return json;
+    }
+
+    /**
+     * The JSON of an {@link OrderLookupDTO} for {@code ids}, put together from the cached JSON of
+     * each order. Only the orders that are not cached are passed to {@code loader}, and those it
+     * finds are cached for the next reads.
+     */
+    public byte[] getOrderLookup(List<Long> ids, Function<List<Long>, OrderLookupDTO> loader) {
+        Map<Long, byte[]> json = new HashMap<>();
+        List<Long> uncached = new ArrayList<>();
+        synchronized (orders) {
+            for (Long id : ids) {
+                byte[] cached = orders.get(id);
+                if (cached != null) {
+                    json.put(id, cached);
+                } else {
+                    uncached.add(id);
+                }
+            }
+        }
+        if (!uncached.isEmpty()) {
+            for (OrderDTO order : loader.apply(uncached).getOrders()) {
+                byte[] serialized = serialize(order);
+                json.put(order.getId(), serialized);
+                putOrder(order.getId(), serialized);
+            }
+        }
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream(256 + json.values().stream().mapToInt(b -> b.length + 1).sum());
+        List<Long> missingIds = new ArrayList<>();
+        body.writeBytes(LOOKUP_START);
+        boolean first = true;
+        for (Long id : ids) {
+            byte[] order = json.get(id);
+            if (order == null) {
+                missingIds.add(id);
+                continue;
+            }
+            if (!first) {
+                body.write(',');
+            }
+            body.writeBytes(order);
+            first = false;
+        }
+        body.writeBytes(LOOKUP_MISSING);
+        body.writeBytes(serialize(missingIds));
+        body.write('}');
+        return body.toByteArray();
+    }
+
+    /**
+     * The JSON of the full product list, serialized from {@code loader} on a miss.
+     */
+    public byte[] getProductList(Supplier<List<ProductDTO>> loader) {
+        byte[] cached = productList;
+        if (cached != null) {
+            return cached;
+        }
+        long observedGeneration = productGeneration.get();
+        byte[] json = serialize(loader.get());
+        synchronized (productGeneration) {
+            if (productGeneration.get() == observedGeneration) {
+                productList = json;
+            }
+        }
+        return json;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidateProductList();
+    }
+
+    public void clear() {
+        synchronized (orders) {
+            orders.clear();
+            orderBytes = 0;
+        }
+        invalidateProductList();
+    }
+
+    public long getOrderBytes() {
+        synchronized (orders) {
+            return orderBytes;
+        }
+    }
+
+    private void putOrder(long id, byte[] json) {
+        long size = json.length + ENTRY_OVERHEAD_BYTES;
+        if (size > maxOrderBytes) {
+            return;
+        }
+        synchronized (orders) {
+            byte[] previous = orders.put(id, json);
+            orderBytes += size - (previous == null ? 0 : previous.length + ENTRY_OVERHEAD_BYTES);
+            Iterator<byte[]> eldest = orders.values().iterator();
+            while (orderBytes > maxOrderBytes) {
+                orderBytes -= eldest.next().length + ENTRY_OVERHEAD_BYTES;
+                eldest.remove();
+            }
+        }
+    }
+
+    private void invalidateProductList() {
+        synchronized (productGeneration) {
+            productGeneration.incrementAndGet();
+            productList = null;
+        }
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
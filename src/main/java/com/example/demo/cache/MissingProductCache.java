@@ -0,0 +1,66 @@
+package com.example.demo.cache;
+
+import com.example.demo.dto.ProductDTO;
+import com.example.demo.event.ProductChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded set of product ids that are known not to exist, so that repeated lookups of deleted or
+ * made-up ids are answered without a query. Deleted products are added once the delete commits;
+ * saved products are removed once the save commits.
+ * <p>
+ * A miss is only recorded if no product was saved between the start of the lookup and the
+ * recording; otherwise the lookup may have raced with the creation of that very id.
+ */
+@Component
+public class MissingProductCache {
+
+    private final Map<Long, Boolean> missing;
+    private long generation;
+
+    public MissingProductCache(@Value("${app.products.missing-cache.size:10000}") int size) {
+        this.missing = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                return size() > size;
+            }
+        };
+    }
+
+    public synchronized boolean isMissing(Long productId) {
+        return missing.get(productId) != null;
+    }
+
+    /**
+     * To be read before looking a product up and passed to {@link #recordMissing} if it was not found.
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public synchronized void recordMissing(Long productId, long observedGeneration) {
+        if (generation == observedGeneration) {
+            missing.put(productId, Boolean.TRUE);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (!event.updated().isEmpty()) {
+            generation++;
+            for (ProductDTO product : event.updated()) {
+                missing.remove(product.getId());
+            }
+        }
+        event.deletedIds().forEach(id -> missing.put(id, Boolean.TRUE));
+    }
+
+    public synchronized int size() {
+        return missing.size();
+    }
+}
@@ -0,0 +1,368 @@
+package com.example.demo.cache;
+
+import com.example.demo.domain.Product;
+import com.example.demo.dto.ProductDTO;
+import com.example.demo.event.ProductChangedEvent;
+import com.example.demo.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Optional copy of the whole catalog outside the Java heap, for id lookups at catalog sizes
+ * where keeping one object graph per product would make garbage collection pauses long.
+ * <p>
+ * A snapshot is immutable: fixed-size records and their UTF-8 names in direct buffers, plus an
+ * open-addressing table from id to record, also in a direct buffer. A background thread builds a
+ * new snapshot from the database every {@code app.products.catalog-snapshot.rebuild-interval}
+ * and swaps it in. Product changes committed since the current snapshot was built are kept in a
+ * small on-heap overlay, which is consulted first and dropped once a newer snapshot covers them.
+ * A lookup reads the buffers with absolute gets, so it allocates nothing but the returned DTO.
+ */
+@Component
+public class ProductCatalogSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductCatalogSnapshot.class);
+
+    // id, unscaled price, price scale, name offset, name length, flags
+    static final int RECORD_BYTES = 32;
+    private static final int ID = 0;
+    private static final int UNSCALED_PRICE = 8;
+    private static final int PRICE_SCALE = 16;
+    private static final int NAME_OFFSET = 20;
+    private static final int NAME_LENGTH = 24;
+    private static final int FLAGS = 28;
+
+    // The price does not fit the record, the product is kept in the snapshot's on-heap map instead
+    private static final int ON_HEAP = 1;
+    private static final int NO_PRICE = Integer.MIN_VALUE;
+
+    private static final int MAX_RECORDS = Integer.MAX_VALUE / RECORD_BYTES;
+
+    private static final ThreadLocal<byte[]> NAME_BUFFER = ThreadLocal.withInitial(() -> new byte[256]);
+
+    private final ProductRepository productRepository;
+    private final boolean enabled;
+    private final int loadChunkSize;
+    private final Duration rebuildInterval;
+    private final ScheduledExecutorService rebuilder;
+
+    // Changes committed after the current snapshot started loading; a null product marks a delete
+    private final ConcurrentHashMap<Long, Change> overlay = new ConcurrentHashMap<>();
+    private final AtomicLong changeSequence = new AtomicLong();
+
+    private volatile Snapshot snapshot;
+
+    public ProductCatalogSnapshot(ProductRepository productRepository,
+                                  @Value("${app.products.catalog-snapshot.enabled:false}") boolean enabled,
+                                  @Value("${app.products.catalog-snapshot.load-chunk-size:10000}") int loadChunkSize,
+                                  @Value("${app.products.catalog-snapshot.rebuild-interval:PT15M}") Duration rebuildInterval,
+                                  MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.enabled = enabled;
+        this.loadChunkSize = loadChunkSize;
+        this.rebuildInterval = rebuildInterval;
+        this.rebuilder = enabled ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-catalog-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        Gauge.builder("demo.products.snapshot.products", this, ProductCatalogSnapshot::size).register(meterRegistry);
+        Gauge.builder("demo.products.snapshot.bytes", this, ProductCatalogSnapshot::getOffHeapBytes).register(meterRegistry);
+        Gauge.builder("demo.products.snapshot.overlay", overlay, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Whether lookups may be answered from the snapshot. False while disabled or until the first
+     * snapshot has been built.
+     */
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    /**
+     * The product with this id, or null if there is none; only meaningful while {@link #isReady()}.
+     */
+    public ProductDTO find(Long productId) {
+        if (productId == null) {
+            return null;
+        }
+        Change change = overlay.get(productId);
+        if (change != null) {
+            return change.product();
+        }
+        Snapshot current = snapshot;
+        return current == null ? null : current.find(productId);
+    }
+
+    public int size() {
+        Snapshot current = snapshot;
+        return current == null ? 0 : current.size;
+    }
+
+    public long getOffHeapBytes() {
+        Snapshot current = snapshot;
+        return current == null ? 0 : current.offHeapBytes();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        rebuilder.scheduleWithFixedDelay(this::rebuildQuietly, 0, rebuildInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (rebuilder != null) {
+            rebuilder.shutdownNow();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        event.updated().forEach(product -> overlay.put(product.getId(), new Change(product, changeSequence.incrementAndGet())));
+        event.deletedIds().forEach(id -> overlay.put(id, new Change(null, changeSequence.incrementAndGet())));
+    }
+
+    /**
+     * Builds a snapshot of the current catalog and swaps it in. Changes whose events arrived
+     * before loading started are in the new snapshot and leave the overlay; later ones stay.
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        long coveredSequence = changeSequence.get();
+        Snapshot built = load();
+        Snapshot previous = snapshot;
+        snapshot = built;
+        overlay.entrySet().removeIf(entry -> entry.getValue().sequence() <= coveredSequence);
+        log.info("Built a catalog snapshot of {} products ({} bytes off heap) in {} ms{}",
+                built.size, built.offHeapBytes(), (System.nanoTime() - start) / 1_000_000,
+                previous == null ? "" : ", replacing one of " + previous.size);
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException | OutOfMemoryError e) {
+            // Keep serving the previous snapshot, or the database if there is none yet. Running
+            // out of direct memory (-XX:MaxDirectMemorySize) only fails this build.
+            log.warn("Could not build a catalog snapshot, retrying in {}", rebuildInterval, e);
+        }
+    }
+
+    private Snapshot load() {
+        Snapshot.Builder builder = new Snapshot.Builder(productRepository.count());
+        long afterId = Long.MIN_VALUE;
+        while (true) {
+            List<Product> products = productRepository.findAfterId(afterId, PageRequest.of(0, loadChunkSize));
+            if (products.isEmpty()) {
+                break;
+            }
+            products.forEach(builder::add);
+            afterId = products.get(products.size() - 1).getId();
+        }
+        return builder.build();
+    }
+
+    private record Change(ProductDTO product, long sequence) {
+    }
+
+    static final class Snapshot {
+
+        private final ByteBuffer records;
+        private final ByteBuffer names;
+        private final ByteBuffer slots;
+        private final int size;
+        private final int mask;
+        private final Map<Long, ProductDTO> onHeap;
+
+        private Snapshot(ByteBuffer records, ByteBuffer names, ByteBuffer slots, int size, Map<Long, ProductDTO> onHeap) {
+            this.records = records;
+            this.names = names;
+            this.slots = slots;
+            this.size = size;
+            this.mask = slots.capacity() / Integer.BYTES - 1;
+            this.onHeap = onHeap;
+        }
+
+        ProductDTO find(long id) {
+            // Slots hold record number + 1, zero is empty
+            for (int slot = hash(id) & mask; ; slot = (slot + 1) & mask) {
+                int record = slots.getInt(slot * Integer.BYTES) - 1;
+                if (record < 0) {
+                    return null;
+                }
+                int base = record * RECORD_BYTES;
+                if (records.getLong(base + ID) == id) {
+                    return decode(base);
+                }
+            }
+        }
+
+        long offHeapBytes() {
+            return (long) records.capacity() + names.capacity() + slots.capacity();
+        }
+
+        private ProductDTO decode(int base) {
+            long id = records.getLong(base + ID);
+            if ((records.getInt(base + FLAGS) & ON_HEAP) != 0) {
+                return onHeap.get(id);
+            }
+            int scale = records.getInt(base + PRICE_SCALE);
+            return ProductDTO.builder()
+                    .id(id)
+                    .name(readName(records.getInt(base + NAME_OFFSET), records.getInt(base + NAME_LENGTH)))
+                    .price(scale == NO_PRICE ? null : BigDecimal.valueOf(records.getLong(base + UNSCALED_PRICE), scale))
+                    .build();
+        }
+
+        private String readName(int offset, int length) {
+            if (length < 0) {
+                return null;
+            }
+            byte[] buffer = NAME_BUFFER.get();
+            if (buffer.length < length) {
+                buffer = new byte[Integer.highestOneBit(length) << 1];
+                NAME_BUFFER.set(buffer);
+            }
+            names.get(offset, buffer, 0, length);
+            return new String(buffer, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private static int hash(long id) {
+            // Murmur3 finalizer, so that sequential ids spread over the table
+            long h = id;
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return (int) h;
+        }
+
+        /**
+         * Fills growing buffers in id order; the table is sized once all records are known.
+         */
+        static final class Builder {
+
+            private ByteBuffer records;
+            private ByteBuffer names;
+            private int size;
+            private final Map<Long, ProductDTO> onHeap = new HashMap<>();
+
+            Builder(long expectedProducts) {
+                // Room for products added while loading, growing by doubling beyond that
+                int capacity = (int) Math.min(MAX_RECORDS, Math.max(1024, expectedProducts + expectedProducts / 8));
+                records = ByteBuffer.allocateDirect(capacity * RECORD_BYTES);
+                names = ByteBuffer.allocateDirect((int) Math.min(Integer.MAX_VALUE, (long) capacity * 32));
+            }
+
+            void add(Product product) {
+                if (size == MAX_RECORDS) {
+                    throw new IllegalStateException("Catalog exceeds " + MAX_RECORDS + " products");
+                }
+                byte[] name = product.getName() == null ? null : product.getName().getBytes(StandardCharsets.UTF_8);
+                records = ensureRemaining(records, RECORD_BYTES);
+                if (name != null) {
+                    names = ensureRemaining(names, name.length);
+                }
+
+                int flags = 0;
+                long unscaled = 0;
+                int scale = NO_PRICE;
+                BigDecimal price = product.getPrice();
+                if (price != null) {
+                    if (price.unscaledValue().bitLength() < Long.SIZE) {
+                        unscaled = price.unscaledValue().longValue();
+                        scale = price.scale();
+                    } else {
+                        flags = ON_HEAP;
+                        onHeap.put(product.getId(), ProductDTO.builder()
+                                .id(product.getId())
+                                .name(product.getName())
+                                .price(price)
+                                .build());
+                    }
+                }
+
+                records.putLong(product.getId())
+                        .putLong(unscaled)
+                        .putInt(scale)
+                        .putInt(name == null ? 0 : names.position())
+                        .putInt(name == null ? -1 : name.length)
+                        .putInt(flags);
+                if (name != null) {
+                    names.put(name);
+                }
+                size++;
+            }
+
+            Snapshot build() {
+                ByteBuffer trimmedRecords = trim(records);
+                ByteBuffer trimmedNames = trim(names);
+                // At most half full, so probe sequences stay short
+                int tableSize = Integer.highestOneBit(Math.max(2, size) * 2 - 1) << 1;
+                ByteBuffer slots = ByteBuffer.allocateDirect(tableSize * Integer.BYTES);
+                int mask = tableSize - 1;
+                for (int record = 0; record < size; record++) {
+                    int slot = hash(trimmedRecords.getLong(record * RECORD_BYTES + ID)) & mask;
+                    while (slots.getInt(slot * Integer.BYTES) != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    slots.putInt(slot * Integer.BYTES, record + 1);
+                }
+                return new Snapshot(trimmedRecords, trimmedNames, slots, size, onHeap);
+            }
+
+            private static ByteBuffer ensureRemaining(ByteBuffer buffer, int bytes) {
+                if (buffer.remaining() >= bytes) {
+                    return buffer;
+                }
+                long needed = (long) buffer.position() + bytes;
+                if (needed > Integer.MAX_VALUE) {
+                    throw new IllegalStateException("Catalog snapshot buffer exceeds 2 GB");
+                }
+                int capacity = (int) Math.min(Integer.MAX_VALUE, Math.max(needed, (long) buffer.capacity() * 2));
+                ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+                grown.put(buffer.flip());
+                return grown;
+            }
+
+            private static ByteBuffer trim(ByteBuffer buffer) {
+                if (buffer.position() >= buffer.capacity() - buffer.capacity() / 4) {
+                    return buffer;
+                }
+                // Copied once more so that most of the spare capacity is released
+                ByteBuffer trimmed = ByteBuffer.allocateDirect(Math.max(1, buffer.position()));
+                trimmed.put(buffer.flip());
+                return trimmed;
+            }
+        }
+    }
+}
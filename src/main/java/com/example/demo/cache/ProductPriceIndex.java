@@ -0,0 +1,186 @@
+package com.example.demo.cache;
+
+import com.example.demo.dto.ProductDTO;
+import com.example.demo.event.ProductChangedEvent;
+import com.example.demo.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Optional in-memory index of the catalog ordered by (price, id). It mirrors the database
+ * {@code idx_products_price} index so that price-range listings with keyset pagination can be
+ * answered without a query once the index has been loaded.
+ */
+@Component
+public class ProductPriceIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductPriceIndex.class);
+
+    // Products without a price sort first, as in the database, and no price bound matches them
+    private static final Comparator<PriceKey> ORDER = Comparator
+            .comparing(PriceKey::price, Comparator.nullsFirst(Comparator.<BigDecimal>naturalOrder()))
+            .thenComparing(PriceKey::id);
+
+    private static final PriceKey LAST_WITHOUT_PRICE = new PriceKey(null, Long.MAX_VALUE);
+
+    private final ProductRepository productRepository;
+    private final boolean enabled;
+
+    private final ConcurrentSkipListMap<PriceKey, ProductDTO> byPrice = new ConcurrentSkipListMap<>(ORDER);
+    private final ConcurrentHashMap<Long, PriceKey> keysById = new ConcurrentHashMap<>();
+    private final Set<Long> touchedDuringLoad = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean loading;
+    private volatile boolean ready;
+
+    public ProductPriceIndex(ProductRepository productRepository,
+                             @Value("${app.products.price-index.enabled:false}") boolean enabled) {
+        this.productRepository = productRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Whether queries may be answered from memory. False while disabled or still loading.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        loading = true;
+        long start = System.nanoTime();
+        productRepository.findAll().forEach(product -> {
+            // A write that committed while we were reading wins over the possibly older row.
+            if (!touchedDuringLoad.contains(product.getId())) {
+                put(ProductDTO.builder()
+                        .id(product.getId())
+                        .name(product.getName())
+                        .price(product.getPrice())
+                        .build());
+            }
+        });
+        loading = false;
+        touchedDuringLoad.clear();
+        ready = true;
+        log.info("Loaded {} products into the price index in {} ms",
+                keysById.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        event.updated().forEach(product -> {
+            markTouched(product.getId());
+            put(product);
+        });
+        event.deletedIds().forEach(id -> {
+            markTouched(id);
+            remove(id);
+        });
+    }
+
+    /**
+     * Returns up to {@code limit} products with {@code minPrice <= price <= maxPrice} ordered by
+     * (price, id), starting strictly after the ({@code afterPrice}, {@code afterId}) cursor when
+     * {@code afterId} is given; a null {@code afterPrice} then means a product without a price.
+     * Any bound may be null.
+     */
+    public List<ProductDTO> range(BigDecimal minPrice, BigDecimal maxPrice,
+                                  BigDecimal afterPrice, Long afterId, int limit) {
+        PriceKey lower = minPrice == null ? null : new PriceKey(minPrice, Long.MIN_VALUE);
+        boolean lowerInclusive = true;
+        if (afterId != null) {
+            PriceKey cursor = new PriceKey(afterPrice, afterId);
+            if (lower == null || ORDER.compare(cursor, lower) >= 0) {
+                lower = cursor;
+                lowerInclusive = false;
+            }
+        }
+
+        if (maxPrice != null && (lower == null || lower.price() == null)) {
+            lower = LAST_WITHOUT_PRICE;
+            lowerInclusive = false;
+        }
+
+        ConcurrentNavigableMap<PriceKey, ProductDTO> view = lower == null ? byPrice : byPrice.tailMap(lower, lowerInclusive);
+        if (maxPrice != null) {
+            PriceKey upper = new PriceKey(maxPrice, Long.MAX_VALUE);
+            if (lower != null && ORDER.compare(upper, lower) < 0) {
+                return Collections.emptyList();
+            }
+            view = view.headMap(upper, true);
+        }
+        return take(view, limit);
+    }
+
+    /**
+     * The indexed product with this id; only meaningful while {@link #isReady()}.
+     */
+    public Optional<ProductDTO> find(Long productId) {
+        PriceKey key = keysById.get(productId);
+        return key == null ? Optional.empty() : Optional.ofNullable(byPrice.get(key));
+    }
+
+    private static List<ProductDTO> take(NavigableMap<PriceKey, ProductDTO> view, int limit) {
+        List<ProductDTO> result = new ArrayList<>(Math.min(limit, 64));
+        for (Map.Entry<PriceKey, ProductDTO> entry : view.entrySet()) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(entry.getValue());
+        }
+        return result;
+    }
+
+    private void put(ProductDTO product) {
+        PriceKey key = new PriceKey(product.getPrice(), product.getId());
+        // compute() serialises writers of the same id, so the two maps cannot drift apart.
+        keysById.compute(product.getId(), (id, previous) -> {
+            if (previous != null) {
+                byPrice.remove(previous);
+            }
+            byPrice.put(key, product);
+            return key;
+        });
+    }
+
+    private void remove(Long productId) {
+        keysById.computeIfPresent(productId, (id, previous) -> {
+            byPrice.remove(previous);
+            return null;
+        });
+    }
+
+    private void markTouched(Long productId) {
+        if (loading) {
+            touchedDuringLoad.add(productId);
+        }
+    }
+
+    private record PriceKey(BigDecimal price, Long id) {
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.demo.config;
+
+import com.example.demo.web.AdaptiveConcurrencyLimiter;
+import com.example.demo.web.ConcurrencyLimitFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@ConditionalOnProperty(name = "app.concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter readConcurrencyLimiter(
+            @Value("${app.concurrency-limit.read.initial:50}") int initial,
+            @Value("${app.concurrency-limit.read.min:10}") int min,
+            @Value("${app.concurrency-limit.read.max:200}") int max,
+            @Value("${app.concurrency-limit.tolerance:2.0}") double tolerance,
+            @Value("${app.concurrency-limit.window-size:50}") int windowSize,
+            @Value("${app.concurrency-limit.window-ms:500}") long windowMillis,
+            MeterRegistry meterRegistry) {
+        return register(new AdaptiveConcurrencyLimiter(initial, min, max, tolerance, windowSize, windowMillis),
+                "read", meterRegistry);
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimiter writeConcurrencyLimiter(
+            @Value("${app.concurrency-limit.write.initial:20}") int initial,
+            @Value("${app.concurrency-limit.write.min:5}") int min,
+            @Value("${app.concurrency-limit.write.max:100}") int max,
+            @Value("${app.concurrency-limit.tolerance:2.0}") double tolerance,
+            @Value("${app.concurrency-limit.window-size:50}") int windowSize,
+            @Value("${app.concurrency-limit.window-ms:500}") long windowMillis,
+            MeterRegistry meterRegistry) {
+        return register(new AdaptiveConcurrencyLimiter(initial, min, max, tolerance, windowSize, windowMillis),
+                "write", meterRegistry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            AdaptiveConcurrencyLimiter readConcurrencyLimiter,
+            AdaptiveConcurrencyLimiter writeConcurrencyLimiter,
+            @Value("${app.concurrency-limit.retry-after-seconds:1}") int retryAfterSeconds) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(readConcurrencyLimiter, writeConcurrencyLimiter, retryAfterSeconds));
+        registration.addUrlPatterns("/api/orders/*", "/api/products/*");
+        // Shed load before any other filter spends time on the request
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    private static AdaptiveConcurrencyLimiter register(AdaptiveConcurrencyLimiter limiter, String kind,
+                                                       MeterRegistry meterRegistry) {
+        Gauge.builder("demo.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("kind", kind)
+                .register(meterRegistry);
+        Gauge.builder("demo.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .tag("kind", kind)
+                .register(meterRegistry);
+        FunctionCounter.builder("demo.concurrency.rejected", limiter, AdaptiveConcurrencyLimiter::getRejected)
+                .tag("kind", kind)
+                .register(meterRegistry);
+        return limiter;
+    }
+}
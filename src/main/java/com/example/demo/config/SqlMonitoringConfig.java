@@ -0,0 +1,33 @@
+package com.example.demo.config;
+
+import com.example.demo.monitoring.StatementStatistics;
+import com.example.demo.monitoring.TimingDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Routes all JDBC access through {@link TimingDataSource}, replacing Hibernate's show-sql output
+ * with per-statement histograms and a sampled slow-query log.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sql.statistics.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlMonitoringConfig {
+
+    @Bean
+    public static BeanPostProcessor timingDataSourcePostProcessor(ObjectProvider<StatementStatistics> statistics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof TimingDataSource)) {
+                    return new TimingDataSource(dataSource, statistics);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.demo.config;
+
+import com.example.demo.cache.JsonResponseCache;
+import com.example.demo.domain.Order;
+import com.example.demo.domain.OrderItem;
+import com.example.demo.dto.OrderDTO;
+import com.example.demo.dto.OrderSummaryDTO;
+import com.example.demo.dto.ProductDTO;
+import com.example.demo.service.OrderService;
+import com.example.demo.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Brings a freshly started instance up to speed before it reports ready: opens the connection
+ * pool's connections, caches the product list, and runs the order and product mapping,
+ * validation and JSON paths on synthetic data until the JIT has compiled them. Spring Boot
+ * reports readiness only after every {@link ApplicationRunner} has returned, so traffic routed by
+ * the readiness probe never meets a cold instance.
+ * <p>
+ * The time taken and the per-iteration cost of the first and the last iterations are logged and
+ * published as {@code demo.warmup.*} metrics.
+ */
+@Component
+@ConditionalOnProperty(name = "app.warmup.enabled", havingValue = "true")
+public class StartupWarmUp implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupWarmUp.class);
+
+    // Iterations averaged for the cost before and after warming up
+    private static final int SAMPLE = 100;
+    private static final int ITEMS_PER_ORDER = 5;
+
+    private final DataSource dataSource;
+    private final OrderService orderService;
+    private final ProductService productService;
+    private final JsonResponseCache jsonResponseCache;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final MeterRegistry meterRegistry;
+    private final int iterations;
+    private final int queryEvery;
+    private final long maxDurationNanos;
+
+    private volatile int completedIterations;
+    private volatile double firstIterationMicros;
+    private volatile double lastIterationMicros;
+
+    public StartupWarmUp(DataSource dataSource, OrderService orderService, ProductService productService,
+                         JsonResponseCache jsonResponseCache, ObjectMapper objectMapper, Validator validator,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.warmup.iterations:2000}") int iterations,
+                         @Value("${app.warmup.query-every:20}") int queryEvery,
+                         @Value("${app.warmup.max-duration:PT10S}") Duration maxDuration) {
+        this.dataSource = dataSource;
+        this.orderService = orderService;
+        this.productService = productService;
+        this.jsonResponseCache = jsonResponseCache;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.meterRegistry = meterRegistry;
+        this.iterations = iterations;
+        this.queryEvery = Math.max(1, queryEvery);
+        this.maxDurationNanos = maxDuration.toNanos();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        try {
+            int connections = prefillPool();
+            List<ProductDTO> catalog = productService.getAllProducts();
+            jsonResponseCache.getProductList(() -> catalog);
+            int completed = exercise(start);
+            long elapsed = System.nanoTime() - start;
+            publish(elapsed, completed);
+            log.info("Warm-up finished in {} ms: {} pooled connections opened, {} products cached, " +
+                            "{} iterations, mapping and serialization went from {} to {} us per iteration",
+                    TimeUnit.NANOSECONDS.toMillis(elapsed), connections, catalog.size(), completed,
+                    Math.round(firstIterationMicros), Math.round(lastIterationMicros));
+        } catch (RuntimeException e) {
+            // A cold instance is slower, not broken
+            log.warn("Warm-up failed after {} ms, starting cold", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), e);
+        }
+    }
+
+    /**
+     * Holds as many connections at once as the pool keeps idle, so that all of them are opened now.
+     */
+    int prefillPool() {
+        int size = 1;
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+                size = Math.max(1, Math.min(pool.getMinimumIdle(), pool.getMaximumPoolSize()));
+            }
+        } catch (SQLException e) {
+            log.debug("Cannot read the pool size, opening one connection", e);
+        }
+
+        List<Connection> held = new ArrayList<>(size);
+        try {
+            for (int i = 0; i < size; i++) {
+                Connection connection = dataSource.getConnection();
+                held.add(connection);
+                connection.isValid(1);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot open pooled connections", e);
+        } finally {
+            for (Connection connection : held) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    log.debug("Cannot return a warm-up connection", e);
+                }
+            }
+        }
+        return held.size();
+    }
+
+    private int exercise(long start) {
+        Order order = syntheticOrder();
+        List<ProductDTO> products = syntheticProducts();
+        LocalDateTime emptyRangeStart = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+        long sampleNanos = 0;
+        int completed = 0;
+        while (completed < iterations && System.nanoTime() - start < maxDurationNanos) {
+            if (completed % queryEvery == 0) {
+                // Empty results, but parsing, query plans and result mapping all run
+                orderService.getOrdersBetweenDates(emptyRangeStart, emptyRangeStart.plusSeconds(1));
+                orderService.getOrderSummariesBetweenDates(emptyRangeStart, emptyRangeStart.plusSeconds(1));
+                orderService.getOrdersByIds(List.of(0L));
+                productService.getProductsByPriceRange(null, null, null, null, 1);
+            }
+            long iterationStart = System.nanoTime();
+            mapAndSerialize(order, products);
+            sampleNanos += System.nanoTime() - iterationStart;
+            completed++;
+            if (completed % SAMPLE == 0) {
+                if (completed == SAMPLE) {
+                    firstIterationMicros = micros(sampleNanos, SAMPLE);
+                }
+                lastIterationMicros = micros(sampleNanos, SAMPLE);
+                sampleNanos = 0;
+            }
+        }
+        return completed;
+    }
+
+    private void mapAndSerialize(Order order, List<ProductDTO> products) {
+        try {
+            OrderDTO dto = OrderService.convertToDTO(order);
+            byte[] json = objectMapper.writeValueAsBytes(dto);
+            OrderDTO parsed = objectMapper.readValue(json, OrderDTO.class);
+            validator.validate(parsed);
+            objectMapper.writeValueAsBytes(OrderSummaryDTO.of(parsed));
+            objectMapper.writeValueAsBytes(products);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void publish(long elapsedNanos, int completed) {
+        Timer.builder("demo.warmup.duration")
+                .description("Time spent warming up before reporting ready")
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        completedIterations = completed;
+        // Gauges read this bean, which the context keeps alive
+        Gauge.builder("demo.warmup.iterations", this, warmUp -> warmUp.completedIterations)
+                .description("Mapping and serialization iterations run while warming up")
+                .register(meterRegistry);
+        Gauge.builder("demo.warmup.iteration.micros", this, warmUp -> warmUp.firstIterationMicros)
+                .description("Average cost of one mapping and serialization iteration")
+                .tag("phase", "first")
+                .register(meterRegistry);
+        Gauge.builder("demo.warmup.iteration.micros", this, warmUp -> warmUp.lastIterationMicros)
+                .description("Average cost of one mapping and serialization iteration")
+                .tag("phase", "last")
+                .register(meterRegistry);
+    }
+
+    private static Order syntheticOrder() {
+        Order order = new Order();
+        order.setId(1L);
+        order.setBuyerEmail("warm-up@example.com");
+        order.setOrderTime(LocalDateTime.now());
+        for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+            order.addItem(OrderItem.builder()
+                    .id((long) i)
+                    .productId((long) i)
+                    .productName("Warm-up product " + i)
+                    .price(new BigDecimal("9.99"))
+                    .quantity(i + 1)
+                    .build());
+        }
+        order.calculateTotalValue();
+        return order;
+    }
+
+    private static List<ProductDTO> syntheticProducts() {
+        List<ProductDTO> products = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            products.add(ProductDTO.builder().id((long) i).name("Warm-up product " + i).price(new BigDecimal("9.99")).build());
+        }
+        return products;
+    }
+
+    private static double micros(long nanos, int count) {
+        return nanos / 1_000.0 / count;
+    }
+}
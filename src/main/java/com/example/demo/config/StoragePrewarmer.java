@@ -0,0 +1,55 @@
+package com.example.demo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Reads every row of the main tables once at startup so that the pages of a file-backed database
+ * are in the H2 page cache (and the OS page cache behind the memory mapping) before the web
+ * server starts accepting requests. Runs after all singletons exist, which is before the
+ * embedded server is started.
+ */
+@Component
+@Profile("durable")
+@ConditionalOnProperty(name = "app.storage.prewarm.enabled", havingValue = "true")
+public class StoragePrewarmer implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(StoragePrewarmer.class);
+
+    // COUNT(column) has to visit each row, unlike COUNT(*) which H2 answers from metadata
+    private static final List<String> PREWARM_QUERIES = List.of(
+            "SELECT COUNT(price) FROM products",
+            "SELECT COUNT(total_value) FROM orders",
+            "SELECT COUNT(quantity) FROM order_items",
+            "SELECT COUNT(lifetime_value) FROM customer_summaries"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StoragePrewarmer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.nanoTime();
+        long rows = 0;
+        for (String query : PREWARM_QUERIES) {
+            try {
+                Long count = jdbcTemplate.queryForObject(query, Long.class);
+                rows += count == null ? 0 : count;
+            } catch (RuntimeException e) {
+                // A table that does not exist yet (first start) simply has nothing to warm
+                log.debug("Skipping prewarm query '{}': {}", query, e.getMessage());
+            }
+        }
+        log.info("Prewarmed storage with {} rows in {} ms", rows, (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -1,18 +1,38 @@
 package com.example.demo.controller;
 
+import com.example.demo.cache.JsonResponseCache;
+import com.example.demo.dto.BulkOrderResultDTO;
+import com.example.demo.dto.CustomerOrdersDTO;
+import com.example.demo.dto.CustomerSummaryDTO;
 import com.example.demo.dto.OrderDTO;
+import com.example.demo.dto.OrderLookupDTO;
+import com.example.demo.eventlog.OrderEventLog;
+import com.example.demo.ratelimit.OrderRateLimiter;
+import com.example.demo.service.BulkOrderService;
+import com.example.demo.service.LookupIds;
 import com.example.demo.service.OrderService;
+import com.example.demo.stream.OrderStreamPublisher;
+import com.example.demo.web.FileRegionResponses;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -21,51 +41,188 @@ import java.util.List;
 @Tag(name = "Order Controller", description = "API for order management")
 public class OrderController {
 
+    private static final String NEXT_OFFSET_HEADER = "X-Next-Offset";
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String VIEW_FULL = "full";
+    private static final String VIEW_SUMMARY = "summary";
+
     private final OrderService orderService;
+    private final BulkOrderService bulkOrderService;
+    private final OrderRateLimiter orderRateLimiter;
+    private final OrderEventLog orderEventLog;
+    private final OrderStreamPublisher orderStreamPublisher;
+    private final JsonResponseCache jsonResponseCache;
 
     @Autowired
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, BulkOrderService bulkOrderService, OrderRateLimiter orderRateLimiter,
+                           OrderEventLog orderEventLog, OrderStreamPublisher orderStreamPublisher,
+                           JsonResponseCache jsonResponseCache) {
         this.orderService = orderService;
+        this.bulkOrderService = bulkOrderService;
+        this.orderRateLimiter = orderRateLimiter;
+        this.orderEventLog = orderEventLog;
+        this.orderStreamPublisher = orderStreamPublisher;
+        this.jsonResponseCache = jsonResponseCache;
     }
 
     @GetMapping
-    @Operation(summary = "Get all orders", description = "Retrieve a list of all orders")
-    @ApiResponse(responseCode = "200", description = "Successfully retrieved list of orders")
-    public ResponseEntity<List<OrderDTO>> getAllOrders() {
-        List<OrderDTO> orders = orderService.getAllOrders();
+    @Operation(summary = "Get all orders", description = "Retrieve a list of all orders. With view=summary the orders " +
+            "are listed without their items, which are then not loaded")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved list of orders"),
+            @ApiResponse(responseCode = "400", description = "Unsupported view")
+    })
+    public ResponseEntity<List<?>> getAllOrders(@RequestParam(value = "view", defaultValue = VIEW_FULL) String view) {
+        List<?> orders = isSummary(view) ? orderService.getOrderSummaries() : orderService.getAllOrders();
         return ResponseEntity.ok(orders);
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get order by ID", description = "Retrieve an order by its ID")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Successfully retrieved the order"),
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the order",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = OrderDTO.class))),
             @ApiResponse(responseCode = "404", description = "Order not found")
     })
-    public ResponseEntity<OrderDTO> getOrderById(@PathVariable Long id) {
-        OrderDTO order = orderService.getOrderById(id);
-        return ResponseEntity.ok(order);
+    public ResponseEntity<byte[]> getOrderById(@PathVariable Long id) {
+        // Orders are immutable, so the serialized body is cached and written as is
+        byte[] order = jsonResponseCache.getOrder(id, orderService::getOrderById);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(order);
+    }
+
+    @PostMapping(value = "/lookup", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Look up orders by ID", description = "Retrieve up to " + LookupIds.MAX_IDS + " orders by their IDs, " +
+            "given as a JSON array, in the order asked for. Unknown IDs are listed in missingIds")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully looked up the orders",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = OrderLookupDTO.class))),
+            @ApiResponse(responseCode = "400", description = "No IDs, a null ID or too many IDs")
+    })
+    public ResponseEntity<byte[]> lookupOrders(@RequestBody List<Long> ids) {
+        // Orders already cached as JSON are copied into the response as is
+        byte[] lookup = jsonResponseCache.getOrderLookup(LookupIds.distinct(ids), orderService::getOrdersByIds);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(lookup);
     }
 
     @GetMapping("/byDateRange")
-    @Operation(summary = "Get orders within date range", description = "Retrieve orders placed within a specified time period")
-    @ApiResponse(responseCode = "200", description = "Successfully retrieved list of orders")
-    public ResponseEntity<List<OrderDTO>> getOrdersByDateRange(
+    @Operation(summary = "Get orders within date range", description = "Retrieve orders placed within a specified time period. " +
+            "With view=summary the orders are listed without their items, which are then not loaded")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved list of orders"),
+            @ApiResponse(responseCode = "400", description = "Unsupported view")
+    })
+    public ResponseEntity<List<?>> getOrdersByDateRange(
             @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
-            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
-        List<OrderDTO> orders = orderService.getOrdersBetweenDates(startDate, endDate);
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(value = "view", defaultValue = VIEW_FULL) String view) {
+        List<?> orders = isSummary(view)
+                ? orderService.getOrderSummariesBetweenDates(startDate, endDate)
+                : orderService.getOrdersBetweenDates(startDate, endDate);
         return ResponseEntity.ok(orders);
     }
 
+    @GetMapping("/byBuyer")
+    @Operation(summary = "Get orders of a buyer", description = "Retrieve every order of a buyer together with their lifetime totals. " +
+            "The email is matched case-insensitively")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the buyer's orders"),
+            @ApiResponse(responseCode = "400", description = "Missing buyer email")
+    })
+    public ResponseEntity<CustomerOrdersDTO> getOrdersByBuyer(@RequestParam("buyerEmail") String buyerEmail) {
+        CustomerOrdersDTO orders = orderService.getOrdersByBuyer(buyerEmail);
+        return ResponseEntity.ok(orders);
+    }
+
+    @GetMapping("/byBuyer/summary")
+    @Operation(summary = "Get buyer summary", description = "Retrieve a buyer's order count, lifetime value and last order time")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the summary"),
+            @ApiResponse(responseCode = "400", description = "Missing buyer email")
+    })
+    public ResponseEntity<CustomerSummaryDTO> getCustomerSummary(@RequestParam("buyerEmail") String buyerEmail) {
+        CustomerSummaryDTO summary = orderService.getCustomerSummary(buyerEmail);
+        return ResponseEntity.ok(summary);
+    }
+
+    @GetMapping("/events")
+    @Operation(summary = "Read order events", description = "Read order events as newline-delimited JSON, starting at a byte offset " +
+            "of the event log. Continue from the offset in the X-Next-Offset header; an empty body means the consumer has caught up")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully read the events"),
+            @ApiResponse(responseCode = "400", description = "Offset outside of the log or not at the start of an event")
+    })
+    public void getOrderEvents(@RequestParam(value = "fromOffset", defaultValue = "0") long fromOffset,
+                               @RequestParam(value = "maxBytes", defaultValue = "1048576") int maxBytes,
+                               HttpServletRequest request, HttpServletResponse response) throws IOException {
+        OrderEventLog.Slice slice = orderEventLog.read(fromOffset, maxBytes);
+        response.setContentType(NDJSON);
+        response.setHeader(NEXT_OFFSET_HEADER, String.valueOf(slice.nextOffset()));
+        FileRegionResponses.write(request, response, slice.file(), slice.position(), slice.length());
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream new orders", description = "Server-Sent Events stream with an 'order' event for every order placed " +
+            "after subscribing. A 'skipped' event reports orders left out because the subscriber fell behind")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stream opened"),
+            @ApiResponse(responseCode = "503", description = "Too many subscribers")
+    })
+    public ResponseEntity<SseEmitter> streamOrders() {
+        return orderStreamPublisher.subscribe()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "5")
+                        .build());
+    }
+
     @PostMapping
     @Operation(summary = "Place a new order", description = "Place a new order with the provided information")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Order successfully placed"),
             @ApiResponse(responseCode = "400", description = "Invalid input data"),
-            @ApiResponse(responseCode = "404", description = "One or more products not found")
+            @ApiResponse(responseCode = "404", description = "One or more products not found"),
+            @ApiResponse(responseCode = "429", description = "Too many orders for this buyer or client")
     })
-    public ResponseEntity<OrderDTO> placeOrder(@Valid @RequestBody OrderDTO orderDTO) {
+    public ResponseEntity<OrderDTO> placeOrder(@Valid @RequestBody OrderDTO orderDTO, HttpServletRequest request) {
+        orderRateLimiter.check(orderDTO.getBuyerEmail(), clientKey(request));
+
         OrderDTO createdOrder = orderService.createOrder(orderDTO);
         return new ResponseEntity<>(createdOrder, HttpStatus.CREATED);
     }
+
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Place a very large order", description = "Place an order with up to app.orders.bulk.max-items lines. " +
+            "The body is read as a stream, so buyerEmail has to come before items. The response leaves the lines out",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(required = true,
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = OrderDTO.class))))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Order successfully placed"),
+            @ApiResponse(responseCode = "400", description = "Invalid input data; the message names the first bad line"),
+            @ApiResponse(responseCode = "404", description = "One or more products not found"),
+            @ApiResponse(responseCode = "429", description = "Too many orders for this buyer or client"),
+            @ApiResponse(responseCode = "501", description = "Not available while orders are sharded or partitioned")
+    })
+    public ResponseEntity<BulkOrderResultDTO> placeBulkOrder(HttpServletRequest request) throws IOException {
+        String clientKey = clientKey(request);
+        BulkOrderResultDTO createdOrder = bulkOrderService.placeOrder(request.getInputStream(),
+                buyerEmail -> orderRateLimiter.check(buyerEmail, clientKey));
+        return new ResponseEntity<>(createdOrder, HttpStatus.CREATED);
+    }
+
+    private static boolean isSummary(String view) {
+        if (!VIEW_FULL.equals(view) && !VIEW_SUMMARY.equals(view)) {
+            throw new IllegalArgumentException("Unsupported view: " + view);
+        }
+        return VIEW_SUMMARY.equals(view);
+    }
+
+    // Only what the client cannot choose freely: its principal, otherwise the connection's address
+    private static String clientKey(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        return principal != null ? "principal:" + principal.getName() : request.getRemoteAddr();
+    }
 }
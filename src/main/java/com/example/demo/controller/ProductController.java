@@ -1,17 +1,29 @@
 package com.example.demo.controller;
 
+import com.example.demo.cache.JsonResponseCache;
+import com.example.demo.dto.PriceAdjustmentDTO;
+import com.example.demo.dto.PriceUpdateDTO;
 import com.example.demo.dto.ProductDTO;
+import com.example.demo.dto.ProductLookupDTO;
+import com.example.demo.dto.RepricingResultDTO;
+import com.example.demo.service.LookupIds;
+import com.example.demo.service.ProductRepricingService;
 import com.example.demo.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @RestController
@@ -19,19 +31,68 @@ import java.util.List;
 @Tag(name = "Product Controller", description = "API for product management")
 public class ProductController {
 
+    private static final String SORT_BY_PRICE = "price";
+
     private final ProductService productService;
+    private final ProductRepricingService productRepricingService;
+    private final JsonResponseCache jsonResponseCache;
 
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductRepricingService productRepricingService,
+                             JsonResponseCache jsonResponseCache) {
         this.productService = productService;
+        this.productRepricingService = productRepricingService;
+        this.jsonResponseCache = jsonResponseCache;
     }
 
     @GetMapping
-    @Operation(summary = "Get all products", description = "Retrieve a list of all products")
-    @ApiResponse(responseCode = "200", description = "Successfully retrieved list of products")
-    public ResponseEntity<List<ProductDTO>> getAllProducts() {
-        List<ProductDTO> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    @Operation(summary = "Get all products", description = "Retrieve a list of all products, or a price range sorted by price " +
+            "when minPrice, maxPrice or sort=price is given. Price-sorted pages are continued with afterPrice/afterId, " +
+            "returned in the X-Next-After-Price and X-Next-After-Id headers while more results may follow " +
+            "(without X-Next-After-Price when the last product has no price). " +
+            "With ids, up to " + LookupIds.MAX_IDS + " products are looked up at once and unknown ids are listed in missingIds")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved list of products",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            array = @ArraySchema(schema = @Schema(implementation = ProductDTO.class)))),
+            @ApiResponse(responseCode = "400", description = "Invalid range, cursor, sort or ids parameter")
+    })
+    public ResponseEntity<?> getAllProducts(
+            @RequestParam(value = "ids", required = false) List<Long> ids,
+            @RequestParam(value = "minPrice", required = false) BigDecimal minPrice,
+            @RequestParam(value = "maxPrice", required = false) BigDecimal maxPrice,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "afterPrice", required = false) BigDecimal afterPrice,
+            @RequestParam(value = "afterId", required = false) Long afterId,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        if (ids != null) {
+            if (minPrice != null || maxPrice != null || sort != null || afterPrice != null || afterId != null) {
+                throw new IllegalArgumentException("ids cannot be combined with price range parameters");
+            }
+            ProductLookupDTO lookup = productService.getProductsByIds(ids);
+            return ResponseEntity.ok(lookup);
+        }
+        if (sort != null && !SORT_BY_PRICE.equals(sort)) {
+            throw new IllegalArgumentException("Unsupported sort: " + sort);
+        }
+        if (minPrice == null && maxPrice == null && sort == null && afterPrice == null && afterId == null) {
+            // The full list is served as cached JSON until the next product change
+            byte[] products = jsonResponseCache.getProductList(productService::getAllProducts);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(products);
+        }
+
+        List<ProductDTO> products = productService.getProductsByPriceRange(minPrice, maxPrice, afterPrice, afterId, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (products.size() == limit) {
+            ProductDTO last = products.get(products.size() - 1);
+            if (last.getPrice() != null) {
+                response.header("X-Next-After-Price", last.getPrice().toPlainString());
+            }
+            response.header("X-Next-After-Id", String.valueOf(last.getId()));
+        }
+        return response.body(products);
     }
 
     @GetMapping("/{id}")
@@ -68,6 +129,28 @@ public class ProductController {
         return ResponseEntity.ok(updatedProduct);
     }
 
+    @PutMapping("/prices")
+    @Operation(summary = "Set product prices", description = "Set the prices of many products at once. Unknown ids are ignored")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Prices successfully updated"),
+            @ApiResponse(responseCode = "400", description = "Missing id or non-positive price")
+    })
+    public ResponseEntity<RepricingResultDTO> setPrices(@RequestBody List<PriceUpdateDTO> prices) {
+        RepricingResultDTO result = productRepricingService.setPrices(prices);
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/prices/adjustments")
+    @Operation(summary = "Adjust product prices", description = "Change the prices of all products in an id range by a percentage")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Prices successfully adjusted"),
+            @ApiResponse(responseCode = "400", description = "Invalid id range or percentage")
+    })
+    public ResponseEntity<RepricingResultDTO> adjustPrices(@Valid @RequestBody PriceAdjustmentDTO adjustment) {
+        RepricingResultDTO result = productRepricingService.adjustPrices(adjustment);
+        return ResponseEntity.ok(result);
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete a product", description = "Delete a product by its ID")
     @ApiResponses(value = {
@@ -0,0 +1,42 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.RevenueReportDTO;
+import com.example.demo.service.RevenueReportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/reports")
+@Tag(name = "Report Controller", description = "API for sales reports")
+public class ReportController {
+
+    private final RevenueReportService revenueReportService;
+
+    @Autowired
+    public ReportController(RevenueReportService revenueReportService) {
+        this.revenueReportService = revenueReportService;
+    }
+
+    @GetMapping("/revenue")
+    @Operation(summary = "Get revenue report", description = "Revenue, units sold and order counts per day and per product " +
+            "for orders placed within a specified time period")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully computed the report"),
+            @ApiResponse(responseCode = "400", description = "Invalid or too long date range"),
+            @ApiResponse(responseCode = "501", description = "Not available while orders are sharded or partitioned")
+    })
+    public ResponseEntity<RevenueReportDTO> getRevenueReport(
+            @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+        RevenueReportDTO report = revenueReportService.getRevenueReport(startDate, endDate);
+        return ResponseEntity.ok(report);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demo.domain;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Running per-buyer totals, maintained by order placement so they never have to be aggregated
+ * from the orders table.
+ */
+@Entity
+@Table(name = "customer_summaries")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerSummary {
+
+    // Normalized buyer email, see Order#normalizeEmail
+    @Id
+    private String buyerEmail;
+
+    private long orderCount;
+
+    private BigDecimal lifetimeValue;
+
+    private LocalDateTime lastOrderTime;
+}
@@ -6,17 +6,25 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 @Entity
-@Table(name = "orders")
-@Data
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_buyer_email", columnList = "normalizedBuyerEmail"),
+        @Index(name = "idx_orders_order_time", columnList = "orderTime")
+})
+@Getter
+@Setter
+@ToString
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
@@ -30,14 +38,31 @@ public class Order {
     @Email(message = "Email should be valid")
     private String buyerEmail;
 
+    // Lower-cased, trimmed copy of buyerEmail used for indexed lookups
+    private String normalizedBuyerEmail;
+
     private LocalDateTime orderTime;
 
     private BigDecimal totalValue;
 
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     @NotEmpty(message = "Order must contain at least one item")
+    @ToString.Exclude
     private List<OrderItem> items = new ArrayList<>();
 
+    public static String normalizeEmail(String email) {
+        if (email == null || email.isBlank()) {
+            throw new IllegalArgumentException("Email is required");
+        }
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void normalizeBuyerEmail() {
+        this.normalizedBuyerEmail = buyerEmail == null ? null : normalizeEmail(buyerEmail);
+    }
+
     public void calculateTotalValue() {
         this.totalValue = items.stream()
                 .map(OrderItem::getPrice)
@@ -53,5 +78,24 @@ public class Order {
         items.remove(item);
         item.setOrder(null);
     }
+
+    /**
+     * Orders are equal when they have the same id; an order that is not yet saved is equal only
+     * to itself. Neither method touches the items, so neither can trigger a lazy load.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        // instanceof rather than getClass() so that a lazy proxy equals the loaded order
+        return other instanceof Order order && id != null && id.equals(order.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        // Constant, so that the hash does not change when save() assigns the id
+        return Order.class.hashCode();
+    }
 }
 
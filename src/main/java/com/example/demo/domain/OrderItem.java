@@ -8,7 +8,9 @@ import java.math.BigDecimal;
 
 @Entity
 @Table(name = "order_items")
-@Data
+@Getter
+@Setter
+@ToString
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
@@ -35,5 +37,26 @@ public class OrderItem {
     public BigDecimal getPrice() {
         return price.multiply(BigDecimal.valueOf(quantity));
     }
+
+    // The price column holds the unit price, getPrice() above is the line total
+    public BigDecimal getUnitPrice() {
+        return price;
+    }
+
+    /**
+     * Same identity rules as {@link Order#equals}: by id, never through the order.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        return other instanceof OrderItem item && id != null && id.equals(item.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return OrderItem.class.hashCode();
+    }
 }
 
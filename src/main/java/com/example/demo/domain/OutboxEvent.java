@@ -0,0 +1,39 @@
+package com.example.demo.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Event written in the same transaction as the change it describes, and relayed to the order
+ * event log afterwards. The row is deleted once it has been appended to the log.
+ */
+@Entity
+@Table(name = "order_outbox")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String eventType;
+
+    @Column(nullable = false)
+    private Long orderId;
+
+    // JSON document of the event
+    @Column(nullable = false, length = 1_000_000)
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,26 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderResultDTO {
+
+    private Long id;
+
+    private String buyerEmail;
+
+    private LocalDateTime orderTime;
+
+    private BigDecimal totalValue;
+
+    private long itemCount;
+}
@@ -0,0 +1,24 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerSummaryDTO {
+
+    private String buyerEmail;
+
+    private long orderCount;
+
+    private BigDecimal lifetimeValue;
+
+    private LocalDateTime lastOrderTime;
+}
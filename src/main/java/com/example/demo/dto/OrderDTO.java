@@ -4,6 +4,8 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -40,9 +42,12 @@ public class OrderDTO {
     @Builder
     public static class OrderItemDTO {
         private Long id;
+        @NotNull(message = "Product id is required")
         private Long productId;
         private String productName;
         private BigDecimal price;
+        @NotNull(message = "Quantity is required")
+        @Positive(message = "Quantity must be positive")
         private Integer quantity;
     }
 }
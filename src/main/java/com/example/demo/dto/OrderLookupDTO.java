@@ -0,0 +1,22 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderLookupDTO {
+
+    @Builder.Default
+    private List<OrderDTO> orders = new ArrayList<>();
+
+    @Builder.Default
+    private List<Long> missingIds = new ArrayList<>();
+}
@@ -0,0 +1,31 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * An order without its items, as listed with {@code view=summary}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryDTO {
+
+    private Long id;
+
+    private String buyerEmail;
+
+    private LocalDateTime orderTime;
+
+    private BigDecimal totalValue;
+
+    public static OrderSummaryDTO of(OrderDTO order) {
+        return new OrderSummaryDTO(order.getId(), order.getBuyerEmail(), order.getOrderTime(), order.getTotalValue());
+    }
+}
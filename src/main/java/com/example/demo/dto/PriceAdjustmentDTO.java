@@ -0,0 +1,33 @@
+package com.example.demo.dto;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Relative price change for every product with {@code fromId <= id <= toId}, e.g. a percent of
+ * 5 raises prices by 5% and -10 lowers them by 10%.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceAdjustmentDTO {
+
+    @NotNull(message = "fromId is required")
+    private Long fromId;
+
+    @NotNull(message = "toId is required")
+    private Long toId;
+
+    @NotNull(message = "percent is required")
+    @DecimalMin(value = "-99.99", message = "percent must be greater than -100")
+    @DecimalMax(value = "1000", message = "percent must not exceed 1000")
+    private BigDecimal percent;
+}
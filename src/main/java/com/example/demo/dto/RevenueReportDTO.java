@@ -0,0 +1,59 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueReportDTO {
+
+    private LocalDateTime startDate;
+
+    private LocalDateTime endDate;
+
+    private long orderCount;
+
+    private long units;
+
+    private BigDecimal revenue;
+
+    // Days with orders, in date order
+    @Builder.Default
+    private List<DailyRevenueDTO> days = new ArrayList<>();
+
+    // Products sold, highest revenue first
+    @Builder.Default
+    private List<ProductRevenueDTO> products = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class DailyRevenueDTO {
+        private LocalDate date;
+        private long orderCount;
+        private long units;
+        private BigDecimal revenue;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ProductRevenueDTO {
+        private Long productId;
+        private String productName;
+        private long units;
+        private BigDecimal revenue;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.demo.event;
+
+import com.example.demo.dto.OrderDTO;
+
+/**
+ * Published by order placement inside its transaction. Listeners that keep derived state
+ * should react after commit. The items of orders placed in bulk are left out, so
+ * {@link OrderDTO#getItems()} is null for them.
+ */
+public record OrderPlacedEvent(OrderDTO order) {
+}
@@ -0,0 +1,25 @@
+package com.example.demo.event;
+
+import com.example.demo.dto.ProductDTO;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Published by the product write paths so that in-memory product structures can follow the
+ * database. Listeners should react after commit, never on a rolled back change.
+ */
+public record ProductChangedEvent(List<ProductDTO> updated, List<Long> deletedIds) {
+
+    public static ProductChangedEvent updated(ProductDTO product) {
+        return new ProductChangedEvent(List.of(product), Collections.emptyList());
+    }
+
+    public static ProductChangedEvent updated(List<ProductDTO> products) {
+        return new ProductChangedEvent(products, Collections.emptyList());
+    }
+
+    public static ProductChangedEvent deleted(Long productId) {
+        return new ProductChangedEvent(Collections.emptyList(), List.of(productId));
+    }
+}
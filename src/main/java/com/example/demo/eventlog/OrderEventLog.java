@@ -0,0 +1,252 @@
+package com.example.demo.eventlog;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of order events, stored as newline-delimited JSON in segment files named after
+ * the offset of their first byte. Offsets are global byte positions, so a consumer resumes from
+ * the offset it was last given and the log never has to be parsed to serve a read: a read is a
+ * byte range of one segment, cut at a record boundary.
+ */
+@Component
+public class OrderEventLog {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderEventLog.class);
+
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int SCAN_CHUNK_BYTES = 8192;
+
+    private final Path directory;
+    private final long segmentBytes;
+
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+
+    // Active segment channel, guarded by this
+    private FileChannel activeChannel;
+
+    public OrderEventLog(@Value("${app.orders.events.path:./data/events}") String directory,
+                         @Value("${app.orders.events.segment-bytes:67108864}") long segmentBytes) throws IOException {
+        this.directory = Paths.get(directory);
+        this.segmentBytes = segmentBytes;
+        load();
+    }
+
+    /**
+     * Offset just past the last durable record, i.e. where the next append starts.
+     */
+    public long getEndOffset() {
+        Map.Entry<Long, Segment> last = segments.lastEntry();
+        return last == null ? 0 : last.getValue().end();
+    }
+
+    /**
+     * Appends records, each terminated by a newline, and forces them to disk. Readers only see
+     * the records once this returns.
+     *
+     * @return the end offset after the append
+     */
+    public synchronized long append(List<byte[]> records) throws IOException {
+        if (records.isEmpty()) {
+            return getEndOffset();
+        }
+        Segment segment = activeSegment();
+        ByteBuffer[] buffers = new ByteBuffer[records.size() * 2];
+        long length = 0;
+        for (int i = 0; i < records.size(); i++) {
+            byte[] record = records.get(i);
+            buffers[2 * i] = ByteBuffer.wrap(record);
+            buffers[2 * i + 1] = ByteBuffer.wrap(new byte[]{'\n'});
+            length += record.length + 1;
+        }
+        try {
+            long written = 0;
+            while (written < length) {
+                written += activeChannel.write(buffers);
+            }
+            activeChannel.force(false);
+        } catch (IOException e) {
+            // Drop the partial write so the file keeps matching the offsets handed out
+            activeChannel.truncate(segment.size);
+            throw e;
+        }
+        segment.size += length;
+        return segment.end();
+    }
+
+    /**
+     * Locates the records starting at {@code fromOffset}, at most {@code maxBytes} of them unless a
+     * single record is larger. The returned range never spans segments, so a consumer may need
+     * several reads to catch up.
+     */
+    public Slice read(long fromOffset, int maxBytes) throws IOException {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+        long endOffset = getEndOffset();
+        if (fromOffset < 0 || fromOffset > endOffset) {
+            throw new IllegalArgumentException("Offset " + fromOffset + " is outside of the event log [0, " + endOffset + "]");
+        }
+        Map.Entry<Long, Segment> entry = segments.floorEntry(fromOffset);
+        if (entry == null || fromOffset == endOffset) {
+            return new Slice(null, 0, 0, fromOffset);
+        }
+
+        Segment segment = entry.getValue();
+        long size = segment.size;
+        long position = fromOffset - segment.baseOffset;
+        try (FileChannel channel = FileChannel.open(segment.file, StandardOpenOption.READ)) {
+            if (position > 0 && byteAt(channel, position - 1) != '\n') {
+                throw new IllegalArgumentException("Offset " + fromOffset + " is not at the start of an event");
+            }
+            long end = Math.min(size, position + maxBytes);
+            if (end < size) {
+                long newline = lastNewline(channel, position, end);
+                end = newline >= 0 ? newline + 1 : firstNewline(channel, end, size) + 1;
+            }
+            return new Slice(segment.file, position, end - position, segment.baseOffset + end);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (activeChannel != null) {
+            activeChannel.close();
+            activeChannel = null;
+        }
+    }
+
+    private Segment activeSegment() throws IOException {
+        Map.Entry<Long, Segment> last = segments.lastEntry();
+        if (last != null && last.getValue().size < segmentBytes) {
+            if (activeChannel == null) {
+                activeChannel = FileChannel.open(last.getValue().file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            return last.getValue();
+        }
+
+        close();
+        Files.createDirectories(directory);
+        long baseOffset = last == null ? 0 : last.getValue().end();
+        Segment segment = new Segment(baseOffset, directory.resolve(String.format("%020d%s", baseOffset, SEGMENT_SUFFIX)), 0);
+        activeChannel = FileChannel.open(segment.file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segments.put(baseOffset, segment);
+        return segment;
+    }
+
+    private void load() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList()) {
+                String name = file.getFileName().toString();
+                long baseOffset = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                segments.put(baseOffset, new Segment(baseOffset, file, Files.size(file)));
+            }
+        }
+
+        Map.Entry<Long, Segment> last = segments.lastEntry();
+        if (last != null) {
+            Segment segment = last.getValue();
+            try (FileChannel channel = FileChannel.open(segment.file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long complete = segment.size == 0 ? 0 : lastNewline(channel, 0, segment.size) + 1;
+                if (complete < segment.size) {
+                    // Torn write from a crash during append; the relay appends those events again
+                    log.warn("Truncating {} to {} bytes, dropping an incomplete event", segment.file, complete);
+                    channel.truncate(complete);
+                    segment.size = complete;
+                }
+            }
+        }
+        log.info("Opened order event log at {} with {} segments, end offset {}", directory, segments.size(), getEndOffset());
+    }
+
+    private static byte byteAt(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1);
+        readFully(channel, buffer, position);
+        return buffer.get(0);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of event log segment at " + position);
+            }
+        }
+    }
+
+    // Position of the last newline in [from, to), or -1
+    private static long lastNewline(FileChannel channel, long from, long to) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_CHUNK_BYTES);
+        long chunkEnd = to;
+        while (chunkEnd > from) {
+            long chunkStart = Math.max(from, chunkEnd - SCAN_CHUNK_BYTES);
+            buffer.clear().limit((int) (chunkEnd - chunkStart));
+            readFully(channel, buffer, chunkStart);
+            for (int i = buffer.position() - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    return chunkStart + i;
+                }
+            }
+            chunkEnd = chunkStart;
+        }
+        return -1;
+    }
+
+    // Position of the first newline in [from, to); records are always terminated, so one exists
+    private static long firstNewline(FileChannel channel, long from, long to) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_CHUNK_BYTES);
+        for (long chunkStart = from; chunkStart < to; chunkStart += SCAN_CHUNK_BYTES) {
+            buffer.clear().limit((int) Math.min(SCAN_CHUNK_BYTES, to - chunkStart));
+            readFully(channel, buffer, chunkStart);
+            for (int i = 0; i < buffer.position(); i++) {
+                if (buffer.get(i) == '\n') {
+                    return chunkStart + i;
+                }
+            }
+        }
+        return to - 1;
+    }
+
+    /**
+     * Byte range {@code [position, position + length)} of {@code file} holding whole records, and
+     * the offset to read from next. An empty slice has no file.
+     */
+    public record Slice(Path file, long position, long length, long nextOffset) {
+    }
+
+    private static final class Segment {
+
+        private final long baseOffset;
+        private final Path file;
+        private volatile long size;
+
+        Segment(long baseOffset, Path file, long size) {
+            this.baseOffset = baseOffset;
+            this.file = file;
+            this.size = size;
+        }
+
+        long end() {
+            return baseOffset + size;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.demo.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_IMPLEMENTED)
+public class FeatureUnavailableException extends RuntimeException {
+
+    public FeatureUnavailableException(String message) {
+        // Caused by how the application is configured, not by a fault in the request or the code
+        super(message, null, false, false);
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 public class ResourceNotFoundException extends RuntimeException {
 
     public ResourceNotFoundException(String message) {
-        super(message);
+        // A 404 is an expected outcome, often requested in bulk by scrapers; nobody reads its stack trace
+        super(message, null, false, false);
     }
 }
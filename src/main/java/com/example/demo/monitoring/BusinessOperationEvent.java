@@ -0,0 +1,34 @@
+package com.example.demo.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event spanning one service call. Allocation samples, monitor waits and other JDK events on
+ * the same thread within its start and end belong to that call.
+ */
+@Name("com.example.demo.BusinessOperation")
+@Label("Business Operation")
+@Category({"Demo", "Service"})
+@Description("A service call and the JDBC statements it ran on its own thread")
+@StackTrace(false)
+public class BusinessOperationEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("SQL Statements")
+    int sqlStatements;
+
+    @Label("SQL Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long sqlTime;
+
+    @Label("Failed")
+    boolean failed;
+}
@@ -0,0 +1,68 @@
+package com.example.demo.monitoring;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Emits a {@link BusinessOperationEvent} around order placement and the order and product reads,
+ * with the number and total time of the statements {@link StatementStatistics} saw meanwhile on
+ * the calling thread. Statements run on other threads, such as the shard scatter pool, are not
+ * included.
+ * <p>
+ * Ordered first so that the event also covers the transaction commit. Without a recording that
+ * enables the event, a call costs one check.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class BusinessOperationProfiler {
+
+    private static final ThreadLocal<BusinessOperationEvent> CURRENT = new ThreadLocal<>();
+
+    @Around("execution(public * com.example.demo.service.OrderService.*(..)) " +
+            "|| execution(public * com.example.demo.service.ProductService.get*(..))")
+    public Object profile(ProceedingJoinPoint call) throws Throwable {
+        BusinessOperationEvent event = new BusinessOperationEvent();
+        if (!event.isEnabled()) {
+            return call.proceed();
+        }
+        BusinessOperationEvent outer = CURRENT.get();
+        CURRENT.set(event);
+        event.begin();
+        try {
+            return call.proceed();
+        } catch (Throwable e) {
+            event.failed = true;
+            throw e;
+        } finally {
+            event.end();
+            if (outer == null) {
+                CURRENT.remove();
+            } else {
+                // The outer operation ran these statements too
+                CURRENT.set(outer);
+                outer.sqlStatements += event.sqlStatements;
+                outer.sqlTime += event.sqlTime;
+            }
+            if (event.shouldCommit()) {
+                event.operation = call.getSignature().getDeclaringType().getSimpleName() + "." + call.getSignature().getName();
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Adds a statement executed on this thread to the operation in progress, if any.
+     */
+    static void recordStatement(long nanos) {
+        BusinessOperationEvent event = CURRENT.get();
+        if (event != null) {
+            event.sqlStatements++;
+            event.sqlTime += nanos;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.demo.monitoring;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.management.jfr.FlightRecorderMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * A JFR recording that runs for the life of the application and keeps the last
+ * {@code app.profiling.max-age} (at most {@code app.profiling.max-size}) on disk, so that a
+ * recording of a slow period can be taken after the fact without attaching anything.
+ */
+@Component
+@ConditionalOnProperty(name = "app.profiling.enabled", havingValue = "true")
+public class ContinuousRecording {
+
+    private static final Logger log = LoggerFactory.getLogger(ContinuousRecording.class);
+
+    static final String NAME = "demo-continuous";
+
+    private final Recording recording;
+    private final Duration maxAge;
+
+    public ContinuousRecording(@Value("${app.profiling.settings:default}") String settings,
+                               @Value("${app.profiling.max-age:PT30M}") Duration maxAge,
+                               @Value("${app.profiling.max-size:256MB}") DataSize maxSize) throws IOException, ParseException {
+        this.maxAge = maxAge;
+        // "default" is JFR's low-overhead configuration, "profile" samples more at a higher cost
+        this.recording = new Recording(Configuration.getConfiguration(settings));
+        recording.setName(NAME);
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.setMaxSize(maxSize.toBytes());
+        recording.enable(BusinessOperationEvent.class);
+        // Environment variables and system properties often hold credentials
+        recording.disable("jdk.InitialEnvironmentVariable");
+        recording.disable("jdk.InitialSystemProperty");
+    }
+
+    @PostConstruct
+    public void start() {
+        recording.start();
+        log.info("Started continuous JFR recording '{}' keeping the last {}", NAME, maxAge);
+    }
+
+    @PreDestroy
+    public void stop() {
+        recording.close();
+    }
+
+    public Duration getMaxAge() {
+        return maxAge;
+    }
+
+    /**
+     * Writes the recorded data of the last {@code last} to a new temporary file, which the caller
+     * deletes. Data is kept in chunks, so the file may start somewhat earlier.
+     */
+    public Path dump(Duration last) throws IOException {
+        Path file = Files.createTempFile("demo-", ".jfr");
+        FlightRecorderMXBean flightRecorder = ManagementFactory.getPlatformMXBean(FlightRecorderMXBean.class);
+        // A stopped copy of the data so far; the recording itself keeps running
+        try (Recording copy = recording.copy(true); OutputStream out = Files.newOutputStream(file)) {
+            String startTime = String.valueOf(Instant.now().minus(last).toEpochMilli());
+            long stream = flightRecorder.openStream(copy.getId(), Map.of("startTime", startTime));
+            try {
+                byte[] block;
+                while ((block = flightRecorder.readStream(stream)) != null) {
+                    out.write(block);
+                }
+            } finally {
+                flightRecorder.closeStream(stream);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return file;
+    }
+}
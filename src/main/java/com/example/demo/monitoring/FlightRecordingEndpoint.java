@@ -0,0 +1,83 @@
+package com.example.demo.monitoring;
+
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@code GET /actuator/flightrecording?minutes=N} downloads the last N minutes of the
+ * {@link ContinuousRecording} as a .jfr file, for JDK Mission Control or {@code jfr print}. Without
+ * {@code minutes} the whole window is returned. One dump runs at a time, others get 429.
+ */
+@Component
+@WebEndpoint(id = "flightrecording")
+@ConditionalOnProperty(name = "app.profiling.enabled", havingValue = "true")
+public class FlightRecordingEndpoint {
+
+    private final ContinuousRecording continuousRecording;
+    private final Lock dumpLock = new ReentrantLock();
+
+    public FlightRecordingEndpoint(ContinuousRecording continuousRecording) {
+        this.continuousRecording = continuousRecording;
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> dump(@Nullable Integer minutes) throws IOException {
+        Duration last = minutes == null ? continuousRecording.getMaxAge() : Duration.ofMinutes(minutes);
+        if (minutes != null && (minutes < 1 || last.compareTo(continuousRecording.getMaxAge()) > 0)) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        if (!dumpLock.tryLock()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+        }
+        try {
+            return new WebEndpointResponse<>(new TemporaryFileResource(continuousRecording.dump(last)));
+        } finally {
+            dumpLock.unlock();
+        }
+    }
+
+    /**
+     * A dump file that is deleted once the response has been written.
+     */
+    private static final class TemporaryFileResource extends FileSystemResource {
+
+        private TemporaryFileResource(Path file) {
+            super(file);
+        }
+
+        @Override
+        public boolean isFile() {
+            // Keeps the file from being sent without going through getInputStream()
+            return false;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        Files.deleteIfExists(getFile().toPath());
+                    }
+                }
+            };
+        }
+    }
+}
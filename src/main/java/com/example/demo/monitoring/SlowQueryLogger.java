@@ -0,0 +1,77 @@
+package com.example.demo.monitoring;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logs slow statements from a background thread. Callers only pay for a sampling decision and a
+ * non-blocking queue offer; when the queue is full the entry is dropped and counted instead.
+ */
+@Component
+public class SlowQueryLogger implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger("com.example.demo.sql.slow");
+
+    private final double sampleRate;
+    private final BlockingQueue<SlowStatement> queue;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread worker;
+
+    public SlowQueryLogger(@Value("${app.sql.slow-query.sample-rate:1.0}") double sampleRate,
+                           @Value("${app.sql.slow-query.queue-capacity:1024}") int queueCapacity) {
+        this.sampleRate = sampleRate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.worker = new Thread(this::drain, "slow-query-logger");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Whether the next slow statement should be logged at all. Decided on the calling thread so
+     * that unsampled statements skip capturing their origin.
+     */
+    boolean sample() {
+        return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    void submit(SlowStatement statement) {
+        if (!queue.offer(statement)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    private void drain() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                SlowStatement statement = queue.take();
+                log.warn("Slow statement took {} ms in {}: {} params={}",
+                        TimeUnit.NANOSECONDS.toMillis(statement.nanos()), statement.origin(),
+                        statement.sql(), statement.parameterTypes());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        worker.interrupt();
+    }
+
+    record SlowStatement(String sql, long nanos, List<String> parameterTypes, String origin) {
+    }
+}
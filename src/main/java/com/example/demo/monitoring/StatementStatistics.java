@@ -0,0 +1,104 @@
+package com.example.demo.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-statement latency histograms, published as the {@code demo.sql.statements} timer tagged
+ * with the normalized SQL, and the hand-off of slow executions to the {@link SlowQueryLogger}.
+ */
+@Component
+public class StatementStatistics {
+
+    static final String METRIC_NAME = "demo.sql.statements";
+    static final String OTHER_STATEMENTS = "other";
+
+    private static final String SERVICE_PACKAGE = "com.example.demo.service.";
+
+    // Raw SQL strings remembered per statement shape, e.g. IN lists of different lengths; counted
+    // per shape so that one shape with many variants cannot use up the cache of the others
+    static final int SQL_PER_STATEMENT = 4;
+
+    private final MeterRegistry meterRegistry;
+    private final SlowQueryLogger slowQueryLogger;
+    private final long slowThresholdNanos;
+    private final int maxStatements;
+
+    // Keyed by normalized SQL, at most maxStatements of them besides "other"
+    private final Map<String, Statement> statements = new ConcurrentHashMap<>();
+    // Hibernate reuses the same strings, so normalization mostly runs once per raw SQL; capped,
+    // since SQL with inlined literals never repeats
+    private final Map<String, Timer> timersBySql = new ConcurrentHashMap<>();
+
+    public StatementStatistics(MeterRegistry meterRegistry, SlowQueryLogger slowQueryLogger,
+                               @Value("${app.sql.slow-query.threshold-ms:200}") long slowThresholdMs,
+                               @Value("${app.sql.statistics.max-statements:500}") int maxStatements) {
+        this.meterRegistry = meterRegistry;
+        this.slowQueryLogger = slowQueryLogger;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+        this.maxStatements = maxStatements;
+    }
+
+    public void record(String sql, long nanos, List<String> parameterTypes) {
+        timerFor(sql).record(nanos, TimeUnit.NANOSECONDS);
+        BusinessOperationProfiler.recordStatement(nanos);
+        if (nanos >= slowThresholdNanos && slowQueryLogger.sample()) {
+            slowQueryLogger.submit(new SlowQueryLogger.SlowStatement(
+                    SqlNormalizer.normalize(sql), nanos, List.copyOf(parameterTypes), origin()));
+        }
+    }
+
+    int cachedSqlCount() {
+        return timersBySql.size();
+    }
+
+    private Timer timerFor(String sql) {
+        Timer timer = timersBySql.get(sql);
+        if (timer != null) {
+            return timer;
+        }
+        String normalized = SqlNormalizer.normalize(sql);
+        Statement statement = statements.get(normalized);
+        if (statement == null) {
+            // Unbounded tag values would turn ad-hoc SQL into a metrics memory leak
+            statement = statements.computeIfAbsent(statements.size() < maxStatements ? normalized : OTHER_STATEMENTS,
+                    this::register);
+        }
+        if (statement.cachedSql().get() < SQL_PER_STATEMENT && timersBySql.putIfAbsent(sql, statement.timer()) == null) {
+            statement.cachedSql().incrementAndGet();
+        }
+        return statement.timer();
+    }
+
+    private Statement register(String statement) {
+        Timer timer = Timer.builder(METRIC_NAME)
+                .description("Execution time of JDBC statements")
+                .tag("statement", statement)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100_000))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry);
+        return new Statement(timer, new AtomicInteger());
+    }
+
+    private static String origin() {
+        Optional<String> serviceMethod = StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(SERVICE_PACKAGE) && !frame.getClassName().contains("$$"))
+                .findFirst()
+                .map(frame -> frame.getClassName().substring(SERVICE_PACKAGE.length()) + "." + frame.getMethodName()));
+        return serviceMethod.orElse("unknown");
+    }
+
+    private record Statement(Timer timer, AtomicInteger cachedSql) {
+    }
+}
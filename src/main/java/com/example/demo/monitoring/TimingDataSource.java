@@ -0,0 +1,138 @@
+package com.example.demo.monitoring;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Wraps the application data source so that every statement execution is timed and reported to
+ * {@link StatementStatistics}. Bind parameters are recorded by type only, never by value.
+ */
+public class TimingDataSource extends DelegatingDataSource {
+
+    private final ObjectProvider<StatementStatistics> statisticsProvider;
+    private volatile StatementStatistics statistics;
+
+    public TimingDataSource(DataSource targetDataSource, ObjectProvider<StatementStatistics> statisticsProvider) {
+        super(targetDataSource);
+        this.statisticsProvider = statisticsProvider;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    // Resolved on first use: the data source is created before the meter registry is available
+    private StatementStatistics statistics() {
+        StatementStatistics current = statistics;
+        if (current == null) {
+            current = statisticsProvider.getObject();
+            statistics = current;
+        }
+        return current;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection connection;
+
+        ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = TimingDataSource.invoke(connection, method, args);
+            String name = method.getName();
+            if (result instanceof Statement statement && args != null && args.length > 0 && args[0] instanceof String sql
+                    && (name.equals("prepareStatement") || name.equals("prepareCall"))) {
+                Class<?> type = result instanceof CallableStatement ? CallableStatement.class : PreparedStatement.class;
+                return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type},
+                        new StatementHandler(statement, sql));
+            }
+            if (result instanceof Statement statement && name.equals("createStatement")) {
+                return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Statement.class},
+                        new StatementHandler(statement, null));
+            }
+            return result;
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+        private final String preparedSql;
+        private List<String> parameterTypes = Collections.emptyList();
+
+        StatementHandler(Statement statement, String preparedSql) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                recordParameter(index, name, args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameterTypes = Collections.emptyList();
+            }
+            if (!name.startsWith("execute")) {
+                return TimingDataSource.invoke(statement, method, args);
+            }
+
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+            long start = System.nanoTime();
+            try {
+                return TimingDataSource.invoke(statement, method, args);
+            } finally {
+                if (sql != null) {
+                    statistics().record(sql, System.nanoTime() - start, parameterTypes);
+                }
+            }
+        }
+
+        private void recordParameter(int index, String setter, Object value) {
+            if (parameterTypes.isEmpty()) {
+                parameterTypes = new ArrayList<>();
+            }
+            while (parameterTypes.size() < index) {
+                parameterTypes.add("?");
+            }
+            String type = setter.equals("setNull") || value == null ? "null" : value.getClass().getSimpleName();
+            parameterTypes.set(index - 1, type);
+        }
+    }
+}
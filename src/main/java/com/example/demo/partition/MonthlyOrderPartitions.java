@@ -0,0 +1,324 @@
+package com.example.demo.partition;
+
+import com.example.demo.domain.Order;
+import com.example.demo.domain.OrderItem;
+import com.example.demo.dto.OrderDTO;
+import com.example.demo.dto.OrderSummaryDTO;
+import com.example.demo.repository.OrderRows;
+import com.example.demo.repository.OrderStore;
+import com.example.demo.shard.OrderIdGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Keeps orders and their items in one pair of tables per calendar month of order time,
+ * {@code orders_pYYYYMM} and {@code order_items_pYYYYMM}, listed in the {@code order_partitions}
+ * catalog. A date range reads only the months it overlaps, and an old month leaves with two
+ * DROP TABLE statements instead of a DELETE of every row.
+ * <p>
+ * The current and the next month are created ahead of time, and a month that is still missing
+ * when an order arrives is created on demand. Order ids come from {@link OrderIdGenerator}, and
+ * orders are placed at the current time, so the time embedded in an id names the order's month
+ * and a lookup by id reads one partition.
+ */
+@Component
+public class MonthlyOrderPartitions implements OrderStore {
+
+    private static final Logger log = LoggerFactory.getLogger(MonthlyOrderPartitions.class);
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    // An id is generated shortly after its order's time was taken, possibly in the next month
+    private static final Duration ID_LAG = Duration.ofMinutes(1);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate ddlTransaction;
+    private final boolean enabled;
+    private final OrderIdGenerator ids = new OrderIdGenerator(0);
+    private final NavigableSet<YearMonth> months = new ConcurrentSkipListSet<>();
+
+    // Held for reading while partitions are queried or written, so that a month is never dropped under a reader
+    private final ReadWriteLock dropLock = new ReentrantReadWriteLock();
+
+    public MonthlyOrderPartitions(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                  @Value("${app.orders.partitions.enabled:false}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        // H2 commits on DDL, so partitions are created on a connection of their own
+        this.ddlTransaction = new TransactionTemplate(transactionManager);
+        this.ddlTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        if (enabled) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS order_partitions (month_start DATE PRIMARY KEY, " +
+                    "orders_table VARCHAR(64) NOT NULL, items_table VARCHAR(64) NOT NULL, archived_through_id BIGINT)");
+            jdbcTemplate.execute("ALTER TABLE order_partitions ADD COLUMN IF NOT EXISTS archived_through_id BIGINT");
+            jdbcTemplate.queryForList("SELECT month_start FROM order_partitions", Date.class)
+                    .forEach(start -> months.add(YearMonth.from(start.toLocalDate())));
+            createUpcomingPartitions();
+            log.info("Orders are partitioned by month, {} partitions from {} to {}", months.size(),
+                    months.first(), months.last());
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Scheduled(initialDelayString = "${app.orders.partitions.maintenance-interval-ms:3600000}",
+            fixedDelayString = "${app.orders.partitions.maintenance-interval-ms:3600000}")
+    public void createUpcomingPartitions() {
+        if (!enabled) {
+            return;
+        }
+        YearMonth current = YearMonth.now();
+        ensurePartition(current);
+        ensurePartition(current.plusMonths(1));
+    }
+
+    public List<YearMonth> getPartitions() {
+        return List.copyOf(months);
+    }
+
+    /**
+     * Inserts into the caller's transaction, so the order commits or rolls back with it.
+     */
+    @Override
+    public Order save(Order order) {
+        YearMonth month = YearMonth.from(order.getOrderTime());
+        ensurePartition(month);
+        order.setId(ids.next());
+        order.setNormalizedBuyerEmail(Order.normalizeEmail(order.getBuyerEmail()));
+        List<Object[]> items = new ArrayList<>(order.getItems().size());
+        for (OrderItem item : order.getItems()) {
+            item.setId(ids.next());
+            items.add(new Object[]{item.getId(), order.getId(), item.getProductId(), item.getProductName(),
+                    item.getUnitPrice(), item.getQuantity()});
+        }
+        dropLock.readLock().lock();
+        try {
+            jdbcTemplate.update("INSERT INTO " + ordersTable(month) + " (id, buyer_email, normalized_buyer_email, " +
+                            "order_time, total_value) VALUES (?, ?, ?, ?, ?)", order.getId(), order.getBuyerEmail(),
+                    order.getNormalizedBuyerEmail(), Timestamp.valueOf(order.getOrderTime()), order.getTotalValue());
+            jdbcTemplate.batchUpdate("INSERT INTO " + itemsTable(month) + " (id, order_id, product_id, product_name, " +
+                    "price, quantity) VALUES (?, ?, ?, ?, ?, ?)", items);
+        } finally {
+            dropLock.readLock().unlock();
+        }
+        return order;
+    }
+
+    @Override
+    public Optional<OrderDTO> findById(long id) {
+        return read(candidateMonths(id), month -> jdbcTemplate.query(select(month) + "WHERE o.id = ?" + OrderRows.ORDER_BY_TIME,
+                OrderRows.ORDERS, id)).stream().findFirst();
+    }
+
+    /**
+     * One IN query per month named by the ids.
+     */
+    @Override
+    public List<OrderDTO> findByIds(Collection<Long> ids) {
+        Map<YearMonth, List<Long>> byMonth = new TreeMap<>();
+        for (Long id : ids) {
+            for (YearMonth month : candidateMonths(id)) {
+                byMonth.computeIfAbsent(month, m -> new ArrayList<>()).add(id);
+            }
+        }
+        return read(byMonth.keySet(), month -> {
+            List<Long> monthIds = byMonth.get(month);
+            return jdbcTemplate.query(select(month) + OrderRows.whereIdIn(monthIds.size()) + OrderRows.ORDER_BY_TIME,
+                    OrderRows.ORDERS, monthIds.toArray());
+        });
+    }
+
+    @Override
+    public List<OrderDTO> findBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        if (startDate.isAfter(endDate)) {
+            return List.of();
+        }
+        // Partition pruning: only the months the range overlaps are read, in time order
+        Set<YearMonth> overlapping = months.subSet(YearMonth.from(startDate), true, YearMonth.from(endDate), true);
+        return read(overlapping, month -> jdbcTemplate.query(select(month) + "WHERE o.order_time BETWEEN ? AND ?" +
+                OrderRows.ORDER_BY_TIME, OrderRows.ORDERS, Timestamp.valueOf(startDate), Timestamp.valueOf(endDate)));
+    }
+
+    @Override
+    public List<OrderDTO> findAll() {
+        return read(months, month -> jdbcTemplate.query(select(month) + OrderRows.ORDER_BY_TIME, OrderRows.ORDERS));
+    }
+
+    @Override
+    public List<OrderSummaryDTO> findSummariesBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        if (startDate.isAfter(endDate)) {
+            return List.of();
+        }
+        Set<YearMonth> overlapping = months.subSet(YearMonth.from(startDate), true, YearMonth.from(endDate), true);
+        return read(overlapping, month -> jdbcTemplate.query(OrderRows.selectSummaries(ordersTable(month)) +
+                        "WHERE o.order_time BETWEEN ? AND ?" + OrderRows.SUMMARIES_BY_TIME, OrderRows.SUMMARIES,
+                Timestamp.valueOf(startDate), Timestamp.valueOf(endDate)));
+    }
+
+    @Override
+    public List<OrderSummaryDTO> findAllSummaries() {
+        return read(months, month -> jdbcTemplate.query(OrderRows.selectSummaries(ordersTable(month)) +
+                OrderRows.SUMMARIES_BY_TIME, OrderRows.SUMMARIES));
+    }
+
+    @Override
+    public List<OrderDTO> findByBuyer(String buyerEmail) {
+        String normalized = Order.normalizeEmail(buyerEmail);
+        return read(months, month -> jdbcTemplate.query(select(month) + "WHERE o.normalized_buyer_email = ?" +
+                OrderRows.ORDER_BY_TIME, OrderRows.ORDERS, normalized));
+    }
+
+    /**
+     * Months that ended at or before {@code cutoff}, oldest first.
+     */
+    public List<YearMonth> getPartitionsEndingBefore(LocalDateTime cutoff) {
+        return months.stream()
+                .filter(month -> !month.plusMonths(1).atDay(1).atStartOfDay().isAfter(cutoff))
+                .toList();
+    }
+
+    /**
+     * Up to {@code limit} orders of a month with ids above {@code afterId}, in id order.
+     */
+    public List<OrderDTO> findChunk(YearMonth month, long afterId, int limit) {
+        return read(Set.of(month), m -> jdbcTemplate.query(select(m) + "WHERE o.id IN (SELECT id FROM " + ordersTable(m) +
+                " WHERE id > ? ORDER BY id LIMIT ?) ORDER BY o.id, i.id", OrderRows.ORDERS, afterId, limit));
+    }
+
+    /**
+     * The highest id of this month already appended to the archive, or 0 if archiving has not
+     * started, so that an interrupted archiving run can continue where it stopped.
+     */
+    public long getArchivedThroughId(YearMonth month) {
+        Long id = jdbcTemplate.queryForObject("SELECT archived_through_id FROM order_partitions WHERE month_start = ?",
+                Long.class, Date.valueOf(month.atDay(1)));
+        return id == null ? 0 : id;
+    }
+
+    public void setArchivedThroughId(YearMonth month, long id) {
+        jdbcTemplate.update("UPDATE order_partitions SET archived_through_id = ? WHERE month_start = ?",
+                id, Date.valueOf(month.atDay(1)));
+    }
+
+    /**
+     * Removes a month with all of its orders.
+     */
+    public void dropPartition(YearMonth month) {
+        dropLock.writeLock().lock();
+        try {
+            if (!months.remove(month)) {
+                return;
+            }
+            ddlTransaction.executeWithoutResult(status -> {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + itemsTable(month));
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + ordersTable(month));
+                jdbcTemplate.update("DELETE FROM order_partitions WHERE month_start = ?", Date.valueOf(month.atDay(1)));
+            });
+        } finally {
+            dropLock.writeLock().unlock();
+        }
+        log.info("Dropped order partition {}", month);
+    }
+
+    private void ensurePartition(YearMonth month) {
+        if (months.contains(month)) {
+            return;
+        }
+        synchronized (months) {
+            if (months.contains(month)) {
+                return;
+            }
+            String orders = ordersTable(month);
+            String items = itemsTable(month);
+            String from = Timestamp.valueOf(month.atDay(1).atStartOfDay()).toString();
+            String to = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay()).toString();
+            ddlTransaction.executeWithoutResult(status -> {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + orders + " (id BIGINT PRIMARY KEY, " +
+                        "buyer_email VARCHAR(255) NOT NULL, normalized_buyer_email VARCHAR(255), order_time TIMESTAMP(6) NOT NULL, " +
+                        "total_value NUMERIC(38, 2), " +
+                        "CHECK (order_time >= TIMESTAMP '" + from + "' AND order_time < TIMESTAMP '" + to + "'))");
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + items + " (id BIGINT PRIMARY KEY, " +
+                        "order_id BIGINT NOT NULL REFERENCES " + orders + " (id), product_id BIGINT, " +
+                        "product_name VARCHAR(255), price NUMERIC(38, 2), quantity INTEGER)");
+                jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_" + orders + "_order_time ON " + orders + " (order_time)");
+                jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_" + orders + "_buyer_email ON " + orders +
+                        " (normalized_buyer_email)");
+                jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_" + items + "_order_id ON " + items + " (order_id)");
+                jdbcTemplate.update("MERGE INTO order_partitions (month_start, orders_table, items_table) KEY (month_start) " +
+                        "VALUES (?, ?, ?)", Date.valueOf(month.atDay(1)), orders, items);
+            });
+            months.add(month);
+            log.info("Created order partition {}", month);
+        }
+    }
+
+    private <T> List<T> read(Set<YearMonth> candidates, Function<YearMonth, List<T>> query) {
+        List<T> orders = new ArrayList<>();
+        dropLock.readLock().lock();
+        try {
+            for (YearMonth month : candidates) {
+                if (months.contains(month)) {
+                    orders.addAll(query.apply(month));
+                }
+            }
+        } finally {
+            dropLock.readLock().unlock();
+        }
+        return orders;
+    }
+
+    private static Set<YearMonth> candidateMonths(long id) {
+        Instant generated = OrderIdGenerator.timeOf(id);
+        Set<YearMonth> candidates = new LinkedHashSet<>();
+        candidates.add(monthOf(generated));
+        candidates.add(monthOf(generated.minus(ID_LAG)));
+        return candidates;
+    }
+
+    private static YearMonth monthOf(Instant instant) {
+        return YearMonth.from(instant.atZone(ZoneId.systemDefault()));
+    }
+
+    private static String select(YearMonth month) {
+        return OrderRows.select(ordersTable(month), itemsTable(month));
+    }
+
+    static String ordersTable(YearMonth month) {
+        return "orders_p" + SUFFIX.format(month);
+    }
+
+    static String itemsTable(YearMonth month) {
+        return "order_items_p" + SUFFIX.format(month);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.demo.ratelimit;
+
+import com.example.demo.domain.Order;
+import com.example.demo.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-buyer and per-client throttling of order placement, checked before any order work is done.
+ */
+@Component
+public class OrderRateLimiter {
+
+    private final boolean enabled;
+    private final TokenBucketStore buyerBuckets;
+    private final TokenBucketStore clientBuckets;
+    private final Counter buyerThrottled;
+    private final Counter clientThrottled;
+
+    public OrderRateLimiter(@Value("${app.orders.rate-limit.enabled:true}") boolean enabled,
+                            @Value("${app.orders.rate-limit.buyer.permits-per-second:2}") double buyerRate,
+                            @Value("${app.orders.rate-limit.buyer.burst:10}") int buyerBurst,
+                            @Value("${app.orders.rate-limit.client.permits-per-second:50}") double clientRate,
+                            @Value("${app.orders.rate-limit.client.burst:100}") int clientBurst,
+                            @Value("${app.orders.rate-limit.max-keys:100000}") int maxKeys,
+                            @Value("${app.orders.rate-limit.stripes:64}") int stripes,
+                            @Value("${app.orders.rate-limit.idle-timeout-ms:300000}") long idleTimeoutMillis,
+                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.buyerBuckets = new TokenBucketStore(buyerRate, buyerBurst, maxKeys, stripes, idleTimeoutMillis);
+        this.clientBuckets = new TokenBucketStore(clientRate, clientBurst, maxKeys, stripes, idleTimeoutMillis);
+        this.buyerThrottled = throttledCounter(meterRegistry, "buyer");
+        this.clientThrottled = throttledCounter(meterRegistry, "client");
+
+        Gauge.builder("demo.orders.rate_limit.keys", buyerBuckets, TokenBucketStore::size)
+                .tag("scope", "buyer")
+                .register(meterRegistry);
+        Gauge.builder("demo.orders.rate_limit.keys", clientBuckets, TokenBucketStore::size)
+                .tag("scope", "client")
+                .register(meterRegistry);
+        FunctionCounter.builder("demo.orders.rate_limit.overflows", this,
+                        limiter -> limiter.buyerBuckets.getOverflows() + limiter.clientBuckets.getOverflows())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes a permit from the client's and the buyer's bucket, or from neither.
+     *
+     * @throws RateLimitExceededException if either bucket is empty
+     */
+    public void check(String buyerEmail, String clientId) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (clientId != null) {
+            long wait = clientBuckets.tryAcquire(clientId, now);
+            if (wait > 0) {
+                clientThrottled.increment();
+                throw new RateLimitExceededException("Too many orders from this client", retryAfterSeconds(wait));
+            }
+        }
+        if (buyerEmail != null && !buyerEmail.isBlank()) {
+            long wait = buyerBuckets.tryAcquire(Order.normalizeEmail(buyerEmail), now);
+            if (wait > 0) {
+                if (clientId != null) {
+                    // The order is refused, so it should not count against the client either
+                    clientBuckets.release(clientId);
+                }
+                buyerThrottled.increment();
+                throw new RateLimitExceededException("Too many orders for this buyer", retryAfterSeconds(wait));
+            }
+        }
+    }
+
+    private static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    private static Counter throttledCounter(MeterRegistry meterRegistry, String scope) {
+        return Counter.builder("demo.orders.throttled")
+                .description("Order placements rejected by rate limiting")
+                .tag("scope", scope)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.demo.ratelimit;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets keyed by string, held in a fixed number of independently bounded stripes.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding its theoretical arrival time (the GCRA
+ * formulation of a token bucket): a permit is granted while that time is at most
+ * {@code (burst - 1)} emission intervals ahead of now, and granting it moves the time one
+ * interval further. Acquiring is a read and a CAS, with no locks and no allocation for known keys.
+ * Buckets that have been full for longer than the idle timeout are swept out incrementally,
+ * one stripe at a time. A stripe full of active buckets evicts the fullest one to make room, so
+ * new keys are always tracked.
+ */
+public class TokenBucketStore {
+
+    private static final int SWEEP_EVERY = 1024;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final int maxEntriesPerStripe;
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final long idleTimeoutNanos;
+    private final AtomicInteger acquisitions = new AtomicInteger();
+    private final AtomicLong overflows = new AtomicLong();
+
+    /**
+     * @param permitsPerSecond sustained rate per key
+     * @param burst            permits available to an idle key at once
+     * @param maxEntries       upper bound on tracked keys across all stripes
+     * @param stripes          number of stripes, rounded up to a power of two
+     * @param idleTimeoutMillis how long a full bucket is kept before it may be evicted
+     */
+    public TokenBucketStore(double permitsPerSecond, int burst, int maxEntries, int stripes, long idleTimeoutMillis) {
+        if (permitsPerSecond <= 0 || burst < 1 || maxEntries < 1 || stripes < 1) {
+            throw new IllegalArgumentException("Rate, burst, capacity and stripes must be positive");
+        }
+        int stripeCount = 1;
+        while (stripeCount < stripes) {
+            stripeCount <<= 1;
+        }
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.stripeMask = stripeCount - 1;
+        this.maxEntriesPerStripe = Math.max(1, maxEntries / stripeCount);
+        this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * (burst - 1);
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+    }
+
+    /**
+     * Takes one permit for {@code key}.
+     *
+     * @return 0 when the permit was granted, otherwise the nanoseconds until one will be available
+     */
+    public long tryAcquire(String key, long nowNanos) {
+        int acquisition = acquisitions.incrementAndGet();
+        if ((acquisition & (SWEEP_EVERY - 1)) == 0) {
+            sweep(stripes[(acquisition / SWEEP_EVERY) & stripeMask], nowNanos);
+        }
+
+        Stripe stripe = stripes[spread(key.hashCode()) & stripeMask];
+        AtomicLong cell = stripe.cells.get(key);
+        if (cell == null) {
+            cell = register(stripe, key, nowNanos);
+        }
+
+        while (true) {
+            long arrival = cell.get();
+            long wait = arrival - nowNanos - burstToleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (cell.compareAndSet(arrival, Math.max(arrival, nowNanos) + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Gives back a permit taken by {@link #tryAcquire} for a request that was refused anyway.
+     */
+    public void release(String key) {
+        AtomicLong cell = stripes[spread(key.hashCode()) & stripeMask].cells.get(key);
+        if (cell != null) {
+            cell.addAndGet(-emissionIntervalNanos);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.cells.size();
+        }
+        return size;
+    }
+
+    /**
+     * Number of buckets evicted while still refilling, to make room in a full stripe.
+     */
+    public long getOverflows() {
+        return overflows.get();
+    }
+
+    private AtomicLong register(Stripe stripe, String key, long nowNanos) {
+        if (stripe.cells.size() >= maxEntriesPerStripe) {
+            sweep(stripe, nowNanos);
+            if (stripe.cells.size() >= maxEntriesPerStripe) {
+                evictFullest(stripe);
+            }
+        }
+        return stripe.cells.computeIfAbsent(key, k -> new AtomicLong(nowNanos));
+    }
+
+    private void sweep(Stripe stripe, long nowNanos) {
+        Iterator<Map.Entry<String, AtomicLong>> iterator = stripe.cells.entrySet().iterator();
+        while (iterator.hasNext()) {
+            // A bucket whose arrival time is in the past is full; evicting it loses no state
+            if (nowNanos - iterator.next().getValue().get() > idleTimeoutNanos) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void evictFullest(Stripe stripe) {
+        // The earliest arrival time belongs to the bucket closest to full, whose state matters least
+        Map.Entry<String, AtomicLong> fullest = null;
+        for (Map.Entry<String, AtomicLong> entry : stripe.cells.entrySet()) {
+            if (fullest == null || entry.getValue().get() < fullest.getValue().get()) {
+                fullest = entry;
+            }
+        }
+        if (fullest != null && stripe.cells.remove(fullest.getKey(), fullest.getValue())) {
+            overflows.incrementAndGet();
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Stripe {
+        private final ConcurrentHashMap<String, AtomicLong> cells = new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,402 @@
+package com.example.demo.readmodel;
+
+import com.example.demo.domain.Order;
+import com.example.demo.dto.OrderDTO;
+import com.example.demo.event.OrderPlacedEvent;
+import com.example.demo.repository.OrderRepository;
+import com.example.demo.repository.OrderStore;
+import com.example.demo.service.OrderService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Optional in-memory copy of the most recent orders, for answering order lookups without a
+ * query. Orders do not change once placed, so the model only ever learns about new orders (after
+ * their transaction commits) and forgets the oldest ones.
+ * <p>
+ * Each order is kept as one compact binary record, indexed by id in a primitive open-addressing
+ * map and by (orderTime, id) in a skip list. On startup the newest orders are loaded until
+ * {@code app.orders.read-model.max-bytes} is reached; afterwards the oldest orders are evicted to
+ * stay within it. The model knows the time after which it holds every order and only answers
+ * date-range queries starting after that time. Bulk orders are never resident; they leave a hole
+ * at their time, and ranges containing a hole are left to the database.
+ * <p>
+ * The startup load reads the plain {@code orders} table, so the model cannot be enabled while
+ * orders are sharded or partitioned.
+ */
+@Component
+public class OrderReadModel {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderReadModel.class);
+
+    // Rough per-order cost besides the record itself: array header, map slots and skip list nodes
+    static final int ENTRY_OVERHEAD_BYTES = 112;
+
+    private static final LocalDateTime NEWEST = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private static final Comparator<TimeKey> TIME_ORDER = Comparator
+            .comparingLong(TimeKey::epochSecond)
+            .thenComparingInt(TimeKey::nano)
+            .thenComparingLong(TimeKey::id);
+
+    private final OrderRepository orderRepository;
+    private final boolean enabled;
+    private final long maxBytes;
+    private final int loadChunkSize;
+
+    // Writers hold the write lock for both indexes; readers by id take the read lock, range
+    // readers walk the skip list without locking
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongObjectMap<byte[]> byId = new LongObjectMap<>(1024);
+    private final ConcurrentSkipListMap<TimeKey, byte[]> byTime = new ConcurrentSkipListMap<>(TIME_ORDER);
+    private final ConcurrentSkipListSet<TimeKey> holes = new ConcurrentSkipListSet<>(TIME_ORDER);
+    private long residentBytes;
+
+    // Every order placed after this time is resident; null while nothing has been left out
+    private volatile LocalDateTime completeAfter;
+    private volatile boolean ready;
+
+    public OrderReadModel(OrderRepository orderRepository, List<OrderStore> orderStores,
+                          @Value("${app.orders.read-model.enabled:false}") boolean enabled,
+                          @Value("${app.orders.read-model.max-bytes:67108864}") long maxBytes,
+                          @Value("${app.orders.read-model.load-chunk-size:500}") int loadChunkSize,
+                          MeterRegistry meterRegistry) {
+        if (enabled && orderStores.stream().anyMatch(OrderStore::isEnabled)) {
+            throw new IllegalStateException("The order read model cannot be enabled while orders are sharded or partitioned");
+        }
+        this.orderRepository = orderRepository;
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+        this.loadChunkSize = loadChunkSize;
+        Gauge.builder("demo.orders.read-model.orders", this, OrderReadModel::size).register(meterRegistry);
+        Gauge.builder("demo.orders.read-model.bytes", this, OrderReadModel::getResidentBytes).register(meterRegistry);
+    }
+
+    /**
+     * Whether lookups may be answered from memory. False while disabled or still loading.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * The order if it is resident; empty means "ask the database", not "does not exist".
+     */
+    public Optional<OrderDTO> find(long id) {
+        if (!ready || id == 0) {
+            return Optional.empty();
+        }
+        byte[] record;
+        lock.readLock().lock();
+        try {
+            record = byId.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return Optional.ofNullable(record).map(OrderReadModel::decode);
+    }
+
+    /**
+     * Orders placed within [startDate, endDate] ordered by time, or empty if the range reaches back
+     * beyond the resident window.
+     */
+    public Optional<List<OrderDTO>> findBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        if (!ready || !covers(startDate) || hasHoleBetween(startDate, endDate)) {
+            return Optional.empty();
+        }
+        List<OrderDTO> orders = new ArrayList<>();
+        if (!startDate.isAfter(endDate)) {
+            for (byte[] record : byTime.subMap(TimeKey.first(startDate), true, TimeKey.last(endDate), true).values()) {
+                orders.add(decode(record));
+            }
+        }
+        // Orders evicted or bulk orders placed while we were reading would be missing from the result
+        return covers(startDate) && !hasHoleBetween(startDate, endDate) ? Optional.of(orders) : Optional.empty();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        LocalDateTime cursorTime = NEWEST;
+        long cursorId = Long.MAX_VALUE;
+        loading:
+        while (true) {
+            List<Long> ids = orderRepository.findIdsPlacedBeforeNewestFirst(cursorTime, cursorId,
+                    PageRequest.of(0, loadChunkSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            List<Order> orders = orderRepository.findAllWithItemsByIdIn(ids);
+            orders.sort(Comparator.comparing(Order::getOrderTime).thenComparing(Order::getId).reversed());
+            for (Order order : orders) {
+                if (!addOlder(order)) {
+                    break loading;
+                }
+            }
+            Order oldest = orders.get(orders.size() - 1);
+            cursorTime = oldest.getOrderTime();
+            cursorId = oldest.getId();
+        }
+        ready = true;
+        log.info("Loaded {} orders ({} bytes) into the read model in {} ms, complete after {}",
+                size(), getResidentBytes(), (System.nanoTime() - start) / 1_000_000,
+                completeAfter == null ? "the first order" : completeAfter);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        OrderDTO order = event.order();
+        if (order.getItems() == null) {
+            // Bulk orders are too large to keep, so ranges containing one go to the database
+            lock.writeLock().lock();
+            try {
+                if (covers(order.getOrderTime())) {
+                    holes.add(TimeKey.of(order.getOrderTime(), order.getId()));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+        byte[] record = encode(order);
+        lock.writeLock().lock();
+        try {
+            if (!covers(order.getOrderTime()) || byId.get(order.getId()) != null) {
+                // Would be the oldest resident order and evicted right away
+                return;
+            }
+            store(order.getId(), order.getOrderTime(), record);
+            while (residentBytes > maxBytes) {
+                evictOldest();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getResidentBytes() {
+        lock.readLock().lock();
+        try {
+            return residentBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds an order older than every order added so far during loading. Returns false once the
+     * budget is used up, which closes the resident window just after that order's time.
+     */
+    private boolean addOlder(Order order) {
+        byte[] record = encode(OrderService.convertToDTO(order));
+        lock.writeLock().lock();
+        try {
+            if (!covers(order.getOrderTime())) {
+                return false;
+            }
+            if (byId.get(order.getId()) != null) {
+                return true;
+            }
+            if (residentBytes + record.length + ENTRY_OVERHEAD_BYTES > maxBytes) {
+                // Older orders at this very time may not fit either, so the window ends strictly after it
+                completeAfter = order.getOrderTime();
+                return false;
+            }
+            store(order.getId(), order.getOrderTime(), record);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void store(long id, LocalDateTime orderTime, byte[] record) {
+        byId.put(id, record);
+        byTime.put(TimeKey.of(orderTime, id), record);
+        residentBytes += record.length + ENTRY_OVERHEAD_BYTES;
+    }
+
+    private void evictOldest() {
+        Map.Entry<TimeKey, byte[]> oldest = byTime.pollFirstEntry();
+        if (oldest == null) {
+            return;
+        }
+        byId.remove(oldest.getKey().id());
+        residentBytes -= oldest.getValue().length + ENTRY_OVERHEAD_BYTES;
+        LocalDateTime evictedTime = oldest.getKey().toLocalDateTime();
+        if (completeAfter == null || evictedTime.isAfter(completeAfter)) {
+            completeAfter = evictedTime;
+        }
+        // Holes that fell out of the window no longer matter
+        holes.headSet(TimeKey.last(completeAfter), true).clear();
+    }
+
+    private boolean hasHoleBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        return !startDate.isAfter(endDate)
+                && !holes.subSet(TimeKey.first(startDate), true, TimeKey.last(endDate), true).isEmpty();
+    }
+
+    private boolean covers(LocalDateTime startDate) {
+        LocalDateTime after = completeAfter;
+        return after == null || startDate.isAfter(after);
+    }
+
+    static byte[] encode(OrderDTO order) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + order.getItems().size() * 48);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(order.getId());
+            writeTime(out, order.getOrderTime());
+            writeString(out, order.getBuyerEmail());
+            writeDecimal(out, order.getTotalValue());
+            out.writeInt(order.getItems().size());
+            for (OrderDTO.OrderItemDTO item : order.getItems()) {
+                writeLong(out, item.getId());
+                writeLong(out, item.getProductId());
+                writeString(out, item.getProductName());
+                writeDecimal(out, item.getPrice());
+                out.writeInt(item.getQuantity() == null ? Integer.MIN_VALUE : item.getQuantity());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static OrderDTO decode(byte[] record) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+            OrderDTO order = OrderDTO.builder()
+                    .id(in.readLong())
+                    .orderTime(readTime(in))
+                    .buyerEmail(readString(in))
+                    .totalValue(readDecimal(in))
+                    .build();
+            int itemCount = in.readInt();
+            List<OrderDTO.OrderItemDTO> items = new ArrayList<>(itemCount);
+            for (int i = 0; i < itemCount; i++) {
+                OrderDTO.OrderItemDTO.OrderItemDTOBuilder item = OrderDTO.OrderItemDTO.builder()
+                        .id(readLong(in))
+                        .productId(readLong(in))
+                        .productName(readString(in))
+                        .price(readDecimal(in));
+                int quantity = in.readInt();
+                items.add(item.quantity(quantity == Integer.MIN_VALUE ? null : quantity).build());
+            }
+            order.setItems(items);
+            return order;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeTime(DataOutputStream out, LocalDateTime time) throws IOException {
+        out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(time.getNano());
+    }
+
+    private static LocalDateTime readTime(DataInputStream in) throws IOException {
+        return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            byte[] unscaled = value.unscaledValue().toByteArray();
+            out.writeInt(value.scale());
+            out.writeShort(unscaled.length);
+            out.write(unscaled);
+        }
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        int scale = in.readInt();
+        byte[] unscaled = new byte[in.readUnsignedShort()];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    private record TimeKey(long epochSecond, int nano, long id) {
+
+        static TimeKey of(LocalDateTime time, long id) {
+            return new TimeKey(time.toEpochSecond(ZoneOffset.UTC), time.getNano(), id);
+        }
+
+        static TimeKey first(LocalDateTime time) {
+            return of(time, Long.MIN_VALUE);
+        }
+
+        static TimeKey last(LocalDateTime time) {
+            return of(time, Long.MAX_VALUE);
+        }
+
+        LocalDateTime toLocalDateTime() {
+            return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+        }
+    }
+}
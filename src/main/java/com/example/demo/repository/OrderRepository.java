@@ -1,17 +1,60 @@
 package com.example.demo.repository;
 
 import com.example.demo.domain.Order;
+import com.example.demo.dto.OrderSummaryDTO;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
-    @Query("SELECT o FROM Order o WHERE o.orderTime BETWEEN :startDate AND :endDate ORDER BY o.orderTime")
+    // Items are fetched in the same statement; loading them lazily would cost one query per order
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.items WHERE o.orderTime BETWEEN :startDate AND :endDate " +
+            "ORDER BY o.orderTime")
     List<Order> findAllOrdersBetweenDates(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.items ORDER BY o.id")
+    List<Order> findAllWithItems();
+
+    // Summaries select columns of orders only, so order_items is never read
+    @Query("SELECT new com.example.demo.dto.OrderSummaryDTO(o.id, o.buyerEmail, o.orderTime, o.totalValue) " +
+            "FROM Order o WHERE o.orderTime BETWEEN :startDate AND :endDate ORDER BY o.orderTime")
+    List<OrderSummaryDTO> findSummariesBetweenDates(@Param("startDate") LocalDateTime startDate,
+                                                    @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT new com.example.demo.dto.OrderSummaryDTO(o.id, o.buyerEmail, o.orderTime, o.totalValue) " +
+            "FROM Order o ORDER BY o.id")
+    List<OrderSummaryDTO> findAllSummaries();
+
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.items WHERE o.normalizedBuyerEmail = :buyerEmail ORDER BY o.orderTime")
+    List<Order> findAllByNormalizedBuyerEmail(@Param("buyerEmail") String normalizedBuyerEmail);
+
+    @Query("SELECT o.id FROM Order o WHERE o.orderTime < :cutoff ORDER BY o.id")
+    List<Long> findIdsPlacedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    // Keyset pagination newest first: orders strictly before the (orderTime, id) cursor
+    @Query("SELECT o.id FROM Order o WHERE o.orderTime < :orderTime OR (o.orderTime = :orderTime AND o.id < :id) " +
+            "ORDER BY o.orderTime DESC, o.id DESC")
+    List<Long> findIdsPlacedBeforeNewestFirst(@Param("orderTime") LocalDateTime orderTime, @Param("id") Long id,
+                                              Pageable pageable);
+
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.items WHERE o.id IN :ids ORDER BY o.id")
+    List<Order> findAllWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Bulk deletes bypass cascading, so items have to go first
+    @Modifying
+    @Query("DELETE FROM OrderItem i WHERE i.order.id IN :ids")
+    int deleteItemsByOrderIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Order o WHERE o.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
 }
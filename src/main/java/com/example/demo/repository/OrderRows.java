@@ -0,0 +1,88 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.OrderDTO;
+import com.example.demo.dto.OrderSummaryDTO;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Plain SQL reads of orders with their items for the {@link OrderStore}s, one row per item.
+ */
+public final class OrderRows {
+
+    public static final String ORDER_BY_TIME = " ORDER BY o.order_time, o.id, i.id";
+
+    public static final String SUMMARIES_BY_TIME = " ORDER BY o.order_time, o.id";
+
+    // Rows have to arrive grouped by order, as ORDER_BY_TIME does
+    public static final ResultSetExtractor<List<OrderDTO>> ORDERS = rs -> {
+        List<OrderDTO> orders = new ArrayList<>();
+        OrderDTO current = null;
+        while (rs.next()) {
+            long id = rs.getLong("id");
+            if (current == null || current.getId() != id) {
+                current = OrderDTO.builder()
+                        .id(id)
+                        .buyerEmail(rs.getString("buyer_email"))
+                        .orderTime(rs.getTimestamp("order_time").toLocalDateTime())
+                        .totalValue(rs.getBigDecimal("total_value"))
+                        .items(new ArrayList<>())
+                        .build();
+                orders.add(current);
+            }
+            long itemId = rs.getLong("item_id");
+            if (!rs.wasNull()) {
+                int quantity = rs.getInt("quantity");
+                // Same as OrderItem.getPrice(): the line total
+                BigDecimal lineTotal = rs.getBigDecimal("price").multiply(BigDecimal.valueOf(quantity));
+                current.getItems().add(OrderDTO.OrderItemDTO.builder()
+                        .id(itemId)
+                        .productId(rs.getLong("product_id"))
+                        .productName(rs.getString("product_name"))
+                        .price(lineTotal)
+                        .quantity(quantity)
+                        .build());
+            }
+        }
+        return orders;
+    };
+
+    public static final RowMapper<OrderSummaryDTO> SUMMARIES = (rs, rowNum) -> new OrderSummaryDTO(
+            rs.getLong("id"),
+            rs.getString("buyer_email"),
+            rs.getTimestamp("order_time").toLocalDateTime(),
+            rs.getBigDecimal("total_value"));
+
+    private OrderRows() {
+    }
+
+    /**
+     * The select of orders joined with their items from the given tables, to be followed by a
+     * WHERE clause, if any, and an ORDER BY that groups rows by order.
+     */
+    public static String select(String ordersTable, String itemsTable) {
+        return "SELECT o.id, o.buyer_email, o.order_time, o.total_value, " +
+                "i.id AS item_id, i.product_id, i.product_name, i.price, i.quantity " +
+                "FROM " + ordersTable + " o LEFT JOIN " + itemsTable + " i ON i.order_id = o.id ";
+    }
+
+    /**
+     * The select of orders without their items, to be followed by a WHERE clause, if any, and
+     * an ORDER BY.
+     */
+    public static String selectSummaries(String ordersTable) {
+        return "SELECT o.id, o.buyer_email, o.order_time, o.total_value FROM " + ordersTable + " o ";
+    }
+
+    /**
+     * A WHERE clause matching {@code count} order ids, bound as parameters.
+     */
+    public static String whereIdIn(int count) {
+        return "WHERE o.id IN (" + String.join(", ", Collections.nCopies(count, "?")) + ")";
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.demo.repository;
+
+import com.example.demo.domain.Order;
+import com.example.demo.dto.OrderDTO;
+import com.example.demo.dto.OrderSummaryDTO;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Order storage that takes the place of {@link OrderRepository} when enabled. Listings are
+ * ordered by order time.
+ */
+public interface OrderStore {
+
+    boolean isEnabled();
+
+    /**
+     * Stores a new order and assigns the ids of the order and its items.
+     */
+    Order save(Order order);
+
+    Optional<OrderDTO> findById(long id);
+
+    /**
+     * The orders among {@code ids} that exist, in no particular order.
+     */
+    List<OrderDTO> findByIds(Collection<Long> ids);
+
+    List<OrderDTO> findBetween(LocalDateTime startDate, LocalDateTime endDate);
+
+    List<OrderDTO> findAll();
+
+    List<OrderSummaryDTO> findSummariesBetween(LocalDateTime startDate, LocalDateTime endDate);
+
+    List<OrderSummaryDTO> findAllSummaries();
+
+    List<OrderDTO> findByBuyer(String buyerEmail);
+}
@@ -1,10 +1,32 @@
 package com.example.demo.repository;
 
 import com.example.demo.domain.Product;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.List;
+
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
-    // empty
-}
\ No newline at end of file
+
+    @Query("SELECT p FROM Product p WHERE (:minPrice IS NULL OR p.price >= :minPrice) AND (:maxPrice IS NULL OR p.price <= :maxPrice) " +
+            "ORDER BY p.price, p.id")
+    List<Product> findByPriceRange(@Param("minPrice") BigDecimal minPrice, @Param("maxPrice") BigDecimal maxPrice, Pageable pageable);
+
+    // Keyset continuation: (price, id) strictly after the cursor, served by idx_products_price.
+    // A cursor without a price points into the leading block of products that have none.
+    @Query("SELECT p FROM Product p WHERE (:minPrice IS NULL OR p.price >= :minPrice) AND (:maxPrice IS NULL OR p.price <= :maxPrice) " +
+            "AND (p.price > :afterPrice OR (p.price = :afterPrice AND p.id > :afterId) " +
+            "OR (:afterPrice IS NULL AND (p.price IS NOT NULL OR p.id > :afterId))) ORDER BY p.price, p.id")
+    List<Product> findByPriceRangeAfter(@Param("minPrice") BigDecimal minPrice, @Param("maxPrice") BigDecimal maxPrice,
+                                        @Param("afterPrice") BigDecimal afterPrice, @Param("afterId") Long afterId,
+                                        Pageable pageable);
+
+    // Keyset walk over the whole catalog in id order, for loading it in chunks
+    @Query("SELECT p FROM Product p WHERE p.id > :afterId ORDER BY p.id")
+    List<Product> findAfterId(@Param("afterId") Long afterId, Pageable pageable);
+}
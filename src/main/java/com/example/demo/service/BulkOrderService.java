@@ -0,0 +1,281 @@
+package com.example.demo.service;
+
+import com.example.demo.cache.MissingProductCache;
+import com.example.demo.domain.Order;
+import com.example.demo.dto.BulkOrderResultDTO;
+import com.example.demo.dto.OrderDTO;
+import com.example.demo.event.OrderPlacedEvent;
+import com.example.demo.exception.FeatureUnavailableException;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.repository.OrderStore;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Places orders with very many lines straight from the request body. Items are read one at a
+ * time from the JSON token stream and validated as they arrive. They are written in batches:
+ * each batch resolves its products with one query and inserts its lines with one JDBC batch.
+ * Memory per request depends on the batch size, not on the number of lines, and the first bad
+ * line rolls the whole order back.
+ * <p>
+ * {@code buyerEmail} has to come before {@code items}, so that the buyer is validated and rate
+ * limited before any line is written. The {@link OrderPlacedEvent} of a bulk order carries no
+ * items.
+ */
+@Service
+public class BulkOrderService {
+
+    private static final String INSERT_ORDER = "INSERT INTO orders (buyer_email, normalized_buyer_email, order_time, total_value) " +
+            "VALUES (?, ?, ?, ?)";
+    private static final String INSERT_ITEM = "INSERT INTO order_items (order_id, product_id, product_name, price, quantity) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MissingProductCache missingProductCache;
+    private final CustomerSummaryService customerSummaryService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final List<OrderStore> orderStores;
+    private final int batchSize;
+    private final int maxItems;
+
+    public BulkOrderService(ObjectMapper objectMapper, Validator validator, JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager, MissingProductCache missingProductCache,
+                            CustomerSummaryService customerSummaryService, ApplicationEventPublisher eventPublisher,
+                            List<OrderStore> orderStores,
+                            @Value("${app.orders.bulk.batch-size:1000}") int batchSize,
+                            @Value("${app.orders.bulk.max-items:100000}") int maxItems) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.missingProductCache = missingProductCache;
+        this.customerSummaryService = customerSummaryService;
+        this.eventPublisher = eventPublisher;
+        this.orderStores = orderStores;
+        this.batchSize = batchSize;
+        this.maxItems = maxItems;
+    }
+
+    /**
+     * Reads an order in the {@link OrderDTO} format from {@code json} and places it.
+     * {@code buyerCheck} is called with the buyer's email before anything is written and may
+     * throw to refuse the order.
+     */
+    public BulkOrderResultDTO placeOrder(InputStream json, Consumer<String> buyerCheck) throws IOException {
+        if (orderStores.stream().anyMatch(OrderStore::isEnabled)) {
+            // Bulk lines are written to the plain orders table, where sharded or partitioned reads never look
+            throw new FeatureUnavailableException("Bulk orders are not available while orders are sharded or partitioned");
+        }
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            return transactionTemplate.execute(status -> new BulkOrder(parser, buyerCheck).place());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class BulkOrder {
+
+        private final JsonParser parser;
+        private final Consumer<String> buyerCheck;
+        private final LocalDateTime orderTime = LocalDateTime.now();
+        private final List<OrderDTO.OrderItemDTO> pending = new ArrayList<>();
+
+        private String buyerEmail;
+        private Long orderId;
+        private long itemCount;
+        private BigDecimal totalValue = BigDecimal.ZERO;
+
+        BulkOrder(JsonParser parser, Consumer<String> buyerCheck) {
+            this.parser = parser;
+            this.buyerCheck = buyerCheck;
+        }
+
+        BulkOrderResultDTO place() {
+            try {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new IllegalArgumentException("Order must be a JSON object");
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    parser.nextToken();
+                    if ("buyerEmail".equals(field)) {
+                        readBuyer();
+                    } else if ("items".equals(field)) {
+                        readItems();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Malformed order at line " + e.getLocation().getLineNr()
+                        + ", column " + e.getLocation().getColumnNr() + ": " + e.getOriginalMessage());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (buyerEmail == null) {
+                throw new IllegalArgumentException("Email is required");
+            }
+            flush();
+            if (itemCount == 0) {
+                throw new IllegalArgumentException("Order must contain at least one item");
+            }
+
+            jdbcTemplate.update("UPDATE orders SET total_value = ? WHERE id = ?", totalValue, orderId);
+            customerSummaryService.recordOrder(Order.builder()
+                    .buyerEmail(buyerEmail)
+                    .orderTime(orderTime)
+                    .totalValue(totalValue)
+                    .build());
+            eventPublisher.publishEvent(new OrderPlacedEvent(OrderDTO.builder()
+                    .id(orderId)
+                    .buyerEmail(buyerEmail)
+                    .orderTime(orderTime)
+                    .totalValue(totalValue)
+                    .items(null)
+                    .build()));
+            return BulkOrderResultDTO.builder()
+                    .id(orderId)
+                    .buyerEmail(buyerEmail)
+                    .orderTime(orderTime)
+                    .totalValue(totalValue)
+                    .itemCount(itemCount)
+                    .build();
+        }
+
+        private void readBuyer() throws IOException {
+            if (buyerEmail != null) {
+                throw new IllegalArgumentException("buyerEmail is given more than once");
+            }
+            String email = parser.currentToken() == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+            if (parser.currentToken().isStructStart()) {
+                throw new IllegalArgumentException("buyerEmail must be a string");
+            }
+            firstViolation(validator.validateValue(OrderDTO.class, "buyerEmail", email)).ifPresent(message -> {
+                throw new IllegalArgumentException(message);
+            });
+            buyerCheck.accept(email);
+
+            buyerEmail = email;
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(INSERT_ORDER, new String[]{"id"});
+                statement.setString(1, email);
+                statement.setString(2, Order.normalizeEmail(email));
+                statement.setTimestamp(3, Timestamp.valueOf(orderTime));
+                statement.setBigDecimal(4, BigDecimal.ZERO);
+                return statement;
+            }, keyHolder);
+            orderId = keyHolder.getKey().longValue();
+        }
+
+        private void readItems() throws IOException {
+            if (buyerEmail == null) {
+                throw new IllegalArgumentException("buyerEmail must come before items");
+            }
+            if (parser.currentToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("items must be an array");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                OrderDTO.OrderItemDTO item = objectMapper.readValue(parser, OrderDTO.OrderItemDTO.class);
+                long itemNumber = itemCount + pending.size() + 1;
+                if (itemNumber > maxItems) {
+                    throw new IllegalArgumentException("At most " + maxItems + " items are allowed per order");
+                }
+                firstViolation(validator.validate(item)).ifPresent(message -> {
+                    throw new IllegalArgumentException("Item " + itemNumber + ": " + message);
+                });
+                pending.add(item);
+                if (pending.size() == batchSize) {
+                    flush();
+                }
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                throw new IllegalArgumentException("Every item must be a JSON object");
+            }
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            Set<Long> productIds = new LinkedHashSet<>();
+            for (int i = 0; i < pending.size(); i++) {
+                Long productId = pending.get(i).getProductId();
+                if (missingProductCache.isMissing(productId)) {
+                    throw productNotFound(productId, itemCount + i + 1);
+                }
+                productIds.add(productId);
+            }
+
+            long generation = missingProductCache.generation();
+            Map<Long, ProductRow> products = new HashMap<>(productIds.size() * 2);
+            String placeholders = String.join(", ", Collections.nCopies(productIds.size(), "?"));
+            jdbcTemplate.query("SELECT id, name, price FROM products WHERE id IN (" + placeholders + ")",
+                    rs -> {
+                        products.put(rs.getLong("id"), new ProductRow(rs.getString("name"), rs.getBigDecimal("price")));
+                    }, productIds.toArray());
+
+            List<Object[]> rows = new ArrayList<>(pending.size());
+            for (int i = 0; i < pending.size(); i++) {
+                OrderDTO.OrderItemDTO item = pending.get(i);
+                ProductRow product = products.get(item.getProductId());
+                if (product == null) {
+                    missingProductCache.recordMissing(item.getProductId(), generation);
+                    throw productNotFound(item.getProductId(), itemCount + i + 1);
+                }
+                rows.add(new Object[]{orderId, item.getProductId(), product.name(), product.price(), item.getQuantity()});
+                totalValue = totalValue.add(product.price().multiply(BigDecimal.valueOf(item.getQuantity())));
+            }
+            jdbcTemplate.batchUpdate(INSERT_ITEM, rows);
+            itemCount += pending.size();
+            pending.clear();
+        }
+    }
+
+    private static <T> Optional<String> firstViolation(Set<ConstraintViolation<T>> violations) {
+        return violations.stream()
+                .min(Comparator.comparing((ConstraintViolation<T> v) -> v.getPropertyPath().toString())
+                        .thenComparing(ConstraintViolation::getMessage))
+                .map(ConstraintViolation::getMessage);
+    }
+
+    private static ResourceNotFoundException productNotFound(Long productId, long itemNumber) {
+        return new ResourceNotFoundException("Product not found with id: " + productId + " (item " + itemNumber + ")");
+    }
+
+    private record ProductRow(String name, BigDecimal price) {
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.demo.service;
+
+import com.example.demo.domain.CustomerSummary;
+import com.example.demo.domain.Order;
+import com.example.demo.dto.CustomerSummaryDTO;
+import com.example.demo.event.OrderPlacedEvent;
+import com.example.demo.repository.CustomerSummaryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class CustomerSummaryService implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerSummaryService.class);
+
+    // Adds orders to a buyer's totals, creating the summary with the buyer's first order
+    private static final String RECORD_ORDERS = "MERGE INTO customer_summaries s USING (VALUES " +
+            "(CAST(? AS VARCHAR(255)), CAST(? AS BIGINT), CAST(? AS NUMERIC(38, 2)), CAST(? AS TIMESTAMP(6)))) " +
+            "AS o(buyer_email, order_count, order_value, order_time) ON s.buyer_email = o.buyer_email " +
+            "WHEN MATCHED THEN UPDATE SET s.order_count = s.order_count + o.order_count, " +
+            "s.lifetime_value = s.lifetime_value + o.order_value, " +
+            "s.last_order_time = CASE WHEN s.last_order_time IS NULL OR s.last_order_time < o.order_time " +
+            "THEN o.order_time ELSE s.last_order_time END " +
+            "WHEN NOT MATCHED THEN INSERT (buyer_email, order_count, lifetime_value, last_order_time) " +
+            "VALUES (o.buyer_email, o.order_count, o.order_value, o.order_time)";
+
+    private final CustomerSummaryRepository customerSummaryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, CustomerSummaryDTO> cache;
+
+    // Bumped on every eviction so a read that raced with an order cannot cache its stale result
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public CustomerSummaryService(CustomerSummaryRepository customerSummaryRepository, JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${app.orders.customer-summary.cache-size:10000}") int cacheSize) {
+        this.customerSummaryRepository = customerSummaryRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CustomerSummaryDTO> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Adds a freshly saved order to its buyer's running totals. Must run in the transaction
+     * that saves the order.
+     */
+    @Transactional
+    public void recordOrder(Order order) {
+        recordOrders(Order.normalizeEmail(order.getBuyerEmail()), 1, order.getTotalValue(), order.getOrderTime());
+    }
+
+    /**
+     * Counts orders stored before buyer emails were normalized, which no summary includes yet,
+     * and normalizes their emails. Both happen in one transaction, so every order is counted once.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.nanoTime();
+        Integer backfilled = transactionTemplate.execute(status -> backfill());
+        if (backfilled != null && backfilled > 0) {
+            log.info("Added {} orders placed before emails were normalized to the customer summaries in {} ms",
+                    backfilled, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private int backfill() {
+        Map<String, Totals> totals = new LinkedHashMap<>();
+        Map<String, String> normalizedEmails = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT buyer_email, COUNT(*), SUM(total_value), MAX(order_time) FROM orders " +
+                "WHERE normalized_buyer_email IS NULL AND TRIM(buyer_email) <> '' GROUP BY buyer_email", rs -> {
+            String buyerEmail = Order.normalizeEmail(rs.getString(1));
+            normalizedEmails.put(rs.getString(1), buyerEmail);
+            Timestamp lastOrderTime = rs.getTimestamp(4);
+            totals.computeIfAbsent(buyerEmail, email -> new Totals())
+                    .add(rs.getLong(2), rs.getBigDecimal(3), lastOrderTime == null ? null : lastOrderTime.toLocalDateTime());
+        });
+        int orders = 0;
+        for (Map.Entry<String, Totals> buyer : totals.entrySet()) {
+            Totals buyerTotals = buyer.getValue();
+            recordOrders(buyer.getKey(), buyerTotals.orderCount, buyerTotals.value, buyerTotals.lastOrderTime);
+            orders += buyerTotals.orderCount;
+        }
+        jdbcTemplate.batchUpdate("UPDATE orders SET normalized_buyer_email = ? WHERE buyer_email = ? AND normalized_buyer_email IS NULL",
+                normalizedEmails.entrySet().stream().map(email -> new Object[]{email.getValue(), email.getKey()}).toList());
+        return orders;
+    }
+
+    private void recordOrders(String buyerEmail, long orderCount, BigDecimal value, LocalDateTime lastOrderTime) {
+        try {
+            jdbcTemplate.update(RECORD_ORDERS, buyerEmail, orderCount, value, lastOrderTime);
+        } catch (DuplicateKeyException e) {
+            // The buyer's first summary was inserted concurrently after the MERGE looked for it, it matches now
+            jdbcTemplate.update(RECORD_ORDERS, buyerEmail, orderCount, value, lastOrderTime);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public CustomerSummaryDTO getSummary(String buyerEmail) {
+        String key = Order.normalizeEmail(buyerEmail);
+        synchronized (cache) {
+            CustomerSummaryDTO cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        long observedGeneration = generation.get();
+        CustomerSummaryDTO summary = customerSummaryRepository.findById(key)
+                .map(this::convertToDTO)
+                .orElseGet(() -> CustomerSummaryDTO.builder()
+                        .buyerEmail(key)
+                        .orderCount(0)
+                        .lifetimeValue(BigDecimal.ZERO)
+                        .build());
+        synchronized (cache) {
+            if (generation.get() == observedGeneration) {
+                cache.put(key, summary);
+            }
+        }
+        return summary;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        String key = Order.normalizeEmail(event.order().getBuyerEmail());
+        synchronized (cache) {
+            generation.incrementAndGet();
+            cache.remove(key);
+        }
+    }
+
+    private static class Totals {
+
+        private long orderCount;
+        private BigDecimal value = BigDecimal.ZERO;
+        private LocalDateTime lastOrderTime;
+
+        void add(long orders, BigDecimal orderValue, LocalDateTime orderTime) {
+            orderCount += orders;
+            value = orderValue == null ? value : value.add(orderValue);
+            if (lastOrderTime == null || (orderTime != null && orderTime.isAfter(lastOrderTime))) {
+                lastOrderTime = orderTime;
+            }
+        }
+    }
+
+    private CustomerSummaryDTO convertToDTO(CustomerSummary summary) {
+        return CustomerSummaryDTO.builder()
+                .buyerEmail(summary.getBuyerEmail())
+                .orderCount(summary.getOrderCount())
+                .lifetimeValue(summary.getLifetimeValue())
+                .lastOrderTime(summary.getLastOrderTime())
+                .build();
+    }
+}
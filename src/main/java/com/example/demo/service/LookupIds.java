@@ -0,0 +1,35 @@
+package com.example.demo.service;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Validation shared by the multi-get lookups of products and orders.
+ */
+public final class LookupIds {
+
+    public static final int MAX_IDS = 500;
+
+    private LookupIds() {
+    }
+
+    /**
+     * The ids without repeats, in the order they were asked for.
+     */
+    public static List<Long> distinct(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one id is required");
+        }
+        LinkedHashSet<Long> distinct = new LinkedHashSet<>(ids.size() * 2);
+        for (Long id : ids) {
+            if (id == null) {
+                throw new IllegalArgumentException("ids must not contain null");
+            }
+            distinct.add(id);
+        }
+        if (distinct.size() > MAX_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_IDS + " ids are allowed per lookup");
+        }
+        return List.copyOf(distinct);
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.demo.service;
+
+import com.example.demo.archive.OrderArchive;
+import com.example.demo.domain.Order;
+import com.example.demo.dto.OrderDTO;
+import com.example.demo.partition.MonthlyOrderPartitions;
+import com.example.demo.repository.OrderRepository;
+import com.example.demo.shard.OrderShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Moves orders older than {@code app.orders.archive.max-age} out of the database into the
+ * {@link OrderArchive}, one chunk per transaction. A chunk is forced to disk before its rows are
+ * deleted, so a failure in between leaves the orders in both places rather than in neither.
+ * <p>
+ * With monthly partitions, a month is archived once it has ended before the cutoff: its orders
+ * are appended chunk by chunk and its tables are then dropped as a whole. The last appended id is
+ * kept in the partition catalog, so a run that fails before the drop resumes after it. Sharded
+ * orders are never archived, so the archiver cannot be enabled while shards are.
+ */
+@Component
+@ConditionalOnProperty(name = "app.orders.archive.enabled", havingValue = "true")
+public class OrderArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderArchiver.class);
+
+    private final OrderRepository orderRepository;
+    private final OrderArchive orderArchive;
+    private final MonthlyOrderPartitions monthlyOrderPartitions;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration maxAge;
+    private final int chunkSize;
+
+    public OrderArchiver(OrderRepository orderRepository, OrderArchive orderArchive,
+                         MonthlyOrderPartitions monthlyOrderPartitions, OrderShardRouter orderShardRouter,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${app.orders.archive.max-age:P365D}") Duration maxAge,
+                         @Value("${app.orders.archive.chunk-size:500}") int chunkSize) {
+        if (orderShardRouter.isEnabled()) {
+            throw new IllegalStateException("The order archiver cannot be enabled while orders are sharded");
+        }
+        this.orderRepository = orderRepository;
+        this.orderArchive = orderArchive;
+        this.monthlyOrderPartitions = monthlyOrderPartitions;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAge = maxAge;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(initialDelayString = "${app.orders.archive.initial-delay-ms:60000}",
+            fixedDelayString = "${app.orders.archive.interval-ms:3600000}")
+    public void archiveColdOrders() {
+        archiveOrdersPlacedBefore(LocalDateTime.now().minus(maxAge));
+    }
+
+    public int archiveOrdersPlacedBefore(LocalDateTime cutoff) {
+        long start = System.nanoTime();
+        int total = 0;
+        int archived;
+        do {
+            archived = transactionTemplate.execute(status -> archiveChunk(cutoff));
+            total += archived;
+        } while (archived == chunkSize);
+        if (monthlyOrderPartitions.isEnabled()) {
+            for (YearMonth month : monthlyOrderPartitions.getPartitionsEndingBefore(cutoff)) {
+                total += archivePartition(month);
+            }
+        }
+
+        if (total > 0) {
+            log.info("Archived {} orders placed before {} in {} ms", total, cutoff,
+                    Duration.ofNanos(System.nanoTime() - start).toMillis());
+        }
+        return total;
+    }
+
+    private int archivePartition(YearMonth month) {
+        int total = 0;
+        // Continues after the chunks an earlier, interrupted run already appended
+        long afterId = monthlyOrderPartitions.getArchivedThroughId(month);
+        List<OrderDTO> orders;
+        do {
+            orders = monthlyOrderPartitions.findChunk(month, afterId, chunkSize);
+            if (orders.isEmpty()) {
+                break;
+            }
+            append(orders);
+            total += orders.size();
+            afterId = orders.get(orders.size() - 1).getId();
+            // Recorded after the append is on disk; a crash in between re-appends the chunk, which the archive skips
+            monthlyOrderPartitions.setArchivedThroughId(month, afterId);
+        } while (orders.size() == chunkSize);
+        // Everything is on disk, so the month goes as a whole
+        monthlyOrderPartitions.dropPartition(month);
+        return total;
+    }
+
+    private int archiveChunk(LocalDateTime cutoff) {
+        List<Long> ids = orderRepository.findIdsPlacedBefore(cutoff, PageRequest.of(0, chunkSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<OrderDTO> orders = orderRepository.findAllWithItemsByIdIn(ids).stream()
+                .map(OrderService::convertToDTO)
+                .collect(Collectors.toList());
+        append(orders);
+        orderRepository.deleteItemsByOrderIdIn(ids);
+        orderRepository.deleteAllByIdIn(ids);
+        return ids.size();
+    }
+
+    private void append(List<OrderDTO> orders) {
+        try {
+            orderArchive.append(orders);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append orders to the archive", e);
+        }
+    }
+}
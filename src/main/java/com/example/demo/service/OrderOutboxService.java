@@ -0,0 +1,101 @@
+package com.example.demo.service;
+
+import com.example.demo.domain.OutboxEvent;
+import com.example.demo.event.OrderPlacedEvent;
+import com.example.demo.eventlog.OrderEventLog;
+import com.example.demo.repository.OutboxEventRepository;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Transactional outbox for order events. Placing an order writes an outbox row before the order
+ * transaction commits, so the event exists if and only if the order does; a scheduled relay then
+ * appends pending rows to the {@link OrderEventLog} and deletes them. Delivery to the log is at
+ * least once: a crash between append and delete appends the same {@code eventId} again.
+ */
+@Service
+@ConditionalOnProperty(name = "app.orders.events.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderOutboxService {
+
+    static final String ORDER_PLACED = "OrderPlaced";
+
+    private static final Logger log = LoggerFactory.getLogger(OrderOutboxService.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OrderEventLog orderEventLog;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public OrderOutboxService(OutboxEventRepository outboxEventRepository, OrderEventLog orderEventLog,
+                              ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                              @Value("${app.orders.events.relay-batch-size:500}") int batchSize) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.orderEventLog = orderEventLog;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) throws JsonProcessingException {
+        outboxEventRepository.save(OutboxEvent.builder()
+                .eventType(ORDER_PLACED)
+                .orderId(event.order().getId())
+                .payload(objectMapper.writeValueAsString(event.order()))
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    @Scheduled(fixedDelayString = "${app.orders.events.relay-interval-ms:200}")
+    public void relay() {
+        int relayed;
+        do {
+            relayed = transactionTemplate.execute(status -> relayBatch());
+        } while (relayed == batchSize);
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> events = outboxEventRepository.findAllByOrderByIdAsc(PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        List<byte[]> records = new ArrayList<>(events.size());
+        List<Long> ids = new ArrayList<>(events.size());
+        try {
+            for (OutboxEvent event : events) {
+                records.add(objectMapper.writeValueAsBytes(new LoggedEvent(
+                        event.getId(), event.getEventType(), event.getCreatedAt(), event.getPayload())));
+                ids.add(event.getId());
+            }
+            orderEventLog.append(records);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append outbox events to the order event log", e);
+        }
+        outboxEventRepository.deleteAllByIdIn(ids);
+        log.debug("Relayed {} order events", ids.size());
+        return ids.size();
+    }
+
+    // One line of the event log; the payload is already JSON and is embedded as is
+    private record LoggedEvent(long eventId, String type, LocalDateTime createdAt, @JsonRawValue String order) {
+    }
+}
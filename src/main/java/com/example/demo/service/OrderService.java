@@ -1,18 +1,41 @@
 package com.example.demo.service;
 
+import com.example.demo.archive.OrderArchive;
+import com.example.demo.cache.MissingProductCache;
+import com.example.demo.cache.ProductCatalogSnapshot;
 import com.example.demo.domain.Order;
 import com.example.demo.domain.OrderItem;
 import com.example.demo.domain.Product;
+import com.example.demo.dto.CustomerOrdersDTO;
+import com.example.demo.dto.CustomerSummaryDTO;
 import com.example.demo.dto.OrderDTO;
+import com.example.demo.dto.OrderLookupDTO;
+import com.example.demo.dto.OrderSummaryDTO;
+import com.example.demo.dto.ProductDTO;
+import com.example.demo.event.OrderPlacedEvent;
 import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.readmodel.OrderReadModel;
+import com.example.demo.partition.MonthlyOrderPartitions;
 import com.example.demo.repository.OrderRepository;
+import com.example.demo.repository.OrderStore;
 import com.example.demo.repository.ProductRepository;
+import com.example.demo.shard.OrderShardRouter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,32 +43,153 @@ public class OrderService {
 
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
+    private final MissingProductCache missingProductCache;
+    private final ProductCatalogSnapshot productCatalogSnapshot;
+    private final CustomerSummaryService customerSummaryService;
+    private final OrderArchive orderArchive;
+    private final OrderReadModel orderReadModel;
+    // Shards or monthly partitions when one of them is enabled, otherwise orders go through orderRepository
+    private final OrderStore orderStore;
+    // Whether orders placed before the store was enabled are left in the plain orders table; null until checked
+    private volatile Boolean legacyOrders;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate readOnlyTransaction;
 
     @Autowired
-    public OrderService(OrderRepository orderRepository, ProductRepository productRepository) {
+    public OrderService(OrderRepository orderRepository, ProductRepository productRepository,
+                        MissingProductCache missingProductCache, ProductCatalogSnapshot productCatalogSnapshot,
+                        CustomerSummaryService customerSummaryService, OrderArchive orderArchive,
+                        OrderReadModel orderReadModel, OrderShardRouter orderShardRouter,
+                        MonthlyOrderPartitions monthlyOrderPartitions, ApplicationEventPublisher eventPublisher,
+                        PlatformTransactionManager transactionManager) {
         this.orderRepository = orderRepository;
         this.productRepository = productRepository;
+        this.missingProductCache = missingProductCache;
+        this.productCatalogSnapshot = productCatalogSnapshot;
+        this.customerSummaryService = customerSummaryService;
+        this.orderArchive = orderArchive;
+        this.orderReadModel = orderReadModel;
+        if (orderShardRouter.isEnabled() && monthlyOrderPartitions.isEnabled()) {
+            throw new IllegalStateException("Order shards and monthly order partitions cannot be enabled together");
+        }
+        this.orderStore = orderShardRouter.isEnabled() ? orderShardRouter
+                : monthlyOrderPartitions.isEnabled() ? monthlyOrderPartitions : null;
+        this.eventPublisher = eventPublisher;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
     @Transactional(readOnly = true)
     public List<OrderDTO> getAllOrders() {
-        return orderRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        List<OrderDTO> legacy = orderStore == null || hasLegacyOrders()
+                ? orderRepository.findAllWithItems().stream()
+                        .map(OrderService::convertToDTO)
+                        .collect(Collectors.toList())
+                : List.of();
+        if (orderStore != null) {
+            return merge(orderStore.findAll(), legacy, OrderDTO::getId, OrderDTO::getOrderTime, Function.identity());
+        }
+        return legacy;
     }
 
-    @Transactional(readOnly = true)
+    // The read model is consulted outside any transaction so that a hit never takes a connection
     public OrderDTO getOrderById(Long id) {
-        Order order = orderRepository.findById(id)
+        Optional<OrderDTO> resident = orderReadModel.find(id);
+        if (resident.isPresent()) {
+            return resident.get();
+        }
+        // Orders the archiver has moved out of the database are read from the archive segments
+        return findStoredOrder(id)
+                .or(() -> orderArchive.find(id))
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
-        return convertToDTO(order);
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Orders with the given ids in the order asked for. Resident orders come from the read model,
+     * the rest from one IN query, and orders that have been archived from the archive.
+     */
+    public OrderLookupDTO getOrdersByIds(List<Long> ids) {
+        List<Long> distinct = LookupIds.distinct(ids);
+        Map<Long, OrderDTO> found = new HashMap<>();
+        List<Long> unknown = new ArrayList<>();
+        for (Long id : distinct) {
+            Optional<OrderDTO> resident = orderReadModel.find(id);
+            if (resident.isPresent()) {
+                found.put(id, resident.get());
+            } else {
+                unknown.add(id);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            findStoredOrders(unknown).forEach(order -> found.put(order.getId(), order));
+            for (Long id : unknown) {
+                if (!found.containsKey(id)) {
+                    orderArchive.find(id).ifPresent(order -> found.put(id, order));
+                }
+            }
+        }
+
+        OrderLookupDTO lookup = new OrderLookupDTO();
+        for (Long id : distinct) {
+            OrderDTO order = found.get(id);
+            if (order != null) {
+                lookup.getOrders().add(order);
+            } else {
+                lookup.getMissingIds().add(id);
+            }
+        }
+        return lookup;
+    }
+
     public List<OrderDTO> getOrdersBetweenDates(LocalDateTime startDate, LocalDateTime endDate) {
-        return orderRepository.findAllOrdersBetweenDates(startDate, endDate).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        List<OrderDTO> orders = orderReadModel.findBetween(startDate, endDate)
+                .orElseGet(() -> findStoredOrdersBetween(startDate, endDate));
+        return merge(orders, orderArchive.findBetween(startDate, endDate),
+                OrderDTO::getId, OrderDTO::getOrderTime, Function.identity());
+    }
+
+    /**
+     * Like {@link #getAllOrders()} without items, which are then not read at all.
+     */
+    @Transactional(readOnly = true)
+    public List<OrderSummaryDTO> getOrderSummaries() {
+        if (orderStore != null) {
+            return merge(orderStore.findAllSummaries(), hasLegacyOrders() ? orderRepository.findAllSummaries() : List.of(),
+                    OrderSummaryDTO::getId, OrderSummaryDTO::getOrderTime, Function.identity());
+        }
+        return orderRepository.findAllSummaries();
+    }
+
+    /**
+     * Like {@link #getOrdersBetweenDates} without items, which are then not read at all.
+     */
+    public List<OrderSummaryDTO> getOrderSummariesBetweenDates(LocalDateTime startDate, LocalDateTime endDate) {
+        List<OrderSummaryDTO> orders = orderReadModel.findBetween(startDate, endDate)
+                .map(resident -> resident.stream().map(OrderSummaryDTO::of).collect(Collectors.toList()))
+                .orElseGet(() -> findStoredSummariesBetween(startDate, endDate));
+        return merge(orders, orderArchive.findBetween(startDate, endDate),
+                OrderSummaryDTO::getId, OrderSummaryDTO::getOrderTime, OrderSummaryDTO::of);
+    }
+
+    @Transactional(readOnly = true)
+    public CustomerOrdersDTO getOrdersByBuyer(String buyerEmail) {
+        List<OrderDTO> orders = orderStore == null || hasLegacyOrders()
+                ? orderRepository.findAllByNormalizedBuyerEmail(Order.normalizeEmail(buyerEmail)).stream()
+                        .map(OrderService::convertToDTO)
+                        .collect(Collectors.toList())
+                : List.of();
+        if (orderStore != null) {
+            orders = merge(orderStore.findByBuyer(buyerEmail), orders, OrderDTO::getId, OrderDTO::getOrderTime,
+                    Function.identity());
+        }
+        return CustomerOrdersDTO.builder()
+                .summary(customerSummaryService.getSummary(buyerEmail))
+                .orders(orders)
+                .build();
+    }
+
+    public CustomerSummaryDTO getCustomerSummary(String buyerEmail) {
+        return customerSummaryService.getSummary(buyerEmail);
     }
 
     @Transactional
@@ -54,10 +198,26 @@ public class OrderService {
         order.setBuyerEmail(orderDTO.getBuyerEmail());
         order.setOrderTime(LocalDateTime.now());
 
+        // Reject orders for products known to be gone before querying any of them
+        for (OrderDTO.OrderItemDTO itemDTO : orderDTO.getItems()) {
+            if (missingProductCache.isMissing(itemDTO.getProductId())) {
+                throw productNotFound(itemDTO.getProductId());
+            }
+        }
+
+        // The catalog snapshot when it is built, otherwise one query for all products of the order
+        long generation = missingProductCache.generation();
+        Function<Long, ProductDTO> products = productCatalogSnapshot.isReady()
+                ? productCatalogSnapshot::find
+                : findProducts(orderDTO.getItems())::get;
+
         // Add items to the order
         for (OrderDTO.OrderItemDTO itemDTO : orderDTO.getItems()) {
-            Product product = productRepository.findById(itemDTO.getProductId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + itemDTO.getProductId()));
+            ProductDTO product = products.apply(itemDTO.getProductId());
+            if (product == null) {
+                missingProductCache.recordMissing(itemDTO.getProductId(), generation);
+                throw productNotFound(itemDTO.getProductId());
+            }
 
             OrderItem orderItem = OrderItem.builder()
                     .productId(product.getId())
@@ -72,11 +232,118 @@ public class OrderService {
         // Calculate total value
         order.calculateTotalValue();
 
-        Order savedOrder = orderRepository.save(order);
-        return convertToDTO(savedOrder);
+        Order savedOrder = orderStore != null ? orderStore.save(order) : orderRepository.save(order);
+        customerSummaryService.recordOrder(savedOrder);
+
+        OrderDTO createdOrder = convertToDTO(savedOrder);
+        eventPublisher.publishEvent(new OrderPlacedEvent(createdOrder));
+        return createdOrder;
+    }
+
+    private Map<Long, ProductDTO> findProducts(List<OrderDTO.OrderItemDTO> items) {
+        Set<Long> productIds = items.stream()
+                .map(OrderDTO.OrderItemDTO::getProductId)
+                .collect(Collectors.toSet());
+        return productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, product -> ProductDTO.builder()
+                        .id(product.getId())
+                        .name(product.getName())
+                        .price(product.getPrice())
+                        .build()));
+    }
+
+    private Optional<OrderDTO> findStoredOrder(Long id) {
+        if (orderStore != null) {
+            Optional<OrderDTO> order = orderStore.findById(id);
+            if (order.isPresent() || !hasLegacyOrders()) {
+                return order;
+            }
+        }
+        return readOnlyTransaction.execute(status -> orderRepository.findById(id)
+                .map(OrderService::convertToDTO));
+    }
+
+    private List<OrderDTO> findStoredOrders(List<Long> ids) {
+        if (orderStore == null) {
+            return findRepositoryOrders(ids);
+        }
+        List<OrderDTO> orders = orderStore.findByIds(ids);
+        if (orders.size() == ids.size() || !hasLegacyOrders()) {
+            return orders;
+        }
+        Set<Long> foundIds = orders.stream().map(OrderDTO::getId).collect(Collectors.toSet());
+        List<OrderDTO> found = new ArrayList<>(orders);
+        found.addAll(findRepositoryOrders(ids.stream().filter(id -> !foundIds.contains(id)).collect(Collectors.toList())));
+        return found;
+    }
+
+    private List<OrderDTO> findRepositoryOrders(List<Long> ids) {
+        return readOnlyTransaction.execute(status -> orderRepository.findAllWithItemsByIdIn(ids).stream()
+                .map(OrderService::convertToDTO)
+                .collect(Collectors.toList()));
+    }
+
+    private List<OrderDTO> findStoredOrdersBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        List<OrderDTO> legacy = orderStore == null || hasLegacyOrders()
+                ? readOnlyTransaction.execute(status -> orderRepository
+                        .findAllOrdersBetweenDates(startDate, endDate).stream()
+                        .map(OrderService::convertToDTO)
+                        .collect(Collectors.toList()))
+                : List.of();
+        if (orderStore != null) {
+            return merge(orderStore.findBetween(startDate, endDate), legacy,
+                    OrderDTO::getId, OrderDTO::getOrderTime, Function.identity());
+        }
+        return legacy;
+    }
+
+    private List<OrderSummaryDTO> findStoredSummariesBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        List<OrderSummaryDTO> legacy = orderStore == null || hasLegacyOrders()
+                ? readOnlyTransaction.execute(status -> orderRepository.findSummariesBetweenDates(startDate, endDate))
+                : List.of();
+        if (orderStore != null) {
+            return merge(orderStore.findSummariesBetween(startDate, endDate), legacy,
+                    OrderSummaryDTO::getId, OrderSummaryDTO::getOrderTime, Function.identity());
+        }
+        return legacy;
+    }
+
+    /**
+     * Whether the plain orders table still holds orders placed before shards or partitions were
+     * enabled. Nothing writes to it while a store is enabled, so it is checked once.
+     */
+    private boolean hasLegacyOrders() {
+        Boolean legacy = legacyOrders;
+        if (legacy == null) {
+            legacy = orderRepository.count() > 0;
+            legacyOrders = legacy;
+        }
+        return legacy;
+    }
+
+    /**
+     * Adds orders from an older place, the archive or the plain orders table behind a store, to a
+     * time-ordered list. An interrupted archiver run can leave an order in both places; the copy
+     * in {@code orders} wins.
+     */
+    private static <T, U> List<T> merge(List<T> orders, List<U> older, Function<T, Long> id,
+                                        Function<T, LocalDateTime> orderTime, Function<U, T> convert) {
+        if (older.isEmpty()) {
+            return orders;
+        }
+        Set<Long> hotIds = orders.stream().map(id).collect(Collectors.toSet());
+        List<T> merged = new ArrayList<>(orders.size() + older.size());
+        merged.addAll(orders);
+        older.stream().map(convert).filter(order -> !hotIds.contains(id.apply(order))).forEach(merged::add);
+        merged.sort(Comparator.comparing(orderTime));
+        return merged;
+    }
+
+    private static ResourceNotFoundException productNotFound(Long productId) {
+        return new ResourceNotFoundException("Product not found with id: " + productId);
     }
 
-    private OrderDTO convertToDTO(Order order) {
+    public static OrderDTO convertToDTO(Order order) {
         List<OrderDTO.OrderItemDTO> itemDTOs = order.getItems().stream()
                 .map(item -> OrderDTO.OrderItemDTO.builder()
                         .id(item.getId())
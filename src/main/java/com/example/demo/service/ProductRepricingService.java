@@ -0,0 +1,169 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.PriceAdjustmentDTO;
+import com.example.demo.dto.PriceUpdateDTO;
+import com.example.demo.dto.ProductDTO;
+import com.example.demo.dto.RepricingResultDTO;
+import com.example.demo.event.ProductChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk price changes as set-based SQL, one chunk per transaction, bypassing the per-entity
+ * load/dirty-check/save cycle of {@link ProductService#updateProduct}. The changed products are
+ * read back per chunk and published as a {@link ProductChangedEvent} so that product caches
+ * follow each chunk once it commits.
+ */
+@Service
+public class ProductRepricingService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductRepricingService.class);
+
+    public static final int MAX_PRICE_UPDATES = 1_000_000;
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private static final RowMapper<ProductDTO> PRODUCT_ROW_MAPPER = (rs, rowNum) -> ProductDTO.builder()
+            .id(rs.getLong("id"))
+            .name(rs.getString("name"))
+            .price(rs.getBigDecimal("price"))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    public ProductRepricingService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                   ApplicationEventPublisher eventPublisher,
+                                   @Value("${app.products.repricing.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Sets explicit prices. Unknown ids are ignored; if an id is listed more than once the last
+     * price wins.
+     */
+    public RepricingResultDTO setPrices(List<PriceUpdateDTO> prices) {
+        if (prices == null || prices.isEmpty()) {
+            throw new IllegalArgumentException("At least one price update is required");
+        }
+        if (prices.size() > MAX_PRICE_UPDATES) {
+            throw new IllegalArgumentException("At most " + MAX_PRICE_UPDATES + " price updates are allowed per request");
+        }
+        Map<Long, BigDecimal> byId = new LinkedHashMap<>(prices.size() * 2);
+        for (PriceUpdateDTO update : prices) {
+            if (update == null || update.getId() == null || update.getPrice() == null || update.getPrice().signum() <= 0) {
+                throw new IllegalArgumentException("Every price update needs an id and a positive price");
+            }
+            byId.put(update.getId(), update.getPrice());
+        }
+
+        long start = System.nanoTime();
+        List<Long> ids = new ArrayList<>(byId.keySet());
+        Collections.sort(ids);
+        long updated = 0;
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + chunkSize));
+            updated += transactionTemplate.execute(status -> setPricesChunk(chunk, byId));
+        }
+        return result("Set", updated, start);
+    }
+
+    /**
+     * Applies a percentage change to every priced product in an id range, rounding to cents and
+     * never going below 0.01. Products without a price keep none.
+     */
+    public RepricingResultDTO adjustPrices(PriceAdjustmentDTO adjustment) {
+        if (adjustment.getFromId() > adjustment.getToId()) {
+            throw new IllegalArgumentException("fromId must not be greater than toId");
+        }
+        BigDecimal factor = BigDecimal.ONE.add(adjustment.getPercent().divide(HUNDRED, MathContext.DECIMAL64));
+
+        long start = System.nanoTime();
+        // Chunks follow existing ids, so a range like 1..Long.MAX_VALUE does not walk empty id space
+        Map<String, Object> bounds = jdbcTemplate.queryForMap(
+                "SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM products WHERE id BETWEEN ? AND ?",
+                adjustment.getFromId(), adjustment.getToId());
+        if (bounds.get("min_id") == null) {
+            return result("Adjusted", 0, start);
+        }
+        long minId = ((Number) bounds.get("min_id")).longValue();
+        long maxId = ((Number) bounds.get("max_id")).longValue();
+
+        long updated = 0;
+        long chunkFrom = minId;
+        while (true) {
+            long from = chunkFrom;
+            long to = maxId - from < chunkSize ? maxId : from + chunkSize - 1;
+            updated += transactionTemplate.execute(status -> adjustPricesChunk(from, to, factor));
+            if (to == maxId) {
+                break;
+            }
+            chunkFrom = to + 1;
+        }
+        return result("Adjusted", updated, start);
+    }
+
+    private long setPricesChunk(List<Long> ids, Map<Long, BigDecimal> prices) {
+        StringBuilder sql = new StringBuilder("MERGE INTO products p USING (VALUES ");
+        Object[] args = new Object[ids.size() * 2];
+        for (int i = 0; i < ids.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(CAST(? AS BIGINT), CAST(? AS NUMERIC(38, 2)))");
+            args[2 * i] = ids.get(i);
+            args[2 * i + 1] = prices.get(ids.get(i));
+        }
+        sql.append(") AS v(id, price) ON p.id = v.id WHEN MATCHED THEN UPDATE SET p.price = v.price");
+        int updated = jdbcTemplate.update(sql.toString(), args);
+
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        publishChanged(jdbcTemplate.query("SELECT id, name, price FROM products WHERE id IN (" + placeholders + ")",
+                PRODUCT_ROW_MAPPER, ids.toArray()));
+        return updated;
+    }
+
+    private long adjustPricesChunk(long fromId, long toId, BigDecimal factor) {
+        int updated = jdbcTemplate.update(
+                "UPDATE products SET price = GREATEST(ROUND(price * ?, 2), 0.01) WHERE id BETWEEN ? AND ? AND price IS NOT NULL",
+                factor, fromId, toId);
+        if (updated > 0) {
+            publishChanged(jdbcTemplate.query("SELECT id, name, price FROM products WHERE id BETWEEN ? AND ? AND price IS NOT NULL",
+                    PRODUCT_ROW_MAPPER, fromId, toId));
+        }
+        return updated;
+    }
+
+    private void publishChanged(List<ProductDTO> products) {
+        if (!products.isEmpty()) {
+            eventPublisher.publishEvent(ProductChangedEvent.updated(products));
+        }
+    }
+
+    private static RepricingResultDTO result(String action, long updated, long startNanos) {
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        log.info("{} prices of {} products in {} ms", action, updated, elapsedMillis);
+        return RepricingResultDTO.builder()
+                .updated(updated)
+                .elapsedMillis(elapsedMillis)
+                .build();
+    }
+}
@@ -1,24 +1,48 @@
 package com.example.demo.service;
 
+import com.example.demo.cache.MissingProductCache;
+import com.example.demo.cache.ProductCatalogSnapshot;
+import com.example.demo.cache.ProductPriceIndex;
 import com.example.demo.domain.Product;
 import com.example.demo.dto.ProductDTO;
+import com.example.demo.dto.ProductLookupDTO;
+import com.example.demo.event.ProductChangedEvent;
 import com.example.demo.exception.ResourceNotFoundException;
 import com.example.demo.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
 
+    public static final int MAX_PAGE_SIZE = 500;
+
     private final ProductRepository productRepository;
+    private final ProductPriceIndex productPriceIndex;
+    private final MissingProductCache missingProductCache;
+    private final ProductCatalogSnapshot productCatalogSnapshot;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, ProductPriceIndex productPriceIndex,
+                          MissingProductCache missingProductCache, ProductCatalogSnapshot productCatalogSnapshot,
+                          ApplicationEventPublisher eventPublisher) {
         this.productRepository = productRepository;
+        this.productPriceIndex = productPriceIndex;
+        this.missingProductCache = missingProductCache;
+        this.productCatalogSnapshot = productCatalogSnapshot;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional(readOnly = true)
@@ -28,18 +52,113 @@ public class ProductService {
                 .collect(Collectors.toList());
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Not transactional, so that an answer from the catalog snapshot does not open a transaction;
+     * the repository call opens its own.
+     */
     public ProductDTO getProductById(Long id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
-        return convertToDTO(product);
+        if (productCatalogSnapshot.isReady()) {
+            ProductDTO product = productCatalogSnapshot.find(id);
+            if (product == null) {
+                throw notFound(id);
+            }
+            return product;
+        }
+        return convertToDTO(findExisting(id));
+    }
+
+    /**
+     * Products with the given ids in the order asked for, from the price index when it is loaded
+     * and otherwise with one IN query. Ids known to be missing are not queried again.
+     */
+    @Transactional(readOnly = true)
+    public ProductLookupDTO getProductsByIds(List<Long> ids) {
+        List<Long> distinct = LookupIds.distinct(ids);
+        Map<Long, ProductDTO> found = new HashMap<>();
+        List<Long> unknown = new ArrayList<>();
+        for (Long id : distinct) {
+            if (missingProductCache.isMissing(id)) {
+                continue;
+            }
+            Optional<ProductDTO> indexed = productPriceIndex.isReady() ? productPriceIndex.find(id) : Optional.empty();
+            if (indexed.isPresent()) {
+                found.put(id, indexed.get());
+            } else {
+                unknown.add(id);
+            }
+        }
+        if (!unknown.isEmpty() && !productPriceIndex.isReady()) {
+            long generation = missingProductCache.generation();
+            productRepository.findAllById(unknown).forEach(product -> found.put(product.getId(), convertToDTO(product)));
+            unknown.stream()
+                    .filter(id -> !found.containsKey(id))
+                    .forEach(id -> missingProductCache.recordMissing(id, generation));
+        }
+
+        ProductLookupDTO lookup = new ProductLookupDTO();
+        for (Long id : distinct) {
+            ProductDTO product = found.get(id);
+            if (product != null) {
+                lookup.getProducts().add(product);
+            } else {
+                lookup.getMissingIds().add(id);
+            }
+        }
+        return lookup;
+    }
+
+    /**
+     * Loads a product, answering ids already known to be missing without a query.
+     */
+    private Product findExisting(Long id) {
+        if (missingProductCache.isMissing(id)) {
+            throw notFound(id);
+        }
+        long generation = missingProductCache.generation();
+        return productRepository.findById(id).orElseThrow(() -> {
+            missingProductCache.recordMissing(id, generation);
+            return notFound(id);
+        });
+    }
+
+    /**
+     * Products priced within [minPrice, maxPrice] ordered by (price, id). Pages are chained with
+     * the (price, id) of the last product of the previous page rather than an offset; a cursor
+     * with an id but no price continues after that product in the block of products without a price.
+     */
+    @Transactional(readOnly = true)
+    public List<ProductDTO> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice,
+                                                    BigDecimal afterPrice, Long afterId, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (afterPrice != null && afterId == null) {
+            throw new IllegalArgumentException("afterPrice requires afterId");
+        }
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+
+        if (productPriceIndex.isReady()) {
+            return productPriceIndex.range(minPrice, maxPrice, afterPrice, afterId, limit);
+        }
+
+        PageRequest page = PageRequest.of(0, limit);
+        List<Product> products = afterId == null
+                ? productRepository.findByPriceRange(minPrice, maxPrice, page)
+                : productRepository.findByPriceRangeAfter(minPrice, maxPrice, afterPrice, afterId, page);
+        return products.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
     }
 
     @Transactional
     public ProductDTO createProduct(ProductDTO productDTO) {
         Product product = convertToEntity(productDTO);
         Product savedProduct = productRepository.save(product);
-        return convertToDTO(savedProduct);
+        ProductDTO created = convertToDTO(savedProduct);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(created));
+        return created;
     }
 
     @Transactional
@@ -51,7 +170,9 @@ public class ProductService {
         existingProduct.setPrice(productDTO.getPrice());
 
         Product updatedProduct = productRepository.save(existingProduct);
-        return convertToDTO(updatedProduct);
+        ProductDTO updated = convertToDTO(updatedProduct);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(updated));
+        return updated;
     }
 
     @Transactional
@@ -60,6 +181,11 @@ public class ProductService {
             throw new ResourceNotFoundException("Product not found with id: " + id);
         }
         productRepository.deleteById(id);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
+    }
+
+    private static ResourceNotFoundException notFound(Long id) {
+        return new ResourceNotFoundException("Product not found with id: " + id);
     }
 
     private ProductDTO convertToDTO(Product product) {
@@ -78,4 +204,3 @@ public class ProductService {
                 .build();
     }
 }
-
@@ -0,0 +1,210 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.RevenueReportDTO;
+import com.example.demo.exception.FeatureUnavailableException;
+import com.example.demo.repository.OrderStore;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collectors;
+
+/**
+ * Revenue and unit totals per day and per product. The date range is split recursively into
+ * time slices; each slice is aggregated by the database and the partial totals are merged
+ * pairwise on the way back up. Memory therefore depends on the number of days and products in
+ * the range, not on the number of orders. Slices run on a dedicated fork-join pool whose
+ * parallelism bounds the number of report queries hitting the connection pool at once.
+ * <p>
+ * Only orders still in the database are counted, archived orders are not. Reports read the plain
+ * {@code orders} table and are refused while orders are sharded or partitioned.
+ */
+@Service
+public class RevenueReportService implements DisposableBean {
+
+    private static final String DAILY_SQL = "SELECT CAST(o.order_time AS DATE) AS order_date, COUNT(DISTINCT o.id) AS order_count, " +
+            "SUM(i.quantity) AS units, SUM(i.price * i.quantity) AS revenue " +
+            "FROM orders o JOIN order_items i ON i.order_id = o.id " +
+            "WHERE o.order_time >= ? AND o.order_time %s ? GROUP BY CAST(o.order_time AS DATE)";
+
+    private static final String PRODUCT_SQL = "SELECT i.product_id, MAX(i.product_name) AS product_name, " +
+            "SUM(i.quantity) AS units, SUM(i.price * i.quantity) AS revenue " +
+            "FROM orders o JOIN order_items i ON i.order_id = o.id " +
+            "WHERE o.order_time >= ? AND o.order_time %s ? GROUP BY i.product_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<OrderStore> orderStores;
+    private final Duration sliceLength;
+    private final long maxRangeDays;
+    private final ForkJoinPool pool;
+
+    public RevenueReportService(JdbcTemplate jdbcTemplate, List<OrderStore> orderStores,
+                                @Value("${app.reports.parallelism:4}") int parallelism,
+                                @Value("${app.reports.slice-days:7}") int sliceDays,
+                                @Value("${app.reports.max-range-days:1830}") long maxRangeDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.orderStores = orderStores;
+        this.sliceLength = Duration.ofDays(sliceDays);
+        this.maxRangeDays = maxRangeDays;
+        this.pool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("revenue-report-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Totals of orders placed within [startDate, endDate].
+     */
+    public RevenueReportDTO getRevenueReport(LocalDateTime startDate, LocalDateTime endDate) {
+        if (orderStores.stream().anyMatch(OrderStore::isEnabled)) {
+            // Sharded or partitioned orders are not in the table the report queries aggregate
+            throw new FeatureUnavailableException("Revenue reports are not available while orders are sharded or partitioned");
+        }
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("startDate must not be after endDate");
+        }
+        if (Duration.between(startDate, endDate).toDays() > maxRangeDays) {
+            throw new IllegalArgumentException("Reports may span at most " + maxRangeDays + " days");
+        }
+
+        Partial totals = pool.invoke(new SliceTask(startDate, endDate, true));
+
+        RevenueReportDTO.RevenueReportDTOBuilder report = RevenueReportDTO.builder()
+                .startDate(startDate)
+                .endDate(endDate)
+                .days(totals.days.values().stream()
+                        .map(Accumulator::toDailyDTO)
+                        .collect(Collectors.toList()))
+                .products(totals.products.values().stream()
+                        .sorted(Comparator.comparing((Accumulator a) -> a.revenue).reversed()
+                                .thenComparing(a -> a.productId))
+                        .map(Accumulator::toProductDTO)
+                        .collect(Collectors.toList()));
+        long orderCount = 0;
+        long units = 0;
+        BigDecimal revenue = BigDecimal.ZERO;
+        for (Accumulator day : totals.days.values()) {
+            orderCount += day.orderCount;
+            units += day.units;
+            revenue = revenue.add(day.revenue);
+        }
+        return report.orderCount(orderCount).units(units).revenue(revenue).build();
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+
+    private Partial aggregate(LocalDateTime from, LocalDateTime to, boolean toInclusive) {
+        String upperBound = toInclusive ? "<=" : "<";
+        Object[] args = {Timestamp.valueOf(from), Timestamp.valueOf(to)};
+        Partial partial = new Partial();
+        jdbcTemplate.query(String.format(DAILY_SQL, upperBound), rs -> {
+            Accumulator day = new Accumulator();
+            day.date = rs.getDate("order_date").toLocalDate();
+            day.orderCount = rs.getLong("order_count");
+            day.units = rs.getLong("units");
+            day.revenue = rs.getBigDecimal("revenue");
+            partial.days.put(day.date, day);
+        }, args);
+        jdbcTemplate.query(String.format(PRODUCT_SQL, upperBound), rs -> {
+            Accumulator product = new Accumulator();
+            product.productId = rs.getLong("product_id");
+            product.productName = rs.getString("product_name");
+            product.units = rs.getLong("units");
+            product.revenue = rs.getBigDecimal("revenue");
+            partial.products.put(product.productId, product);
+        }, args);
+        return partial;
+    }
+
+    private final class SliceTask extends RecursiveTask<Partial> {
+
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private final boolean toInclusive;
+
+        SliceTask(LocalDateTime from, LocalDateTime to, boolean toInclusive) {
+            this.from = from;
+            this.to = to;
+            this.toInclusive = toInclusive;
+        }
+
+        @Override
+        protected Partial compute() {
+            Duration length = Duration.between(from, to);
+            if (length.compareTo(sliceLength) <= 0) {
+                return aggregate(from, to, toInclusive);
+            }
+            LocalDateTime middle = from.plus(length.dividedBy(2));
+            SliceTask left = new SliceTask(from, middle, false);
+            left.fork();
+            Partial right = new SliceTask(middle, to, toInclusive).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    private static final class Partial {
+
+        private final Map<LocalDate, Accumulator> days = new TreeMap<>();
+        private final Map<Long, Accumulator> products = new HashMap<>();
+
+        Partial merge(Partial other) {
+            // A day cut by a slice boundary shows up in both halves; its orders never do
+            other.days.forEach((date, day) -> days.merge(date, day, Accumulator::add));
+            other.products.forEach((id, product) -> products.merge(id, product, Accumulator::add));
+            return this;
+        }
+    }
+
+    private static final class Accumulator {
+
+        private LocalDate date;
+        private Long productId;
+        private String productName;
+        private long orderCount;
+        private long units;
+        private BigDecimal revenue = BigDecimal.ZERO;
+
+        Accumulator add(Accumulator other) {
+            orderCount += other.orderCount;
+            units += other.units;
+            revenue = revenue.add(other.revenue);
+            return this;
+        }
+
+        RevenueReportDTO.DailyRevenueDTO toDailyDTO() {
+            return RevenueReportDTO.DailyRevenueDTO.builder()
+                    .date(date)
+                    .orderCount(orderCount)
+                    .units(units)
+                    .revenue(revenue)
+                    .build();
+        }
+
+        RevenueReportDTO.ProductRevenueDTO toProductDTO() {
+            return RevenueReportDTO.ProductRevenueDTO.builder()
+                    .productId(productId)
+                    .productName(productName)
+                    .units(units)
+                    .revenue(revenue)
+                    .build();
+        }
+    }
+}
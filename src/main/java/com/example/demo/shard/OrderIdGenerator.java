@@ -0,0 +1,66 @@
+package com.example.demo.shard;
+
+import java.time.Instant;
+import java.util.function.LongSupplier;
+
+/**
+ * Globally unique ids for sharded orders and their items, generated without coordination between
+ * shards. An id holds the milliseconds since 2024-01-01 (41 bits), the shard (5 bits) and a
+ * per-millisecond sequence (7 bits), so ids grow with time and name the shard that stores them.
+ * The 53 bits keep every id exact as a JSON number in a browser, which reads numbers as doubles.
+ */
+public class OrderIdGenerator {
+
+    public static final int MAX_SHARDS = 1 << 5;
+
+    static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final int SEQUENCE_BITS = 7;
+    private static final int SHARD_BITS = 5;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final int shard;
+    private final LongSupplier clock;
+
+    // Guarded by this
+    private long lastMillis = -1;
+    private long sequence;
+
+    public OrderIdGenerator(int shard) {
+        this(shard, System::currentTimeMillis);
+    }
+
+    OrderIdGenerator(int shard, LongSupplier clock) {
+        if (shard < 0 || shard >= MAX_SHARDS) {
+            throw new IllegalArgumentException("Shard must be between 0 and " + (MAX_SHARDS - 1));
+        }
+        this.shard = shard;
+        this.clock = clock;
+    }
+
+    public static int shardOf(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & (MAX_SHARDS - 1));
+    }
+
+    /**
+     * When the id was generated, to the millisecond.
+     */
+    public static Instant timeOf(long id) {
+        return Instant.ofEpochMilli((id >>> (SHARD_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS);
+    }
+
+    public synchronized long next() {
+        // A clock that steps back keeps counting from the last millisecond instead of repeating ids
+        long millis = Math.max(clock.getAsLong() - EPOCH_MILLIS, lastMillis);
+        if (millis == lastMillis) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                // Sequence used up: borrow the next millisecond, the clock catches up through max() above
+                millis++;
+            }
+        } else {
+            sequence = 0;
+        }
+        lastMillis = millis;
+        return (millis << (SHARD_BITS + SEQUENCE_BITS)) | ((long) shard << SEQUENCE_BITS) | sequence;
+    }
+}
@@ -0,0 +1,290 @@
+package com.example.demo.shard;
+
+import com.example.demo.domain.Order;
+import com.example.demo.domain.OrderItem;
+import com.example.demo.dto.OrderDTO;
+import com.example.demo.dto.OrderSummaryDTO;
+import com.example.demo.monitoring.StatementStatistics;
+import com.example.demo.monitoring.TimingDataSource;
+import com.example.demo.repository.OrderRows;
+import com.example.demo.repository.OrderStore;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Spreads orders over {@code app.orders.shards.count} databases, hash-partitioned by normalized
+ * buyer email so that a buyer's orders live on one shard. Order and item ids come from
+ * {@link OrderIdGenerator} and name their shard, so a lookup by id reads exactly one database.
+ * Time range and full listings query every shard in parallel and merge the per-shard results,
+ * each already sorted by time, into one ordered list.
+ * <p>
+ * With a count of 0 sharding is off and orders stay in the main database. Products, customer
+ * summaries and the outbox always stay there.
+ */
+@Component
+public class OrderShardRouter implements OrderStore, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderShardRouter.class);
+
+    private static final Comparator<OrderDTO> BY_TIME = Comparator.comparing(OrderDTO::getOrderTime)
+            .thenComparing(OrderDTO::getId);
+    private static final Comparator<OrderSummaryDTO> SUMMARIES_BY_TIME = Comparator.comparing(OrderSummaryDTO::getOrderTime)
+            .thenComparing(OrderSummaryDTO::getId);
+
+    private static final String SELECT_ORDERS = OrderRows.select("orders", "order_items");
+    private static final String SELECT_SUMMARIES = OrderRows.selectSummaries("orders");
+
+    private final List<Shard> shards = new ArrayList<>();
+    private final ExecutorService scatter;
+
+    public OrderShardRouter(@Value("${app.orders.shards.count:0}") int count,
+                            @Value("${app.orders.shards.url-template:jdbc:h2:mem:orders-shard-%d;DB_CLOSE_DELAY=-1}") String urlTemplate,
+                            @Value("${app.orders.shards.pool-size:5}") int poolSize,
+                            @Value("${app.sql.statistics.enabled:true}") boolean statisticsEnabled,
+                            ObjectProvider<StatementStatistics> statistics) {
+        if (count < 0 || count > OrderIdGenerator.MAX_SHARDS) {
+            throw new IllegalArgumentException("app.orders.shards.count must be between 0 and " + OrderIdGenerator.MAX_SHARDS);
+        }
+        for (int i = 0; i < count; i++) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setJdbcUrl(String.format(urlTemplate, i));
+            pool.setUsername("sa");
+            pool.setMaximumPoolSize(poolSize);
+            pool.setPoolName("order-shard-" + i);
+            // Shards are not beans, so they are timed here rather than by SqlMonitoringConfig
+            DataSource dataSource = statisticsEnabled ? new TimingDataSource(pool, statistics) : pool;
+            shards.add(new Shard(i, pool, dataSource));
+        }
+        shards.forEach(Shard::createSchema);
+
+        AtomicInteger threadIds = new AtomicInteger();
+        this.scatter = count == 0 ? null : Executors.newFixedThreadPool(count, runnable -> {
+            Thread thread = new Thread(runnable, "order-shard-query-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (count > 0) {
+            log.info("Orders are sharded across {} databases", count);
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return !shards.isEmpty();
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    public int shardFor(String buyerEmail) {
+        // String.hashCode is fixed by the language spec, so placement survives restarts; the mix spreads similar emails
+        int hash = Order.normalizeEmail(buyerEmail).hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        return Math.floorMod(hash, shards.size());
+    }
+
+    /**
+     * Stores a new order on its buyer's shard and assigns the ids of the order and its items.
+     * The shard commits on its own; when called inside a transaction of the main database that
+     * later rolls back, the order is deleted from the shard again.
+     */
+    @Override
+    public Order save(Order order) {
+        Shard shard = shards.get(shardFor(order.getBuyerEmail()));
+        shard.insert(order);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            long id = order.getId();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        shard.delete(id);
+                    }
+                }
+            });
+        }
+        return order;
+    }
+
+    @Override
+    public Optional<OrderDTO> findById(long id) {
+        int shard = OrderIdGenerator.shardOf(id);
+        if (shard >= shards.size()) {
+            return Optional.empty();
+        }
+        return shards.get(shard).query(SELECT_ORDERS + "WHERE o.id = ?" + OrderRows.ORDER_BY_TIME, id).stream().findFirst();
+    }
+
+    /**
+     * One IN query per shard named by the ids.
+     */
+    @Override
+    public List<OrderDTO> findByIds(Collection<Long> ids) {
+        Map<Integer, List<Long>> byShard = ids.stream()
+                .filter(id -> OrderIdGenerator.shardOf(id) < shards.size())
+                .collect(Collectors.groupingBy(OrderIdGenerator::shardOf));
+        List<OrderDTO> orders = new ArrayList<>(ids.size());
+        byShard.forEach((shard, shardIds) -> orders.addAll(shards.get(shard)
+                .query(SELECT_ORDERS + OrderRows.whereIdIn(shardIds.size()) + OrderRows.ORDER_BY_TIME, shardIds.toArray())));
+        return orders;
+    }
+
+    @Override
+    public List<OrderDTO> findBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        return scatterGather(shard -> shard.query(SELECT_ORDERS + "WHERE o.order_time BETWEEN ? AND ?" + OrderRows.ORDER_BY_TIME,
+                Timestamp.valueOf(startDate), Timestamp.valueOf(endDate)), BY_TIME);
+    }
+
+    @Override
+    public List<OrderDTO> findAll() {
+        return scatterGather(shard -> shard.query(SELECT_ORDERS + OrderRows.ORDER_BY_TIME), BY_TIME);
+    }
+
+    @Override
+    public List<OrderSummaryDTO> findSummariesBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        return scatterGather(shard -> shard.jdbcTemplate.query(SELECT_SUMMARIES + "WHERE o.order_time BETWEEN ? AND ?" +
+                OrderRows.SUMMARIES_BY_TIME, OrderRows.SUMMARIES, Timestamp.valueOf(startDate), Timestamp.valueOf(endDate)),
+                SUMMARIES_BY_TIME);
+    }
+
+    @Override
+    public List<OrderSummaryDTO> findAllSummaries() {
+        return scatterGather(shard -> shard.jdbcTemplate.query(SELECT_SUMMARIES + OrderRows.SUMMARIES_BY_TIME,
+                OrderRows.SUMMARIES), SUMMARIES_BY_TIME);
+    }
+
+    @Override
+    public List<OrderDTO> findByBuyer(String buyerEmail) {
+        return shards.get(shardFor(buyerEmail)).query(SELECT_ORDERS + "WHERE o.normalized_buyer_email = ?" + OrderRows.ORDER_BY_TIME,
+                Order.normalizeEmail(buyerEmail));
+    }
+
+    @Override
+    public void destroy() {
+        if (scatter != null) {
+            scatter.shutdownNow();
+        }
+        shards.forEach(shard -> shard.pool.close());
+    }
+
+    private <T> List<T> scatterGather(Function<Shard, List<T>> query, Comparator<T> order) {
+        List<CompletableFuture<List<T>>> partials = shards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> query.apply(shard), scatter))
+                .toList();
+        List<List<T>> sorted = partials.stream().map(CompletableFuture::join).toList();
+        return merge(sorted, order);
+    }
+
+    /**
+     * K-way merge of lists that are each sorted by {@code order}, in O(n log k).
+     */
+    static <T> List<T> merge(List<List<T>> sorted, Comparator<T> order) {
+        record Cursor<T>(T head, Iterator<T> rest) {
+        }
+        PriorityQueue<Cursor<T>> heads = new PriorityQueue<>(Math.max(1, sorted.size()),
+                (a, b) -> order.compare(a.head(), b.head()));
+        int total = 0;
+        for (List<T> items : sorted) {
+            total += items.size();
+            Iterator<T> iterator = items.iterator();
+            if (iterator.hasNext()) {
+                heads.add(new Cursor<>(iterator.next(), iterator));
+            }
+        }
+        List<T> merged = new ArrayList<>(total);
+        while (!heads.isEmpty()) {
+            Cursor<T> cursor = heads.poll();
+            merged.add(cursor.head());
+            if (cursor.rest().hasNext()) {
+                heads.add(new Cursor<>(cursor.rest().next(), cursor.rest()));
+            }
+        }
+        return merged;
+    }
+
+    private static final class Shard {
+
+        private final HikariDataSource pool;
+        private final JdbcTemplate jdbcTemplate;
+        private final TransactionTemplate transactionTemplate;
+        private final OrderIdGenerator ids;
+
+        Shard(int index, HikariDataSource pool, DataSource dataSource) {
+            this.pool = pool;
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+            this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+            this.ids = new OrderIdGenerator(index);
+        }
+
+        void createSchema() {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS orders (id BIGINT PRIMARY KEY, buyer_email VARCHAR(255) NOT NULL, " +
+                    "normalized_buyer_email VARCHAR(255), order_time TIMESTAMP(6), total_value NUMERIC(38, 2))");
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS order_items (id BIGINT PRIMARY KEY, " +
+                    "order_id BIGINT NOT NULL REFERENCES orders (id), product_id BIGINT, product_name VARCHAR(255), " +
+                    "price NUMERIC(38, 2), quantity INTEGER)");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_orders_buyer_email ON orders (normalized_buyer_email)");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_orders_order_time ON orders (order_time)");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_order_items_order_id ON order_items (order_id)");
+        }
+
+        void insert(Order order) {
+            order.setId(ids.next());
+            order.setNormalizedBuyerEmail(Order.normalizeEmail(order.getBuyerEmail()));
+            List<Object[]> items = new ArrayList<>(order.getItems().size());
+            for (OrderItem item : order.getItems()) {
+                item.setId(ids.next());
+                items.add(new Object[]{item.getId(), order.getId(), item.getProductId(), item.getProductName(),
+                        item.getUnitPrice(), item.getQuantity()});
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("INSERT INTO orders (id, buyer_email, normalized_buyer_email, order_time, total_value) " +
+                                "VALUES (?, ?, ?, ?, ?)", order.getId(), order.getBuyerEmail(),
+                        order.getNormalizedBuyerEmail(), Timestamp.valueOf(order.getOrderTime()), order.getTotalValue());
+                jdbcTemplate.batchUpdate("INSERT INTO order_items (id, order_id, product_id, product_name, price, quantity) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)", items);
+            });
+        }
+
+        void delete(long id) {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("DELETE FROM order_items WHERE order_id = ?", id);
+                jdbcTemplate.update("DELETE FROM orders WHERE id = ?", id);
+            });
+        }
+
+        List<OrderDTO> query(String sql, Object... args) {
+            return jdbcTemplate.query(sql, OrderRows.ORDERS, args);
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package com.example.demo.stream;
+
+import com.example.demo.dto.OrderDTO;
+import com.example.demo.event.OrderPlacedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes newly placed orders to Server-Sent Events subscribers.
+ * <p>
+ * Order placement only offers the committed order to a bounded hand-off queue. A single
+ * publisher thread serializes each order once and copies it into every subscriber's bounded
+ * buffer; a small sender pool drains those buffers to the connections, one task per subscriber
+ * at a time, so a blocking write only ever holds up its own subscriber. When a buffer is full
+ * the subscriber is either disconnected ({@code drop}) or skips its oldest pending orders and
+ * is told how many it missed ({@code sample}).
+ * <p>
+ * Completing the emitter of a stalled subscriber does not unblock a write stuck on its socket, so
+ * the pool gets an extra sender thread for as long as that write lasts, at most one per
+ * subscriber slot. The servlet container's write timeout eventually ends the write.
+ */
+@Component
+public class OrderStreamPublisher implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderStreamPublisher.class);
+
+    public enum OverflowPolicy {DROP, SAMPLE}
+
+    private final int maxSubscribers;
+    private final int bufferSize;
+    private final OverflowPolicy overflowPolicy;
+    private final long heartbeatMillis;
+    private final long stallTimeoutNanos;
+    private final long emitterTimeoutMillis;
+    private final ObjectMapper objectMapper;
+
+    private final BlockingQueue<OrderDTO> handoff;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final int senderThreads;
+    private final ThreadPoolExecutor senders;
+    private final Thread publisher;
+
+    private final Counter droppedAtHandoff;
+    private final Counter skipped;
+    private final Counter disconnectedSlow;
+    private final Counter disconnectedStalled;
+
+    public OrderStreamPublisher(@Value("${app.orders.stream.max-subscribers:100}") int maxSubscribers,
+                                @Value("${app.orders.stream.buffer-size:256}") int bufferSize,
+                                @Value("${app.orders.stream.overflow:sample}") String overflowPolicy,
+                                @Value("${app.orders.stream.handoff-capacity:10000}") int handoffCapacity,
+                                @Value("${app.orders.stream.sender-threads:4}") int senderThreads,
+                                @Value("${app.orders.stream.heartbeat-ms:15000}") long heartbeatMillis,
+                                @Value("${app.orders.stream.stall-timeout-ms:30000}") long stallTimeoutMillis,
+                                @Value("${app.orders.stream.timeout-ms:1800000}") long emitterTimeoutMillis,
+                                ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.maxSubscribers = maxSubscribers;
+        this.bufferSize = bufferSize;
+        this.overflowPolicy = OverflowPolicy.valueOf(overflowPolicy.trim().toUpperCase(Locale.ROOT));
+        this.heartbeatMillis = heartbeatMillis;
+        this.stallTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(stallTimeoutMillis);
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        this.objectMapper = objectMapper;
+        this.handoff = new ArrayBlockingQueue<>(handoffCapacity);
+
+        AtomicInteger senderIds = new AtomicInteger();
+        this.senderThreads = senderThreads;
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "order-stream-sender-" + senderIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("demo.orders.stream.subscribers", subscriptions, List::size).register(meterRegistry);
+        this.droppedAtHandoff = droppedCounter(meterRegistry, "handoff");
+        this.skipped = droppedCounter(meterRegistry, "skipped");
+        this.disconnectedSlow = droppedCounter(meterRegistry, "slow-subscriber");
+        this.disconnectedStalled = droppedCounter(meterRegistry, "stalled-subscriber");
+
+        this.publisher = new Thread(this::publish, "order-stream-publisher");
+        this.publisher.setDaemon(true);
+        this.publisher.start();
+    }
+
+    /**
+     * Opens a stream of orders placed from now on, or nothing if the subscriber limit is reached.
+     */
+    public Optional<SseEmitter> subscribe() {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Optional<Subscription> subscription = subscribe(new EmitterSink(emitter));
+        subscription.ifPresent(s -> {
+            emitter.onCompletion(() -> unsubscribe(s));
+            emitter.onTimeout(() -> unsubscribe(s));
+            emitter.onError(e -> unsubscribe(s));
+        });
+        return subscription.map(s -> emitter);
+    }
+
+    Optional<Subscription> subscribe(Sink sink) {
+        synchronized (subscriptions) {
+            if (subscriptions.size() >= maxSubscribers) {
+                return Optional.empty();
+            }
+            Subscription subscription = new Subscription(sink);
+            subscriptions.add(subscription);
+            return Optional.of(subscription);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    int getSenderPoolSize() {
+        return senders.getMaximumPoolSize();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        // Never blocks order placement: with nobody listening or a backed-up publisher the order is skipped
+        if (!subscriptions.isEmpty() && !handoff.offer(event.order())) {
+            droppedAtHandoff.increment();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        publisher.interrupt();
+        senders.shutdownNow();
+        subscriptions.forEach(subscription -> subscription.sink.close());
+        subscriptions.clear();
+    }
+
+    private void publish() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                OrderDTO order = handoff.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+                disconnectStalled();
+                if (order == null) {
+                    fanOut(Message.HEARTBEAT);
+                } else {
+                    fanOut(new Message(order.getId(), objectMapper.writeValueAsString(order)));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (JsonProcessingException | RuntimeException e) {
+                log.warn("Could not publish order to stream subscribers", e);
+            }
+        }
+    }
+
+    void fanOut(Message message) {
+        for (Subscription subscription : subscriptions) {
+            if (!subscription.offer(message)) {
+                disconnectedSlow.increment();
+                unsubscribe(subscription);
+                continue;
+            }
+            if (subscription.scheduled.compareAndSet(false, true)) {
+                senders.execute(subscription::drain);
+            }
+        }
+    }
+
+    private void disconnectStalled() {
+        long now = System.nanoTime();
+        for (Subscription subscription : subscriptions) {
+            long started = subscription.sendStartedNanos;
+            if (started != 0 && now - started > stallTimeoutNanos) {
+                disconnectedStalled.increment();
+                unsubscribe(subscription);
+                subscription.replaceSender();
+            }
+        }
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        if (subscriptions.remove(subscription)) {
+            subscription.sink.close();
+        }
+    }
+
+    private void resizeSenders(int delta) {
+        synchronized (senders) {
+            int size = senders.getMaximumPoolSize() + delta;
+            // The core size may never exceed the maximum, so the order depends on the direction
+            if (delta > 0) {
+                senders.setMaximumPoolSize(size);
+                senders.setCorePoolSize(size);
+            } else {
+                senders.setCorePoolSize(size);
+                senders.setMaximumPoolSize(size);
+            }
+        }
+    }
+
+    private static Counter droppedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("demo.orders.stream.dropped")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * An order serialized once for all subscribers; a {@code null} json is a heartbeat.
+     */
+    record Message(Long orderId, String json) {
+        static final Message HEARTBEAT = new Message(null, null);
+    }
+
+    /**
+     * Connection of one subscriber. Sends may block.
+     */
+    interface Sink {
+
+        void send(Message message, long skippedBefore) throws IOException;
+
+        void close();
+    }
+
+    final class Subscription {
+
+        private final Sink sink;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile long sendStartedNanos;
+        // Guarded by this; set while the pool has an extra thread standing in for the stuck send
+        private boolean senderReplaced;
+
+        // Guarded by buffer
+        private final ArrayDeque<Message> buffer = new ArrayDeque<>();
+        private long skippedSinceLastSend;
+
+        Subscription(Sink sink) {
+            this.sink = sink;
+        }
+
+        boolean offer(Message message) {
+            synchronized (buffer) {
+                if (buffer.size() >= bufferSize) {
+                    if (overflowPolicy == OverflowPolicy.DROP) {
+                        return false;
+                    }
+                    buffer.pollFirst();
+                    skippedSinceLastSend++;
+                    skipped.increment();
+                }
+                buffer.addLast(message);
+                return true;
+            }
+        }
+
+        synchronized void replaceSender() {
+            if (sendStartedNanos != 0 && !senderReplaced && senders.getMaximumPoolSize() < senderThreads + maxSubscribers) {
+                senderReplaced = true;
+                resizeSenders(1);
+            }
+        }
+
+        private synchronized void sendFinished() {
+            sendStartedNanos = 0;
+            if (senderReplaced) {
+                senderReplaced = false;
+                resizeSenders(-1);
+            }
+        }
+
+        void drain() {
+            while (true) {
+                Message message;
+                long skippedBefore;
+                synchronized (buffer) {
+                    message = buffer.pollFirst();
+                    skippedBefore = skippedSinceLastSend;
+                    skippedSinceLastSend = 0;
+                    if (message == null) {
+                        scheduled.set(false);
+                        return;
+                    }
+                }
+                sendStartedNanos = System.nanoTime();
+                try {
+                    sink.send(message, skippedBefore);
+                } catch (IOException | RuntimeException e) {
+                    unsubscribe(this);
+                    scheduled.set(false);
+                    return;
+                } finally {
+                    sendFinished();
+                }
+            }
+        }
+    }
+
+    private static final class EmitterSink implements Sink {
+
+        private final SseEmitter emitter;
+
+        EmitterSink(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void send(Message message, long skippedBefore) throws IOException {
+            if (skippedBefore > 0) {
+                emitter.send(SseEmitter.event().name("skipped").data(skippedBefore));
+            }
+            if (message.json() == null) {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            } else {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(message.orderId()))
+                        .name("order")
+                        .data(message.json(), MediaType.APPLICATION_JSON));
+            }
+        }
+
+        @Override
+        public void close() {
+            emitter.complete();
+        }
+    }
+}
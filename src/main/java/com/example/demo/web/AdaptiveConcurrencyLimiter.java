@@ -0,0 +1,120 @@
+package com.example.demo.web;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrency limit that follows observed latency (AIMD). Latencies are averaged over short
+ * windows and compared with a slowly moving baseline. While the window average stays within
+ * {@code tolerance} of the baseline and the limit is actually being used, the limit grows by
+ * one; once latency inflates beyond that, the limit is cut multiplicatively. Callers that find
+ * the limit exhausted are rejected instead of queued.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double BASELINE_SMOOTHING = 0.05;
+    private static final double DECREASE_FACTOR = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final int windowSize;
+    private final long windowNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile int limit;
+
+    // Window state, guarded by this
+    private long windowStart = System.nanoTime();
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInFlight;
+    private double baselineRtt;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance,
+                                      int windowSize, long windowMillis) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.windowSize = windowSize;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+    }
+
+    /**
+     * Takes a permit if the current limit allows it. Every successful call must be paired with
+     * {@link #release(long)}.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns a permit and feeds the request's latency into the limit.
+     */
+    public void release(long rttNanos) {
+        int concurrency = inFlight.getAndDecrement();
+        sample(rttNanos, concurrency);
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    private synchronized void sample(long rttNanos, int concurrency) {
+        windowRttSum += rttNanos;
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, concurrency);
+
+        long now = System.nanoTime();
+        if (windowSamples < windowSize && now - windowStart < windowNanos) {
+            return;
+        }
+
+        double windowRtt = (double) windowRttSum / windowSamples;
+        if (baselineRtt == 0) {
+            baselineRtt = windowRtt;
+        }
+
+        int current = limit;
+        if (windowRtt > baselineRtt * tolerance) {
+            limit = Math.max(minLimit, (int) (current * DECREASE_FACTOR));
+        } else if (windowMaxInFlight * 2 >= current) {
+            // Only probe upwards when the limit is what constrains us, not an idle service
+            limit = Math.min(maxLimit, current + 1);
+        }
+        // The baseline only follows healthy windows, so sustained overload cannot become "normal"
+        if (windowRtt <= baselineRtt * tolerance) {
+            baselineRtt += (windowRtt - baselineRtt) * BASELINE_SMOOTHING;
+        } else {
+            baselineRtt += (windowRtt - baselineRtt) * BASELINE_SMOOTHING / 10;
+        }
+
+        windowStart = now;
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+    }
+}
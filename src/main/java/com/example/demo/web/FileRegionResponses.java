@@ -0,0 +1,53 @@
+package com.example.demo.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a byte range of a file as the response body. Large ranges are handed to Tomcat's
+ * sendfile support, which lets the kernel copy from the page cache to the socket once the
+ * request has been processed; small ranges, and containers without sendfile, go through
+ * {@link FileChannel#transferTo}.
+ */
+public final class FileRegionResponses {
+
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Same threshold as Tomcat's default servlet: below it sendfile costs more than it saves
+    private static final long SENDFILE_MIN_BYTES = 48 * 1024;
+
+    private FileRegionResponses() {
+    }
+
+    public static void write(HttpServletRequest request, HttpServletResponse response,
+                             Path file, long position, long length) throws IOException {
+        response.setContentLengthLong(length);
+        if (length == 0) {
+            return;
+        }
+        if (length >= SENDFILE_MIN_BYTES && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, position);
+            request.setAttribute(SENDFILE_END, position + length);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long sent = 0;
+            while (sent < length) {
+                sent += channel.transferTo(position + sent, length - sent, out);
+            }
+        }
+    }
+}
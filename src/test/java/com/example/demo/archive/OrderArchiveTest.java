@@ -0,0 +1,149 @@
+package com.example.demo.archive;
+
+import com.example.demo.dto.OrderDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OrderArchiveTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void find_ShouldReturnAppendedOrdersAcrossBlocks() throws IOException {
+        OrderArchive archive = newArchive();
+        archive.append(orders(1, 100));
+
+        assertThat(archive.find(1L)).map(OrderDTO::getBuyerEmail).contains("buyer1@example.com");
+        assertThat(archive.find(77L)).map(OrderDTO::getOrderTime).contains(START.plusHours(77));
+        assertThat(archive.find(77L).orElseThrow().getItems()).hasSize(1);
+        assertThat(archive.find(0L)).isEmpty();
+        assertThat(archive.find(101L)).isEmpty();
+    }
+
+    @Test
+    void find_ShouldSurviveReopen() throws IOException {
+        OrderArchive archive = newArchive();
+        archive.append(orders(1, 20));
+        archive.append(orders(21, 40));
+
+        OrderArchive reopened = newArchive();
+
+        assertThat(reopened.isEmpty()).isFalse();
+        assertThat(reopened.find(35L)).map(OrderDTO::getId).contains(35L);
+    }
+
+    @Test
+    void append_WithLowerIds_ShouldStartNewSegment() throws IOException {
+        OrderArchive archive = newArchive();
+        archive.append(orders(50, 60));
+        archive.append(orders(10, 20));
+
+        assertThat(segmentFiles()).hasSize(2);
+        assertThat(archive.find(15L)).isPresent();
+        assertThat(archive.find(55L)).isPresent();
+    }
+
+    @Test
+    void append_OfAlreadyArchivedOrders_ShouldSkipThemAndKeepEveryIdFindable() throws IOException {
+        OrderArchive archive = newArchive();
+        archive.append(orders(1, 20));
+        archive.append(orders(21, 40));
+        // A run that crashed after appending but before deleting appends the same chunks again
+        archive.append(orders(1, 20));
+        archive.append(orders(15, 50));
+
+        for (OrderArchive opened : List.of(archive, newArchive())) {
+            for (long id = 1; id <= 50; id++) {
+                assertThat(opened.find(id)).map(OrderDTO::getId).contains(id);
+            }
+            assertThat(opened.findBetween(START, START.plusHours(60))).extracting(OrderDTO::getId)
+                    .containsExactly(LongStream.rangeClosed(1, 50).boxed().toArray(Long[]::new));
+        }
+        assertThat(segmentFiles()).hasSize(1);
+    }
+
+    @Test
+    void append_AfterLegacySegmentNames_ShouldNotReuseAFile() throws IOException {
+        OrderArchive archive = newArchive();
+        archive.append(orders(5, 10));
+        Files.move(segmentFiles().get(0), directory.resolve(String.format("orders-%020d.seg", 5)));
+
+        OrderArchive reopened = newArchive();
+        reopened.append(orders(1, 4));
+        reopened.append(orders(5, 12));
+
+        assertThat(segmentFiles()).hasSize(2);
+        assertThat(newArchive().findBetween(START, START.plusHours(20))).extracting(OrderDTO::getId)
+                .containsExactly(LongStream.rangeClosed(1, 12).boxed().toArray(Long[]::new));
+    }
+
+    @Test
+    void findBetween_ShouldReturnOrdersInRangeSortedByTime() throws IOException {
+        OrderArchive archive = newArchive();
+        archive.append(orders(1, 100));
+
+        List<OrderDTO> result = archive.findBetween(START.plusHours(30), START.plusHours(40));
+
+        assertThat(result).extracting(OrderDTO::getId).containsExactly(LongStream.rangeClosed(30, 40).boxed().toArray(Long[]::new));
+    }
+
+    @Test
+    void open_WithTornTrailingBlock_ShouldTruncateIt() throws IOException {
+        OrderArchive archive = newArchive();
+        archive.append(orders(1, 10));
+        Path segment = segmentFiles().get(0);
+        long size = Files.size(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(OrderArchive.BLOCK_HEADER_BYTES + 3).putInt(0, 1_000));
+        }
+
+        OrderArchive reopened = newArchive();
+
+        assertThat(Files.size(segment)).isEqualTo(size);
+        assertThat(reopened.find(10L)).isPresent();
+    }
+
+    private OrderArchive newArchive() throws IOException {
+        return new OrderArchive(directory.toString(), objectMapper, 8, 1024 * 1024);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static List<OrderDTO> orders(long fromId, long toId) {
+        return LongStream.rangeClosed(fromId, toId)
+                .mapToObj(id -> OrderDTO.builder()
+                        .id(id)
+                        .buyerEmail("buyer" + id + "@example.com")
+                        .orderTime(START.plusHours(id))
+                        .totalValue(new BigDecimal("10.00"))
+                        .items(List.of(OrderDTO.OrderItemDTO.builder()
+                                .id(id).productId(1L).productName("Product").price(new BigDecimal("10.00")).quantity(1)
+                                .build()))
+                        .build())
+                .toList();
+    }
+}
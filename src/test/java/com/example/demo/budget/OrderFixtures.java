@@ -0,0 +1,42 @@
+package com.example.demo.budget;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Orders written straight to the database for the budget tests: one a minute from {@link #BASE},
+ * spread over 50 buyers, each with two items.
+ */
+final class OrderFixtures {
+
+    static final LocalDateTime BASE = LocalDateTime.of(2020, 3, 1, 9, 0);
+
+    private OrderFixtures() {
+    }
+
+    static void insertOrders(JdbcTemplate jdbcTemplate, long firstId, int count) {
+        List<Object[]> orders = new ArrayList<>(count);
+        List<Object[]> items = new ArrayList<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            long id = firstId + i;
+            String buyer = "buyer" + (i % 50) + "@example.com";
+            orders.add(new Object[]{id, buyer, buyer, Timestamp.valueOf(BASE.plusMinutes(i)), new BigDecimal("7.00")});
+            items.add(new Object[]{id * 2, id, 1L, "Pen", new BigDecimal("2.50"), 2});
+            items.add(new Object[]{id * 2 + 1, id, 2L, "Ink", new BigDecimal("2.00"), 1});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO orders (id, buyer_email, normalized_buyer_email, order_time, total_value) " +
+                "VALUES (?, ?, ?, ?, ?)", orders);
+        jdbcTemplate.batchUpdate("INSERT INTO order_items (id, order_id, product_id, product_name, price, quantity) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", items);
+    }
+
+    static void deleteOrders(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("DELETE FROM order_items");
+        jdbcTemplate.update("DELETE FROM orders");
+    }
+}
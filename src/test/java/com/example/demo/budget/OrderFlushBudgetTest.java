@@ -0,0 +1,96 @@
+package com.example.demo.budget;
+
+import com.example.demo.domain.Order;
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Flushing a persistence context full of loaded orders. The entities are bytecode enhanced, so
+ * a flush asks each entity for its dirty attributes instead of comparing every attribute with
+ * its loaded snapshot.
+ */
+@SpringBootTest
+@Import(PerformanceBudget.Config.class)
+public class OrderFlushBudgetTest {
+
+    private static final int ORDERS = 500;
+    private static final long FIRST_ID = 2_000_000;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        OrderFixtures.insertOrders(jdbcTemplate, FIRST_ID, ORDERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        OrderFixtures.deleteOrders(jdbcTemplate);
+    }
+
+    @Test
+    void flush_Unchanged500OrdersWithItems() {
+        inTransaction(() -> {
+            List<Order> orders = loadOrders();
+
+            PerformanceBudget.of("flush of 500 unchanged orders with items")
+                    .statements(0)
+                    .allocatedMegabytes(0.75)
+                    .check(entityManager::flush);
+
+            assertThat(orders).hasSize(ORDERS).allMatch(SelfDirtinessTracker.class::isInstance);
+        });
+    }
+
+    @Test
+    void flush_OneChangedOrderAmong500() {
+        AtomicInteger cents = new AtomicInteger(700);
+        inTransaction(() -> {
+            Order order = loadOrders().get(0);
+
+            PerformanceBudget.of("flush of 1 changed order among 500")
+                    .statements(1)
+                    .allocatedMegabytes(0.75)
+                    .check(() -> {
+                        order.setTotalValue(BigDecimal.valueOf(cents.incrementAndGet(), 2));
+                        entityManager.flush();
+                    });
+        });
+
+        assertThat(jdbcTemplate.queryForObject("SELECT total_value FROM orders WHERE id = ?", BigDecimal.class, FIRST_ID))
+                .isEqualByComparingTo(BigDecimal.valueOf(cents.get(), 2));
+    }
+
+    private List<Order> loadOrders() {
+        return entityManager.createQuery("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.items WHERE o.id >= :firstId",
+                        Order.class)
+                .setParameter("firstId", FIRST_ID)
+                .getResultList();
+    }
+
+    private void inTransaction(Runnable work) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> work.run());
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.demo.budget;
+
+import com.example.demo.dto.OrderDTO;
+import com.example.demo.dto.OrderLookupDTO;
+import com.example.demo.dto.OrderSummaryDTO;
+import com.example.demo.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Import(PerformanceBudget.Config.class)
+public class OrderServiceBudgetTest {
+
+    private static final int ORDERS = 500;
+    private static final long FIRST_ID = 1_000_000;
+    private static final LocalDateTime BASE = OrderFixtures.BASE;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        OrderFixtures.insertOrders(jdbcTemplate, FIRST_ID, ORDERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        OrderFixtures.deleteOrders(jdbcTemplate);
+        jdbcTemplate.update("DELETE FROM products");
+    }
+
+    @Test
+    void getOrdersBetweenDates_Over500Orders() {
+        List<OrderDTO> orders = PerformanceBudget.of("getOrdersBetweenDates over 500 orders")
+                .statements(1)
+                .allocatedMegabytes(4)
+                .check(() -> orderService.getOrdersBetweenDates(BASE, BASE.plusMinutes(ORDERS)));
+
+        assertThat(orders).hasSize(ORDERS);
+        assertThat(orders.get(0).getItems()).hasSize(2);
+    }
+
+    @Test
+    void getOrderSummariesBetweenDates_Over500Orders() {
+        List<OrderSummaryDTO> orders = PerformanceBudget.of("getOrderSummariesBetweenDates over 500 orders")
+                .statements(1)
+                .allocatedMegabytes(0.75)
+                .check(() -> orderService.getOrderSummariesBetweenDates(BASE, BASE.plusMinutes(ORDERS)));
+
+        assertThat(orders).hasSize(ORDERS);
+    }
+
+    @Test
+    void getAllOrders_Over500Orders() {
+        List<OrderDTO> orders = PerformanceBudget.of("getAllOrders over 500 orders")
+                .statements(1)
+                .allocatedMegabytes(4)
+                .check(orderService::getAllOrders);
+
+        assertThat(orders).hasSize(ORDERS);
+    }
+
+    @Test
+    void getOrdersByBuyer_With10Orders() {
+        PerformanceBudget.of("getOrdersByBuyer with 10 orders")
+                .statements(2)
+                .allocatedMegabytes(0.5)
+                .check(() -> orderService.getOrdersByBuyer("Buyer7@example.com"));
+    }
+
+    @Test
+    void getOrderById() {
+        OrderDTO order = PerformanceBudget.of("getOrderById")
+                .statements(2)
+                .allocatedMegabytes(0.5)
+                .check(() -> orderService.getOrderById(FIRST_ID));
+
+        assertThat(order.getItems()).hasSize(2);
+    }
+
+    @Test
+    void getOrdersByIds_With100Ids() {
+        List<Long> ids = LongStream.range(FIRST_ID, FIRST_ID + 100).boxed().toList();
+
+        OrderLookupDTO lookup = PerformanceBudget.of("getOrdersByIds with 100 ids")
+                .statements(1)
+                .allocatedMegabytes(1.25)
+                .check(() -> orderService.getOrdersByIds(ids));
+
+        assertThat(lookup.getOrders()).hasSize(100);
+    }
+
+    @Test
+    void createOrder_With10Items() {
+        List<Long> productIds = IntStream.range(0, 10)
+                .mapToObj(i -> insertProduct("Product " + i))
+                .toList();
+        OrderDTO request = new OrderDTO();
+        request.setBuyerEmail("budget@example.com");
+        request.setItems(productIds.stream().map(id -> {
+            OrderDTO.OrderItemDTO item = new OrderDTO.OrderItemDTO();
+            item.setProductId(id);
+            item.setQuantity(1);
+            return item;
+        }).toList());
+
+        // One product query, then IDENTITY keys make Hibernate insert every item on its own
+        PerformanceBudget.of("createOrder with 10 items")
+                .statements(14)
+                .allocatedMegabytes(1.5)
+                .check(() -> orderService.createOrder(request));
+    }
+
+    private long insertProduct(String name) {
+        jdbcTemplate.update("INSERT INTO products (name, price) VALUES (?, ?)", name, new BigDecimal("1.00"));
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM products", Long.class);
+    }
+}
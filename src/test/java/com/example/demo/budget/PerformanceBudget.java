@@ -0,0 +1,139 @@
+package com.example.demo.budget;
+
+import com.example.demo.monitoring.StatementStatistics;
+import com.example.demo.monitoring.SlowQueryLogger;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * A statement and allocation budget for one call, checked against a real database. Statements
+ * are counted on the calling thread through {@link StatementStatistics}, which every JDBC
+ * statement already passes, and allocation is read from the thread's allocated-bytes counter.
+ * Work handed to other threads, such as the shard scatter pool or the outbox relay, is not
+ * counted.
+ * <p>
+ * Test classes import {@link Config} so that the counting statistics replace the real ones.
+ */
+public final class PerformanceBudget {
+
+    private static final long MEGABYTE = 1024 * 1024;
+
+    private static final ThreadLocal<List<String>> RECORDING = new ThreadLocal<>();
+
+    private final String name;
+    private int maxStatements = Integer.MAX_VALUE;
+    private long maxAllocatedBytes = Long.MAX_VALUE;
+    private int warmUpRuns = 1;
+
+    private PerformanceBudget(String name) {
+        this.name = name;
+    }
+
+    public static PerformanceBudget of(String name) {
+        return new PerformanceBudget(name);
+    }
+
+    public PerformanceBudget statements(int maxStatements) {
+        this.maxStatements = maxStatements;
+        return this;
+    }
+
+    public PerformanceBudget allocatedMegabytes(double megabytes) {
+        this.maxAllocatedBytes = (long) (megabytes * MEGABYTE);
+        return this;
+    }
+
+    /**
+     * Unmeasured runs before the measured one, so that class loading, query plan caches and
+     * lazily built beans do not count against the budget. Defaults to one.
+     */
+    public PerformanceBudget warmUp(int runs) {
+        this.warmUpRuns = runs;
+        return this;
+    }
+
+    public void check(Runnable call) {
+        check(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    public <T> T check(Supplier<T> call) {
+        for (int i = 0; i < warmUpRuns; i++) {
+            call.get();
+        }
+
+        List<String> statements = new ArrayList<>();
+        RECORDING.set(statements);
+        long allocatedBefore = allocatedBytes();
+        T result;
+        try {
+            result = call.get();
+        } finally {
+            RECORDING.remove();
+        }
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        List<String> violations = new ArrayList<>();
+        if (statements.size() > maxStatements) {
+            violations.add("issued " + statements.size() + " statements, budget is " + maxStatements);
+        }
+        if (allocatedBefore >= 0 && allocated > maxAllocatedBytes) {
+            violations.add(String.format("allocated %.1f MB, budget is %.1f MB",
+                    (double) allocated / MEGABYTE, (double) maxAllocatedBytes / MEGABYTE));
+        }
+        if (!violations.isEmpty()) {
+            throw new AssertionError(name + " " + String.join(" and ", violations) + describe(statements));
+        }
+        return result;
+    }
+
+    private static String describe(List<String> statements) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        statements.forEach(sql -> counts.merge(sql.replaceAll("\\s+", " ").trim(), 1, Integer::sum));
+        StringBuilder description = new StringBuilder();
+        counts.forEach((sql, count) -> description.append("\n  ").append(count).append(" x ").append(sql));
+        return description.toString();
+    }
+
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads.getCurrentThreadAllocatedBytes();
+        }
+        // Allocation is not checked on JVMs without the counter
+        return -1;
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    public static class Config {
+
+        @Bean
+        @Primary
+        StatementStatistics countingStatementStatistics(MeterRegistry meterRegistry, SlowQueryLogger slowQueryLogger,
+                                                        @Value("${app.sql.slow-query.threshold-ms:200}") long slowThresholdMs,
+                                                        @Value("${app.sql.statistics.max-statements:500}") int maxStatements) {
+            return new StatementStatistics(meterRegistry, slowQueryLogger, slowThresholdMs, maxStatements) {
+                @Override
+                public void record(String sql, long nanos, List<String> parameterTypes) {
+                    List<String> statements = RECORDING.get();
+                    if (statements != null) {
+                        statements.add(sql);
+                    }
+                    super.record(sql, nanos, parameterTypes);
+                }
+            };
+        }
+    }
+}
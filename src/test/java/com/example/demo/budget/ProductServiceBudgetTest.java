@@ -0,0 +1,75 @@
+package com.example.demo.budget;
+
+import com.example.demo.dto.ProductDTO;
+import com.example.demo.service.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Import(PerformanceBudget.Config.class)
+public class ProductServiceBudgetTest {
+
+    private static final int PRODUCTS = 500;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        List<Object[]> products = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(new Object[]{"Product " + i, BigDecimal.valueOf(100 + i, 2)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO products (name, price) VALUES (?, ?)", products);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM products");
+    }
+
+    @Test
+    void getAllProducts_Over500Products() {
+        List<ProductDTO> products = PerformanceBudget.of("getAllProducts over 500 products")
+                .statements(1)
+                .allocatedMegabytes(0.75)
+                .check(productService::getAllProducts);
+
+        assertThat(products).hasSize(PRODUCTS);
+    }
+
+    @Test
+    void getProductById() {
+        Long id = jdbcTemplate.queryForObject("SELECT MIN(id) FROM products", Long.class);
+
+        PerformanceBudget.of("getProductById")
+                .statements(1)
+                .allocatedMegabytes(0.25)
+                .check(() -> productService.getProductById(id));
+    }
+
+    @Test
+    void getProductsByPriceRange_PageOf100() {
+        List<ProductDTO> page = PerformanceBudget.of("getProductsByPriceRange page of 100")
+                .statements(1)
+                .allocatedMegabytes(0.75)
+                .check(() -> productService.getProductsByPriceRange(new BigDecimal("1.00"), new BigDecimal("5.00"),
+                        null, null, 100));
+
+        assertThat(page).hasSize(100);
+    }
+}
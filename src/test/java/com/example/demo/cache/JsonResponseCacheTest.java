@@ -0,0 +1,124 @@
+package com.example.demo.cache;
+
+import com.example.demo.dto.OrderDTO;
+import com.example.demo.dto.OrderLookupDTO;
+import com.example.demo.dto.ProductDTO;
+import com.example.demo.event.ProductChangedEvent;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JsonResponseCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void getOrder_ShouldSerializeOnceAndEvictLeastRecentlyUsedBeyondBudget() throws Exception {
+        long oneOrder = objectMapper.writeValueAsBytes(order(1)).length + JsonResponseCache.ENTRY_OVERHEAD_BYTES;
+        JsonResponseCache cache = new JsonResponseCache(objectMapper, 2 * oneOrder);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getOrder(1, id -> load(loads, id));
+        cache.getOrder(2, id -> load(loads, id));
+        cache.getOrder(1, id -> load(loads, id));
+        cache.getOrder(3, id -> load(loads, id));
+        assertThat(loads.get()).isEqualTo(3);
+
+        cache.getOrder(1, id -> load(loads, id));
+        assertThat(loads.get()).isEqualTo(3);
+        cache.getOrder(2, id -> load(loads, id));
+        assertThat(loads.get()).isEqualTo(4);
+        assertThat(cache.getOrderBytes()).isLessThanOrEqualTo(2 * oneOrder);
+    }
+
+    @Test
+    void getOrder_WhenLoaderFails_ShouldCacheNothing() {
+        JsonResponseCache cache = new JsonResponseCache(objectMapper, 1 << 20);
+
+        assertThrows(ResourceNotFoundException.class, () -> cache.getOrder(9, id -> {
+            throw new ResourceNotFoundException("Order not found with id: " + id);
+        }));
+
+        assertThat(cache.getOrderBytes()).isZero();
+    }
+
+    @Test
+    void getOrderLookup_ShouldLoadOnlyUncachedOrdersAndKeepRequestOrder() throws Exception {
+        JsonResponseCache cache = new JsonResponseCache(objectMapper, 1 << 20);
+        AtomicInteger loads = new AtomicInteger();
+        List<List<Long>> loaded = new ArrayList<>();
+        cache.getOrder(1, id -> load(loads, id));
+
+        byte[] json = cache.getOrderLookup(List.of(3L, 1L, 2L), ids -> {
+            loaded.add(ids);
+            return OrderLookupDTO.builder().orders(List.of(order(3))).missingIds(List.of(2L)).build();
+        });
+        cache.getOrderLookup(List.of(3L), ids -> {
+            loaded.add(ids);
+            return new OrderLookupDTO();
+        });
+
+        OrderLookupDTO lookup = objectMapper.readValue(json, OrderLookupDTO.class);
+        assertThat(lookup.getOrders()).extracting(OrderDTO::getId).containsExactly(3L, 1L);
+        assertThat(lookup.getMissingIds()).containsExactly(2L);
+        assertThat(loaded).containsExactly(List.of(3L, 2L));
+    }
+
+    @Test
+    void getProductList_ShouldKeepBytesUntilProductsChange() {
+        JsonResponseCache cache = new JsonResponseCache(objectMapper, 1 << 20);
+        AtomicInteger loads = new AtomicInteger();
+
+        byte[] first = cache.getProductList(() -> products(loads, "A"));
+        byte[] second = cache.getProductList(() -> products(loads, "B"));
+        cache.onProductChanged(ProductChangedEvent.deleted(1L));
+        byte[] third = cache.getProductList(() -> products(loads, "C"));
+
+        assertThat(second).isSameAs(first);
+        assertThat(new String(third, StandardCharsets.UTF_8)).contains("\"C\"");
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void getProductList_ChangedWhileLoading_ShouldNotCacheStaleList() {
+        JsonResponseCache cache = new JsonResponseCache(objectMapper, 1 << 20);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getProductList(() -> {
+            // A product write commits after this read saw the old rows
+            cache.onProductChanged(ProductChangedEvent.deleted(1L));
+            return products(loads, "stale");
+        });
+        byte[] next = cache.getProductList(() -> products(loads, "fresh"));
+
+        assertThat(new String(next, StandardCharsets.UTF_8)).contains("\"fresh\"");
+    }
+
+    private static OrderDTO load(AtomicInteger loads, long id) {
+        loads.incrementAndGet();
+        return order(id);
+    }
+
+    private static OrderDTO order(long id) {
+        return OrderDTO.builder()
+                .id(id)
+                .buyerEmail("buyer@example.com")
+                .totalValue(new BigDecimal("10.00"))
+                .items(List.of())
+                .build();
+    }
+
+    private static List<ProductDTO> products(AtomicInteger loads, String name) {
+        loads.incrementAndGet();
+        return List.of(ProductDTO.builder().id(1L).name(name).price(BigDecimal.ONE).build());
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.demo.cache;
+
+import com.example.demo.dto.ProductDTO;
+import com.example.demo.event.ProductChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MissingProductCacheTest {
+
+    @Test
+    void recordMissing_ShouldKeepMostRecentlyUsedIdsWithinSize() {
+        MissingProductCache cache = new MissingProductCache(2);
+
+        cache.recordMissing(1L, cache.generation());
+        cache.recordMissing(2L, cache.generation());
+        cache.isMissing(1L);
+        cache.recordMissing(3L, cache.generation());
+
+        assertThat(cache.isMissing(1L)).isTrue();
+        assertThat(cache.isMissing(2L)).isFalse();
+        assertThat(cache.isMissing(3L)).isTrue();
+    }
+
+    @Test
+    void onProductChanged_ShouldForgetSavedIdsAndRememberDeletedOnes() {
+        MissingProductCache cache = new MissingProductCache(10);
+        cache.recordMissing(1L, cache.generation());
+
+        cache.onProductChanged(ProductChangedEvent.updated(product(1L)));
+        cache.onProductChanged(ProductChangedEvent.deleted(2L));
+
+        assertThat(cache.isMissing(1L)).isFalse();
+        assertThat(cache.isMissing(2L)).isTrue();
+    }
+
+    @Test
+    void recordMissing_AfterProductSavedDuringLookup_ShouldBeIgnored() {
+        MissingProductCache cache = new MissingProductCache(10);
+
+        long generation = cache.generation();
+        // The product commits between the empty lookup and the recording of the miss
+        cache.onProductChanged(ProductChangedEvent.updated(product(5L)));
+        cache.recordMissing(5L, generation);
+
+        assertThat(cache.isMissing(5L)).isFalse();
+    }
+
+    private static ProductDTO product(Long id) {
+        return ProductDTO.builder().id(id).name("Product " + id).price(BigDecimal.ONE).build();
+    }
+}
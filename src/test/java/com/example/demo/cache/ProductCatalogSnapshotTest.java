@@ -0,0 +1,146 @@
+package com.example.demo.cache;
+
+import com.example.demo.budget.PerformanceBudget;
+import com.example.demo.domain.Product;
+import com.example.demo.dto.ProductDTO;
+import com.example.demo.event.ProductChangedEvent;
+import com.example.demo.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductCatalogSnapshotTest {
+
+    private static final int PRODUCTS = 3_000;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private final List<Product> catalog = new ArrayList<>();
+
+    private ProductCatalogSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        for (long id = 1; id <= PRODUCTS; id++) {
+            catalog.add(product(id * 7, "Product " + id, BigDecimal.valueOf(id, 2)));
+        }
+        // An outdated count, so that the buffers have to grow while loading
+        lenient().when(productRepository.count()).thenReturn(10L);
+        lenient().when(productRepository.findAfterId(anyLong(), any(Pageable.class)))
+                .thenAnswer(invocation -> chunk(invocation.getArgument(0), invocation.getArgument(1)));
+        snapshot = new ProductCatalogSnapshot(productRepository, true, 500, Duration.ofMinutes(15), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void rebuild_ShouldServeEveryProductById() {
+        catalog.add(product(1L, "Füller ✒", null));
+        catalog.add(product(2L, null, new BigDecimal("123456789012345678901234567890.99")));
+
+        assertThat(snapshot.isReady()).isFalse();
+        snapshot.rebuild();
+
+        assertThat(snapshot.isReady()).isTrue();
+        assertThat(snapshot.size()).isEqualTo(PRODUCTS + 2);
+        assertThat(snapshot.getOffHeapBytes()).isGreaterThan((long) PRODUCTS * ProductCatalogSnapshot.RECORD_BYTES);
+        for (Product product : catalog) {
+            ProductDTO found = snapshot.find(product.getId());
+            assertThat(found.getId()).isEqualTo(product.getId());
+            assertThat(found.getName()).isEqualTo(product.getName());
+            assertThat(found.getPrice()).isEqualTo(product.getPrice());
+        }
+        assertThat(snapshot.find(8L)).isNull();
+        assertThat(snapshot.find(null)).isNull();
+    }
+
+    @Test
+    void onProductChanged_ShouldBeSeenUntilARebuildCoversIt() {
+        snapshot.rebuild();
+
+        snapshot.onProductChanged(ProductChangedEvent.updated(dto(7L, "Renamed", "9.99")));
+        snapshot.onProductChanged(ProductChangedEvent.deleted(14L));
+        snapshot.onProductChanged(ProductChangedEvent.updated(dto(100_000L, "New", "1.00")));
+
+        assertThat(snapshot.find(7L).getName()).isEqualTo("Renamed");
+        assertThat(snapshot.find(14L)).isNull();
+        assertThat(snapshot.find(100_000L).getName()).isEqualTo("New");
+
+        // The database has the changes by the next rebuild, except one that commits while it reads
+        catalog.set(0, product(7L, "Renamed", new BigDecimal("9.99")));
+        catalog.remove(1);
+        catalog.add(product(100_000L, "New", new BigDecimal("1.00")));
+        AtomicInteger chunks = new AtomicInteger();
+        when(productRepository.findAfterId(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            if (chunks.getAndIncrement() == 0) {
+                snapshot.onProductChanged(ProductChangedEvent.updated(dto(21L, "Changed while loading", "2.00")));
+            }
+            return chunk(invocation.getArgument(0), invocation.getArgument(1));
+        });
+        snapshot.rebuild();
+
+        assertThat(snapshot.find(7L).getName()).isEqualTo("Renamed");
+        assertThat(snapshot.find(14L)).isNull();
+        assertThat(snapshot.find(100_000L).getName()).isEqualTo("New");
+        assertThat(snapshot.find(21L).getName()).isEqualTo("Changed while loading");
+        assertThat(snapshot.find(28L).getName()).isEqualTo("Product 4");
+    }
+
+    @Test
+    void find_ShouldOnlyAllocateTheReturnedProducts() {
+        snapshot.rebuild();
+
+        // About 150 bytes per product for the DTO, its name and its price
+        PerformanceBudget.of("10000 snapshot lookups")
+                .allocatedMegabytes(2)
+                .check(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        snapshot.find(catalog.get(i % PRODUCTS).getId());
+                    }
+                });
+    }
+
+    @Test
+    void disabled_ShouldNeverLoad() {
+        ProductCatalogSnapshot disabled = new ProductCatalogSnapshot(productRepository, false, 500,
+                Duration.ofMinutes(15), new SimpleMeterRegistry());
+
+        disabled.start();
+        disabled.onProductChanged(ProductChangedEvent.deleted(7L));
+
+        assertThat(disabled.isReady()).isFalse();
+        verifyNoInteractions(productRepository);
+    }
+
+    private List<Product> chunk(long afterId, Pageable page) {
+        return catalog.stream()
+                .filter(product -> product.getId() > afterId)
+                .sorted(Comparator.comparing(Product::getId))
+                .limit(page.getPageSize())
+                .toList();
+    }
+
+    private static Product product(Long id, String name, BigDecimal price) {
+        return Product.builder().id(id).name(name).price(price).build();
+    }
+
+    private static ProductDTO dto(Long id, String name, String price) {
+        return ProductDTO.builder().id(id).name(name).price(new BigDecimal(price)).build();
+    }
+}
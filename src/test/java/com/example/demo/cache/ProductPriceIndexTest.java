@@ -0,0 +1,109 @@
+package com.example.demo.cache;
+
+import com.example.demo.domain.Product;
+import com.example.demo.dto.ProductDTO;
+import com.example.demo.event.ProductChangedEvent;
+import com.example.demo.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductPriceIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductPriceIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductPriceIndex(productRepository, true);
+        when(productRepository.findAll()).thenReturn(Arrays.asList(
+                product(1L, "30.00"),
+                product(2L, "10.00"),
+                product(3L, "20.00"),
+                product(4L, "20.00"),
+                product(5L, "50.00")));
+        index.load();
+    }
+
+    @Test
+    void range_ShouldReturnProductsOrderedByPriceThenId() {
+        List<ProductDTO> result = index.range(new BigDecimal("15"), new BigDecimal("30"), null, null, 10);
+
+        assertThat(result).extracting(ProductDTO::getId).containsExactly(3L, 4L, 1L);
+    }
+
+    @Test
+    void range_ShouldContinueStrictlyAfterCursor() {
+        List<ProductDTO> firstPage = index.range(null, null, null, null, 2);
+        ProductDTO last = firstPage.get(firstPage.size() - 1);
+
+        List<ProductDTO> secondPage = index.range(null, null, last.getPrice(), last.getId(), 2);
+
+        assertThat(firstPage).extracting(ProductDTO::getId).containsExactly(2L, 3L);
+        assertThat(secondPage).extracting(ProductDTO::getId).containsExactly(4L, 1L);
+    }
+
+    @Test
+    void range_WithCursorBeyondMaxPrice_ShouldReturnEmpty() {
+        assertThat(index.range(null, new BigDecimal("20"), new BigDecimal("30.00"), 1L, 10)).isEmpty();
+    }
+
+    @Test
+    void onProductChanged_ShouldMoveUpdatedProductAndDropDeletedOne() {
+        index.onProductChanged(ProductChangedEvent.updated(
+                ProductDTO.builder().id(5L).name("Product 5").price(new BigDecimal("5.00")).build()));
+        index.onProductChanged(ProductChangedEvent.deleted(2L));
+
+        List<ProductDTO> result = index.range(null, null, null, null, 10);
+
+        assertThat(result).extracting(ProductDTO::getId).containsExactly(5L, 3L, 4L, 1L);
+    }
+
+    @Test
+    void range_WithProductWithoutPrice_ShouldListItFirstOnlyWhenUnbounded() {
+        index = new ProductPriceIndex(productRepository, true);
+        when(productRepository.findAll()).thenReturn(Arrays.asList(
+                product(2L, "10.00"), product(6L, null), product(3L, "20.00"), product(4L, "20.00")));
+        index.load();
+
+        assertThat(index.range(null, null, null, null, 2)).extracting(ProductDTO::getId).containsExactly(6L, 2L);
+        assertThat(index.range(null, new BigDecimal("20"), null, null, 10)).extracting(ProductDTO::getId)
+                .containsExactly(2L, 3L, 4L);
+        assertThat(index.range(new BigDecimal("10"), null, null, null, 1)).extracting(ProductDTO::getId)
+                .containsExactly(2L);
+        assertThat(index.find(6L)).isPresent();
+    }
+
+    @Test
+    void range_AfterCursorWithoutPrice_ShouldContinueThroughTheProductsWithoutPrice() {
+        index = new ProductPriceIndex(productRepository, true);
+        when(productRepository.findAll()).thenReturn(Arrays.asList(
+                product(2L, "10.00"), product(6L, null), product(8L, null), product(3L, "20.00")));
+        index.load();
+
+        assertThat(index.range(null, null, null, 6L, 2)).extracting(ProductDTO::getId).containsExactly(8L, 2L);
+        assertThat(index.range(null, null, null, 8L, 10)).extracting(ProductDTO::getId).containsExactly(2L, 3L);
+        assertThat(index.range(null, new BigDecimal("15"), null, 6L, 10)).extracting(ProductDTO::getId)
+                .containsExactly(2L);
+    }
+
+    private static Product product(Long id, String price) {
+        return Product.builder()
+                .id(id)
+                .name("Product " + id)
+                .price(price == null ? null : new BigDecimal(price))
+                .build();
+    }
+}
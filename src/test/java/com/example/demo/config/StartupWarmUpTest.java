@@ -0,0 +1,92 @@
+package com.example.demo.config;
+
+import com.example.demo.cache.JsonResponseCache;
+import com.example.demo.dto.ProductDTO;
+import com.example.demo.service.OrderService;
+import com.example.demo.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class StartupWarmUpTest {
+
+    private HikariDataSource pool;
+    private ValidatorFactory validatorFactory;
+    private OrderService orderService;
+    private ProductService productService;
+    private JsonResponseCache jsonResponseCache;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:warm-up");
+        pool.setMaximumPoolSize(4);
+        pool.setMinimumIdle(3);
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        orderService = mock(OrderService.class);
+        productService = mock(ProductService.class);
+        jsonResponseCache = mock(JsonResponseCache.class);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+        validatorFactory.close();
+    }
+
+    @Test
+    void run_ShouldFillPoolCacheProductsAndPublishMetrics() {
+        List<ProductDTO> catalog = List.of(ProductDTO.builder().id(1L).name("Pen").price(BigDecimal.ONE).build());
+        when(productService.getAllProducts()).thenReturn(catalog);
+
+        warmUp(250, Duration.ofSeconds(30)).run(null);
+
+        assertThat(pool.getHikariPoolMXBean().getTotalConnections()).isEqualTo(3);
+        verify(jsonResponseCache).getProductList(argThat(loader -> loader.get() == catalog));
+        // Queries run on the first of every 50 iterations
+        verify(orderService, times(5)).getOrdersByIds(List.of(0L));
+        assertThat(meterRegistry.get("demo.warmup.duration").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("demo.warmup.iterations").gauge().value()).isEqualTo(250);
+        assertThat(meterRegistry.get("demo.warmup.iteration.micros").tag("phase", "last").gauge().value()).isPositive();
+    }
+
+    @Test
+    void run_WhenTimeIsUp_ShouldStopEarly() {
+        warmUp(1_000_000, Duration.ZERO).run(null);
+
+        assertThat(meterRegistry.get("demo.warmup.iterations").gauge().value()).isZero();
+        verify(orderService, never()).getOrdersByIds(any());
+    }
+
+    @Test
+    void run_WhenAStepFails_ShouldStartCold() {
+        when(productService.getAllProducts()).thenThrow(new IllegalStateException("catalog unavailable"));
+
+        warmUp(10, Duration.ofSeconds(30)).run(null);
+
+        verify(jsonResponseCache, never()).getProductList(any(Supplier.class));
+        assertThat(meterRegistry.find("demo.warmup.duration").timer()).isNull();
+    }
+
+    private StartupWarmUp warmUp(int iterations, Duration maxDuration) {
+        return new StartupWarmUp(pool, orderService, productService, jsonResponseCache,
+                new ObjectMapper().findAndRegisterModules(), validatorFactory.getValidator(), meterRegistry,
+                iterations, 50, maxDuration);
+    }
+}
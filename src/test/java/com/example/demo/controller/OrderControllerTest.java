@@ -1,33 +1,59 @@
 package com.example.demo.controller;
 
+import com.example.demo.cache.JsonResponseCache;
+import com.example.demo.dto.BulkOrderResultDTO;
+import com.example.demo.dto.CustomerOrdersDTO;
+import com.example.demo.dto.CustomerSummaryDTO;
 import com.example.demo.dto.OrderDTO;
+import com.example.demo.dto.OrderLookupDTO;
+import com.example.demo.dto.OrderSummaryDTO;
+import com.example.demo.eventlog.OrderEventLog;
+import com.example.demo.exception.FeatureUnavailableException;
+import com.example.demo.exception.RateLimitExceededException;
 import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.ratelimit.OrderRateLimiter;
+import com.example.demo.service.BulkOrderService;
 import com.example.demo.service.OrderService;
+import com.example.demo.stream.OrderStreamPublisher;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.test.json.JsonCompareMode;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(OrderController.class)
+@Import(JsonResponseCache.class)
 public class OrderControllerTest {
 
     @Autowired
@@ -36,9 +62,27 @@ public class OrderControllerTest {
     @MockBean
     private OrderService orderService;
 
+    @MockBean
+    private BulkOrderService bulkOrderService;
+
+    @MockBean
+    private OrderRateLimiter orderRateLimiter;
+
+    @MockBean
+    private OrderEventLog orderEventLog;
+
+    @MockBean
+    private OrderStreamPublisher orderStreamPublisher;
+
+    @TempDir
+    Path tempDir;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private JsonResponseCache jsonResponseCache;
+
     private OrderDTO orderDTO;
     private List<OrderDTO> orderDTOList;
     private LocalDateTime startDate;
@@ -46,6 +90,8 @@ public class OrderControllerTest {
 
     @BeforeEach
     void setUp() {
+        jsonResponseCache.clear();
+
         OrderDTO.OrderItemDTO orderItemDTO = OrderDTO.OrderItemDTO.builder()
                 .id(1L)
                 .productId(1L)
@@ -109,6 +155,51 @@ public class OrderControllerTest {
         verify(orderService, times(1)).getOrderById(1L);
     }
 
+    @Test
+    void lookupOrders_ShouldCombineCachedAndLoadedOrders() throws Exception {
+        when(orderService.getOrderById(1L)).thenReturn(orderDTO);
+        when(orderService.getOrdersByIds(List.of(2L, 3L))).thenReturn(OrderLookupDTO.builder()
+                .orders(List.of(orderDTOList.get(1)))
+                .missingIds(List.of(3L))
+                .build());
+        mockMvc.perform(get("/api/orders/1")).andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/orders/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[2, 1, 3, 2]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders", hasSize(2)))
+                .andExpect(jsonPath("$.orders[0].id", is(2)))
+                .andExpect(jsonPath("$.orders[1].buyerEmail", is("test@example.com")))
+                .andExpect(jsonPath("$.missingIds", hasSize(1)))
+                .andExpect(jsonPath("$.missingIds[0]", is(3)));
+
+        verify(orderService, times(1)).getOrdersByIds(List.of(2L, 3L));
+    }
+
+    @Test
+    void lookupOrders_WithNullId_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/api/orders/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, null]"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    void getOrderById_Repeated_ShouldServeCachedJson() throws Exception {
+        when(orderService.getOrderById(1L)).thenReturn(orderDTO);
+
+        mockMvc.perform(get("/api/orders/1")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/orders/1"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().json(objectMapper.writeValueAsString(orderDTO), JsonCompareMode.STRICT));
+
+        verify(orderService, times(1)).getOrderById(1L);
+    }
+
     @Test
     void getOrderById_WithInvalidId_ShouldReturnNotFound() throws Exception {
         when(orderService.getOrderById(999L)).thenThrow(new ResourceNotFoundException("Order not found with id: 999"));
@@ -134,6 +225,117 @@ public class OrderControllerTest {
         verify(orderService, times(1)).getOrdersBetweenDates(any(LocalDateTime.class), any(LocalDateTime.class));
     }
 
+    @Test
+    void getOrdersByDateRange_WithSummaryView_ShouldLeaveItemsOut() throws Exception {
+        when(orderService.getOrderSummariesBetweenDates(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(OrderSummaryDTO.of(orderDTO)));
+
+        mockMvc.perform(get("/api/orders/byDateRange")
+                        .param("startDate", startDate.toString())
+                        .param("endDate", endDate.toString())
+                        .param("view", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].totalValue", is(199.98)))
+                .andExpect(jsonPath("$[0].items").doesNotExist());
+
+        verify(orderService, never()).getOrdersBetweenDates(any(), any());
+    }
+
+    @Test
+    void getAllOrders_WithUnknownView_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/orders").param("view", "compact"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    void getOrdersByBuyer_ShouldReturnOrdersWithSummary() throws Exception {
+        CustomerSummaryDTO summary = CustomerSummaryDTO.builder()
+                .buyerEmail("test@example.com")
+                .orderCount(1)
+                .lifetimeValue(new BigDecimal("199.98"))
+                .lastOrderTime(orderDTO.getOrderTime())
+                .build();
+        when(orderService.getOrdersByBuyer("test@example.com")).thenReturn(CustomerOrdersDTO.builder()
+                .summary(summary)
+                .orders(Collections.singletonList(orderDTO))
+                .build());
+
+        mockMvc.perform(get("/api/orders/byBuyer").param("buyerEmail", "test@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.summary.orderCount", is(1)))
+                .andExpect(jsonPath("$.summary.lifetimeValue", is(199.98)))
+                .andExpect(jsonPath("$.orders", hasSize(1)))
+                .andExpect(jsonPath("$.orders[0].id", is(1)));
+
+        verify(orderService, times(1)).getOrdersByBuyer("test@example.com");
+    }
+
+    @Test
+    void getCustomerSummary_ShouldReturnSummary() throws Exception {
+        when(orderService.getCustomerSummary("test@example.com")).thenReturn(CustomerSummaryDTO.builder()
+                .buyerEmail("test@example.com")
+                .orderCount(3)
+                .lifetimeValue(new BigDecimal("349.95"))
+                .build());
+
+        mockMvc.perform(get("/api/orders/byBuyer/summary").param("buyerEmail", "test@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orderCount", is(3)))
+                .andExpect(jsonPath("$.lifetimeValue", is(349.95)));
+    }
+
+    @Test
+    void getOrderEvents_ShouldStreamSliceOfLogWithNextOffset() throws Exception {
+        Path segment = tempDir.resolve("00000000000000000000.log");
+        Files.writeString(segment, "{\"eventId\":1}\n{\"eventId\":2}\n{\"eventId\":3}\n");
+        when(orderEventLog.read(14L, 1024)).thenReturn(new OrderEventLog.Slice(segment, 14, 28, 42));
+
+        mockMvc.perform(get("/api/orders/events").param("fromOffset", "14").param("maxBytes", "1024"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Offset", "42"))
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andExpect(content().bytes("{\"eventId\":2}\n{\"eventId\":3}\n".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void getOrderEvents_WhenCaughtUp_ShouldReturnEmptyBody() throws Exception {
+        when(orderEventLog.read(42L, 1048576)).thenReturn(new OrderEventLog.Slice(null, 0, 0, 42));
+
+        mockMvc.perform(get("/api/orders/events").param("fromOffset", "42"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Offset", "42"))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void getOrderEvents_WithInvalidOffset_ShouldReturnBadRequest() throws Exception {
+        when(orderEventLog.read(5L, 1048576)).thenThrow(new IllegalArgumentException("Offset 5 is not at the start of an event"));
+
+        mockMvc.perform(get("/api/orders/events").param("fromOffset", "5"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void streamOrders_ShouldOpenEventStream() throws Exception {
+        when(orderStreamPublisher.subscribe()).thenReturn(Optional.of(new SseEmitter()));
+
+        mockMvc.perform(get("/api/orders/stream"))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    void streamOrders_WithTooManySubscribers_ShouldReturnServiceUnavailable() throws Exception {
+        when(orderStreamPublisher.subscribe()).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/orders/stream"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "5"));
+    }
+
     @Test
     void placeOrder_WithValidData_ShouldReturnCreatedOrder() throws Exception {
         OrderDTO.OrderItemDTO inputOrderItemDTO = OrderDTO.OrderItemDTO.builder()
@@ -173,4 +375,77 @@ public class OrderControllerTest {
 
         verify(orderService, never()).createOrder(any(OrderDTO.class));
     }
+
+    @Test
+    void placeOrder_WhenRateLimited_ShouldReturnTooManyRequests() throws Exception {
+        OrderDTO inputOrderDTO = OrderDTO.builder()
+                .buyerEmail("new@example.com")
+                .items(Collections.singletonList(OrderDTO.OrderItemDTO.builder().productId(1L).quantity(1).build()))
+                .build();
+        doThrow(new RateLimitExceededException("Too many orders for this buyer", 2))
+                .when(orderRateLimiter).check(eq("new@example.com"), eq("10.0.0.7"));
+
+        // A client-chosen header does not pick the bucket, the connection's address does
+        mockMvc.perform(post("/api/orders")
+                        .header("X-Client-Id", "integration-7")
+                        .with(request -> {
+                            request.setRemoteAddr("10.0.0.7");
+                            return request;
+                        })
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(inputOrderDTO)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.status", is(429)));
+
+        verify(orderService, never()).createOrder(any(OrderDTO.class));
+    }
+
+    @Test
+    void placeBulkOrder_ShouldStreamBodyAndRateLimitBuyer() throws Exception {
+        BulkOrderResultDTO result = BulkOrderResultDTO.builder()
+                .id(9L)
+                .buyerEmail("bulk@example.com")
+                .totalValue(new BigDecimal("300.00"))
+                .itemCount(200)
+                .build();
+        when(bulkOrderService.placeOrder(any(), any())).thenAnswer(invocation -> {
+            Consumer<String> buyerCheck = invocation.getArgument(1);
+            buyerCheck.accept("bulk@example.com");
+            return result;
+        });
+
+        mockMvc.perform(post("/api/orders/bulk")
+                        .principal(() -> "integration-7")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"buyerEmail\":\"bulk@example.com\",\"items\":[]}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id", is(9)))
+                .andExpect(jsonPath("$.itemCount", is(200)));
+
+        verify(orderRateLimiter).check("bulk@example.com", "principal:integration-7");
+    }
+
+    @Test
+    void placeBulkOrder_WithBadLine_ShouldReturnBadRequest() throws Exception {
+        when(bulkOrderService.placeOrder(any(), any())).thenThrow(new IllegalArgumentException("Item 3: Quantity must be positive"));
+
+        mockMvc.perform(post("/api/orders/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", is("Item 3: Quantity must be positive")));
+    }
+
+    @Test
+    void placeBulkOrder_WhileOrdersAreSharded_ShouldReturnNotImplemented() throws Exception {
+        when(bulkOrderService.placeOrder(any(), any()))
+                .thenThrow(new FeatureUnavailableException("Bulk orders are not available while orders are sharded or partitioned"));
+
+        mockMvc.perform(post("/api/orders/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isNotImplemented())
+                .andExpect(jsonPath("$.message", is("Bulk orders are not available while orders are sharded or partitioned")));
+    }
 }
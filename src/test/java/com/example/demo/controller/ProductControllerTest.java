@@ -1,14 +1,22 @@
 package com.example.demo.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.demo.cache.JsonResponseCache;
+import com.example.demo.dto.PriceAdjustmentDTO;
+import com.example.demo.dto.PriceUpdateDTO;
 import com.example.demo.dto.ProductDTO;
+import com.example.demo.dto.ProductLookupDTO;
+import com.example.demo.dto.RepricingResultDTO;
+import com.example.demo.event.ProductChangedEvent;
 import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.service.ProductRepricingService;
 import com.example.demo.service.ProductService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -22,10 +30,12 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ProductController.class)
+@Import(JsonResponseCache.class)
 public class ProductControllerTest {
 
     @Autowired
@@ -34,14 +44,22 @@ public class ProductControllerTest {
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private ProductRepricingService productRepricingService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private JsonResponseCache jsonResponseCache;
+
     private ProductDTO productDTO;
     private List<ProductDTO> productDTOList;
 
     @BeforeEach
     void setUp() {
+        jsonResponseCache.clear();
+
         productDTO = ProductDTO.builder()
                 .id(1L)
                 .name("Test Product")
@@ -74,6 +92,35 @@ public class ProductControllerTest {
         verify(productService, times(1)).getAllProducts();
     }
 
+    @Test
+    void getAllProducts_ShouldServeCachedJsonUntilProductsChange() throws Exception {
+        when(productService.getAllProducts()).thenReturn(productDTOList, List.of(productDTO));
+
+        mockMvc.perform(get("/api/products")).andExpect(jsonPath("$", hasSize(2)));
+        mockMvc.perform(get("/api/products")).andExpect(jsonPath("$", hasSize(2)));
+        jsonResponseCache.onProductChanged(ProductChangedEvent.deleted(2L));
+        mockMvc.perform(get("/api/products")).andExpect(jsonPath("$", hasSize(1)));
+
+        verify(productService, times(2)).getAllProducts();
+    }
+
+    @Test
+    void getAllProducts_WithIds_ShouldReturnFoundAndMissing() throws Exception {
+        when(productService.getProductsByIds(List.of(1L, 9L))).thenReturn(ProductLookupDTO.builder()
+                .products(List.of(productDTO))
+                .missingIds(List.of(9L))
+                .build());
+
+        mockMvc.perform(get("/api/products").param("ids", "1,9"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products", hasSize(1)))
+                .andExpect(jsonPath("$.products[0].id", is(1)))
+                .andExpect(jsonPath("$.missingIds[0]", is(9)));
+
+        mockMvc.perform(get("/api/products").param("ids", "1").param("minPrice", "1.00"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getProductById_WithValidId_ShouldReturnProduct() throws Exception {
         when(productService.getProductById(1L)).thenReturn(productDTO);
@@ -173,4 +220,96 @@ public class ProductControllerTest {
 
         verify(productService, times(1)).deleteProduct(1L);
     }
+
+    @Test
+    void getProductsByPriceRange_ShouldReturnPageWithCursorHeaders() throws Exception {
+        when(productService.getProductsByPriceRange(new BigDecimal("10"), new BigDecimal("100"), null, null, 2))
+                .thenReturn(Arrays.asList(productDTOList.get(1), productDTO));
+
+        mockMvc.perform(get("/api/products")
+                        .param("minPrice", "10")
+                        .param("maxPrice", "100")
+                        .param("sort", "price")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is(2)))
+                .andExpect(jsonPath("$[1].id", is(1)))
+                .andExpect(header().string("X-Next-After-Price", "99.99"))
+                .andExpect(header().string("X-Next-After-Id", "1"));
+
+        verify(productService, never()).getAllProducts();
+    }
+
+    @Test
+    void getProductsByPriceRange_EndingOnProductWithoutPrice_ShouldContinueByIdOnly() throws Exception {
+        ProductDTO withoutPrice = ProductDTO.builder().id(7L).name("Unpriced Product").build();
+        when(productService.getProductsByPriceRange(null, null, null, null, 1)).thenReturn(List.of(withoutPrice));
+        when(productService.getProductsByPriceRange(null, null, null, 7L, 1)).thenReturn(List.of(productDTOList.get(1)));
+
+        mockMvc.perform(get("/api/products")
+                        .param("sort", "price")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(7)))
+                .andExpect(header().doesNotExist("X-Next-After-Price"))
+                .andExpect(header().string("X-Next-After-Id", "7"));
+
+        mockMvc.perform(get("/api/products")
+                        .param("sort", "price")
+                        .param("afterId", "7")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(2)))
+                .andExpect(header().string("X-Next-After-Price", "49.99"))
+                .andExpect(header().string("X-Next-After-Id", "2"));
+    }
+
+    @Test
+    void getProductsByPriceRange_WithUnsupportedSort_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/products").param("sort", "name"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    void setPrices_ShouldReturnUpdatedCount() throws Exception {
+        List<PriceUpdateDTO> prices = Arrays.asList(
+                PriceUpdateDTO.builder().id(1L).price(new BigDecimal("10.00")).build(),
+                PriceUpdateDTO.builder().id(2L).price(new BigDecimal("20.00")).build());
+        when(productRepricingService.setPrices(prices)).thenReturn(RepricingResultDTO.builder().updated(2).elapsedMillis(3).build());
+
+        mockMvc.perform(put("/api/products/prices")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(prices)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated", is(2)));
+
+        verify(productService, never()).updateProduct(any(), any());
+    }
+
+    @Test
+    void adjustPrices_ShouldReturnUpdatedCount() throws Exception {
+        PriceAdjustmentDTO adjustment = PriceAdjustmentDTO.builder().fromId(1L).toId(1000L).percent(new BigDecimal("5")).build();
+        when(productRepricingService.adjustPrices(adjustment)).thenReturn(RepricingResultDTO.builder().updated(1000).build());
+
+        mockMvc.perform(post("/api/products/prices/adjustments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(adjustment)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated", is(1000)));
+    }
+
+    @Test
+    void adjustPrices_WithPercentWipingOutPrices_ShouldReturnBadRequest() throws Exception {
+        PriceAdjustmentDTO adjustment = PriceAdjustmentDTO.builder().fromId(1L).toId(1000L).percent(new BigDecimal("-100")).build();
+
+        mockMvc.perform(post("/api/products/prices/adjustments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(adjustment)))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(productRepricingService);
+    }
 }
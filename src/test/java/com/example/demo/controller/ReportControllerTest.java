@@ -0,0 +1,82 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.RevenueReportDTO;
+import com.example.demo.exception.FeatureUnavailableException;
+import com.example.demo.service.RevenueReportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ReportController.class)
+public class ReportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private RevenueReportService revenueReportService;
+
+    @Test
+    void getRevenueReport_ShouldReturnReport() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2024, 1, 31, 23, 59, 59);
+        RevenueReportDTO report = RevenueReportDTO.builder()
+                .startDate(start)
+                .endDate(end)
+                .orderCount(1)
+                .units(2)
+                .revenue(new BigDecimal("20.00"))
+                .days(List.of(RevenueReportDTO.DailyRevenueDTO.builder()
+                        .date(LocalDate.of(2024, 1, 5)).orderCount(1).units(2).revenue(new BigDecimal("20.00")).build()))
+                .products(List.of(RevenueReportDTO.ProductRevenueDTO.builder()
+                        .productId(1L).productName("Test Product").units(2).revenue(new BigDecimal("20.00")).build()))
+                .build();
+        when(revenueReportService.getRevenueReport(start, end)).thenReturn(report);
+
+        mockMvc.perform(get("/api/reports/revenue")
+                        .param("startDate", "2024-01-01T00:00:00")
+                        .param("endDate", "2024-01-31T23:59:59"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orderCount", is(1)))
+                .andExpect(jsonPath("$.days", hasSize(1)))
+                .andExpect(jsonPath("$.products[0].productName", is("Test Product")));
+    }
+
+    @Test
+    void getRevenueReport_WithInvalidRange_ShouldReturnBadRequest() throws Exception {
+        when(revenueReportService.getRevenueReport(any(), any()))
+                .thenThrow(new IllegalArgumentException("startDate must not be after endDate"));
+
+        mockMvc.perform(get("/api/reports/revenue")
+                        .param("startDate", "2024-02-01T00:00:00")
+                        .param("endDate", "2024-01-01T00:00:00"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getRevenueReport_WhileOrdersArePartitioned_ShouldReturnNotImplemented() throws Exception {
+        when(revenueReportService.getRevenueReport(any(), any()))
+                .thenThrow(new FeatureUnavailableException("Revenue reports are not available while orders are sharded or partitioned"));
+
+        mockMvc.perform(get("/api/reports/revenue")
+                        .param("startDate", "2024-01-01T00:00:00")
+                        .param("endDate", "2024-01-31T23:59:59"))
+                .andExpect(status().isNotImplemented())
+                .andExpect(jsonPath("$.message", is("Revenue reports are not available while orders are sharded or partitioned")));
+    }
+}
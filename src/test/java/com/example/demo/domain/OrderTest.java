@@ -0,0 +1,57 @@
+package com.example.demo.domain;
+
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OrderTest {
+
+    @Test
+    void equals_ShouldCompareIds() {
+        Order order = Order.builder().id(1L).buyerEmail("a@example.com").build();
+        Order sameId = Order.builder().id(1L).buyerEmail("b@example.com").build();
+        Order otherId = Order.builder().id(2L).buyerEmail("a@example.com").build();
+
+        assertThat(order).isEqualTo(sameId).hasSameHashCodeAs(sameId).isNotEqualTo(otherId);
+        assertThat(new Order()).isNotEqualTo(new Order());
+    }
+
+    @Test
+    void hashCode_ShouldNotChangeWhenTheIdIsAssigned() {
+        Order order = new Order();
+        Set<Order> orders = new HashSet<>(Set.of(order));
+
+        order.setId(1L);
+
+        assertThat(orders).contains(order);
+    }
+
+    @Test
+    void equalsAndToString_ShouldNotFollowTheItems() {
+        Order order = Order.builder().id(1L).buyerEmail("a@example.com").items(new ArrayList<>()).build();
+        OrderItem item = OrderItem.builder().id(10L).productName("Pen").price(new BigDecimal("2.50")).quantity(2).build();
+        order.addItem(item);
+
+        assertThat(order.toString()).doesNotContain("items");
+        assertThat(item.toString()).doesNotContain("order=");
+        assertThat(item).isEqualTo(OrderItem.builder().id(10L).build()).isNotEqualTo(new OrderItem());
+        assertThat(order.hashCode()).isEqualTo(new Order().hashCode());
+        assertThat(item.hashCode()).isEqualTo(new OrderItem().hashCode());
+    }
+
+    @Test
+    void entities_ShouldBeEnhancedForDirtyTracking() {
+        Order order = new Order();
+        order.setBuyerEmail("a@example.com");
+
+        assertThat(order).isInstanceOf(SelfDirtinessTracker.class);
+        assertThat(OrderItem.builder().build()).isInstanceOf(SelfDirtinessTracker.class);
+        assertThat(((SelfDirtinessTracker) order).$$_hibernate_getDirtyAttributes()).contains("buyerEmail");
+    }
+}
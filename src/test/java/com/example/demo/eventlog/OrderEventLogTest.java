@@ -0,0 +1,101 @@
+package com.example.demo.eventlog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class OrderEventLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void read_ShouldReturnWholeRecordsAndNextOffset() throws IOException {
+        OrderEventLog log = new OrderEventLog(directory.toString(), 1024);
+        long end = log.append(records("{\"eventId\":1}", "{\"eventId\":2}", "{\"eventId\":3}"));
+
+        assertThat(end).isEqualTo(42);
+        OrderEventLog.Slice first = log.read(0, 20);
+        assertThat(text(first)).isEqualTo("{\"eventId\":1}\n");
+        assertThat(first.nextOffset()).isEqualTo(14);
+
+        OrderEventLog.Slice rest = log.read(first.nextOffset(), 1024);
+        assertThat(text(rest)).isEqualTo("{\"eventId\":2}\n{\"eventId\":3}\n");
+        assertThat(rest.nextOffset()).isEqualTo(42);
+
+        assertThat(log.read(42, 1024).length()).isZero();
+    }
+
+    @Test
+    void read_WithRecordLargerThanMaxBytes_ShouldReturnThatRecord() throws IOException {
+        OrderEventLog log = new OrderEventLog(directory.toString(), 1024);
+        log.append(records("{\"eventId\":1}", "{\"eventId\":2}"));
+
+        OrderEventLog.Slice slice = log.read(0, 3);
+
+        assertThat(text(slice)).isEqualTo("{\"eventId\":1}\n");
+    }
+
+    @Test
+    void append_ShouldRollSegmentsWithContinuousOffsets() throws IOException {
+        OrderEventLog log = new OrderEventLog(directory.toString(), 20);
+        log.append(records("{\"eventId\":1}", "{\"eventId\":2}"));
+        log.append(records("{\"eventId\":3}"));
+
+        assertThat(segmentFiles()).hasSize(2);
+        OrderEventLog.Slice first = log.read(0, 1024);
+        assertThat(first.nextOffset()).isEqualTo(28);
+        OrderEventLog.Slice second = log.read(first.nextOffset(), 1024);
+        assertThat(text(second)).isEqualTo("{\"eventId\":3}\n");
+        assertThat(second.nextOffset()).isEqualTo(log.getEndOffset());
+    }
+
+    @Test
+    void read_WithOffsetInsideRecordOrBeyondEnd_ShouldThrowException() throws IOException {
+        OrderEventLog log = new OrderEventLog(directory.toString(), 1024);
+        log.append(records("{\"eventId\":1}"));
+
+        assertThrows(IllegalArgumentException.class, () -> log.read(5, 1024));
+        assertThrows(IllegalArgumentException.class, () -> log.read(100, 1024));
+        assertThrows(IllegalArgumentException.class, () -> log.read(-1, 1024));
+    }
+
+    @Test
+    void open_ShouldTruncateTornRecordAndContinueOffsets() throws IOException {
+        OrderEventLog log = new OrderEventLog(directory.toString(), 1024);
+        log.append(records("{\"eventId\":1}"));
+        log.close();
+        Files.writeString(segmentFiles().get(0), "{\"event", StandardOpenOption.APPEND);
+
+        OrderEventLog reopened = new OrderEventLog(directory.toString(), 1024);
+
+        assertThat(reopened.getEndOffset()).isEqualTo(14);
+        assertThat(reopened.append(records("{\"eventId\":2}"))).isEqualTo(28);
+        assertThat(text(reopened.read(14, 1024))).isEqualTo("{\"eventId\":2}\n");
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static List<byte[]> records(String... json) {
+        return Stream.of(json).map(record -> record.getBytes(StandardCharsets.UTF_8)).toList();
+    }
+
+    private static String text(OrderEventLog.Slice slice) throws IOException {
+        byte[] bytes = Files.readAllBytes(slice.file());
+        return new String(bytes, (int) slice.position(), (int) slice.length(), StandardCharsets.UTF_8);
+    }
+}
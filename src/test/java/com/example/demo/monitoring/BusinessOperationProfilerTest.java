@@ -0,0 +1,121 @@
+package com.example.demo.monitoring;
+
+import com.example.demo.cache.MissingProductCache;
+import com.example.demo.cache.ProductCatalogSnapshot;
+import com.example.demo.cache.ProductPriceIndex;
+import com.example.demo.domain.Product;
+import com.example.demo.dto.ProductDTO;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.repository.ProductRepository;
+import com.example.demo.service.ProductService;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BusinessOperationProfilerTest {
+
+    private static final String EVENT_NAME = "com.example.demo.BusinessOperation";
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductPriceIndex productPriceIndex;
+
+    @Mock
+    private MissingProductCache missingProductCache;
+
+    @Mock
+    private ProductCatalogSnapshot productCatalogSnapshot;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ProductService productService;
+    private Recording recording;
+
+    @BeforeEach
+    void setUp() {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new ProductService(productRepository, productPriceIndex,
+                missingProductCache, productCatalogSnapshot, eventPublisher));
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new BusinessOperationProfiler());
+        productService = proxyFactory.getProxy();
+        recording = new Recording();
+        recording.enable(EVENT_NAME);
+    }
+
+    @AfterEach
+    void tearDown() {
+        recording.close();
+    }
+
+    @Test
+    void profile_ShouldRecordTheOperationWithItsSqlTime() throws IOException {
+        Product product = Product.builder().id(1L).name("Pen").price(new BigDecimal("2.50")).build();
+        when(productRepository.findById(1L)).thenAnswer(invocation -> {
+            BusinessOperationProfiler.recordStatement(Duration.ofMillis(3).toNanos());
+            BusinessOperationProfiler.recordStatement(Duration.ofMillis(2).toNanos());
+            return Optional.of(product);
+        });
+        when(productRepository.findById(2L)).thenReturn(Optional.empty());
+        when(productRepository.existsById(3L)).thenReturn(true);
+
+        recording.start();
+        ProductDTO found = productService.getProductById(1L);
+        assertThrows(ResourceNotFoundException.class, () -> productService.getProductById(2L));
+        productService.deleteProduct(3L);
+        // Outside any operation
+        BusinessOperationProfiler.recordStatement(1);
+        List<RecordedEvent> events = stopAndRead();
+
+        assertThat(found.getName()).isEqualTo("Pen");
+        assertThat(events).hasSize(2);
+        assertThat(events.get(0).getString("operation")).isEqualTo("ProductService.getProductById");
+        assertThat(events.get(0).getInt("sqlStatements")).isEqualTo(2);
+        assertThat(events.get(0).getDuration("sqlTime")).isEqualTo(Duration.ofMillis(5));
+        assertThat(events.get(0).getBoolean("failed")).isFalse();
+        assertThat(events.get(1).getBoolean("failed")).isTrue();
+    }
+
+    @Test
+    void profile_WithoutRecording_ShouldOnlyCallThrough() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(Product.builder().id(1L).build()));
+
+        assertThat(productService.getProductById(1L).getId()).isEqualTo(1L);
+    }
+
+    private List<RecordedEvent> stopAndRead() throws IOException {
+        recording.stop();
+        Path file = Files.createTempFile("profiler-test-", ".jfr");
+        try {
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().equals(EVENT_NAME))
+                    .toList();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo.monitoring;
+
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+import org.springframework.util.unit.DataSize;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ContinuousRecordingTest {
+
+    private ContinuousRecording continuousRecording;
+    private FlightRecordingEndpoint endpoint;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        continuousRecording = new ContinuousRecording("default", Duration.ofMinutes(5), DataSize.ofMegabytes(32));
+        continuousRecording.start();
+        endpoint = new FlightRecordingEndpoint(continuousRecording);
+    }
+
+    @AfterEach
+    void tearDown() {
+        continuousRecording.stop();
+    }
+
+    @Test
+    void dump_ShouldContainRecentEventsAndKeepRecording() throws Exception {
+        commitOperation("OrderService.createOrder");
+
+        Path first = continuousRecording.dump(Duration.ofMinutes(1));
+        commitOperation("OrderService.getOrderById");
+        Path second = continuousRecording.dump(Duration.ofMinutes(1));
+
+        try {
+            assertThat(operations(first)).contains("OrderService.createOrder").doesNotContain("OrderService.getOrderById");
+            assertThat(operations(second)).contains("OrderService.createOrder", "OrderService.getOrderById");
+        } finally {
+            Files.deleteIfExists(first);
+            Files.deleteIfExists(second);
+        }
+    }
+
+    @Test
+    void dump_ShouldLeaveOutEnvironmentAndSystemProperties() throws Exception {
+        Path file = continuousRecording.dump(Duration.ofMinutes(1));
+
+        try {
+            assertThat(RecordingFile.readAllEvents(file)).isNotEmpty()
+                    .extracting(event -> event.getEventType().getName())
+                    .doesNotContain("jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void endpoint_ShouldServeTheDumpAndDeleteItAfterwards() throws Exception {
+        commitOperation("ProductService.getProductById");
+
+        WebEndpointResponse<Resource> response = endpoint.dump(2);
+
+        assertThat(response.getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+        Path file = response.getBody().getFile().toPath();
+        try (InputStream in = response.getBody().getInputStream()) {
+            assertThat(in.readAllBytes()).startsWith('F', 'L', 'R', 0);
+        }
+        assertThat(file).doesNotExist();
+    }
+
+    @Test
+    void endpoint_ShouldRejectMinutesOutsideTheWindow() throws Exception {
+        assertThat(endpoint.dump(0).getStatus()).isEqualTo(WebEndpointResponse.STATUS_BAD_REQUEST);
+        assertThat(endpoint.dump(6).getStatus()).isEqualTo(WebEndpointResponse.STATUS_BAD_REQUEST);
+    }
+
+    private static void commitOperation(String operation) {
+        BusinessOperationEvent event = new BusinessOperationEvent();
+        event.begin();
+        event.operation = operation;
+        event.commit();
+    }
+
+    private static List<String> operations(Path file) throws Exception {
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals("com.example.demo.BusinessOperation"))
+                .map(event -> event.getString("operation"))
+                .toList();
+    }
+}
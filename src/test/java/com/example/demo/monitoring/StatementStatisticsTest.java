@@ -0,0 +1,112 @@
+package com.example.demo.monitoring;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class StatementStatisticsTest {
+
+    @Mock
+    private SlowQueryLogger slowQueryLogger;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private StatementStatistics statementStatistics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        statementStatistics = new StatementStatistics(meterRegistry, slowQueryLogger, 100, 2);
+    }
+
+    @Test
+    void normalize_ShouldCollapseLiteralsWhitespaceAndInLists() {
+        assertThat(SqlNormalizer.normalize("select *\n  from orders where id in (?, ?, ?) and buyer_email = 'a@b.com' and total_value > 10.5"))
+                .isEqualTo("select * from orders where id in (?...) and buyer_email = ? and total_value > ?");
+    }
+
+    @Test
+    void record_ShouldAggregateExecutionsOfTheSameStatementShape() {
+        statementStatistics.record("select * from products where id=1", TimeUnit.MILLISECONDS.toNanos(2), List.of());
+        statementStatistics.record("select * from products where id=2", TimeUnit.MILLISECONDS.toNanos(4), List.of());
+
+        Timer timer = meterRegistry.get(StatementStatistics.METRIC_NAME)
+                .tag("statement", "select * from products where id=?")
+                .timer();
+        assertThat(timer.count()).isEqualTo(2);
+        verify(slowQueryLogger, never()).submit(any());
+    }
+
+    @Test
+    void record_BeyondMaxStatements_ShouldFoldIntoOtherTag() {
+        statementStatistics.record("select 1 from products", 1_000, List.of());
+        statementStatistics.record("select 1 from orders", 1_000, List.of());
+        statementStatistics.record("select 1 from order_items", 1_000, List.of());
+
+        assertThat(meterRegistry.get(StatementStatistics.METRIC_NAME)
+                .tag("statement", StatementStatistics.OTHER_STATEMENTS)
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void record_OfSqlWithInlinedLiterals_ShouldNotGrowWithoutBound() {
+        for (int id = 0; id < 1_000; id++) {
+            statementStatistics.record("select * from products where id=" + id, 1_000, List.of());
+        }
+
+        assertThat(statementStatistics.cachedSqlCount()).isEqualTo(StatementStatistics.SQL_PER_STATEMENT);
+        assertThat(meterRegistry.get(StatementStatistics.METRIC_NAME)
+                .tag("statement", "select * from products where id=?")
+                .timer().count()).isEqualTo(1_000);
+        assertThat(meterRegistry.find(StatementStatistics.METRIC_NAME).timers()).hasSize(1);
+    }
+
+    @Test
+    void record_OfManyInListLengths_ShouldLeaveCacheRoomForOtherStatements() {
+        for (int arity = 2; arity <= 100; arity++) {
+            String in = String.join(", ", Collections.nCopies(arity, "?"));
+            statementStatistics.record("select * from products where id in (" + in + ")", 1_000, List.of());
+        }
+        statementStatistics.record("select * from orders where id=?", 1_000, List.of());
+        statementStatistics.record("select * from orders where id=?", 1_000, List.of());
+
+        assertThat(statementStatistics.cachedSqlCount()).isEqualTo(StatementStatistics.SQL_PER_STATEMENT + 1);
+    }
+
+    @Test
+    void record_SlowStatement_ShouldSubmitShapeAndParameterTypes() {
+        when(slowQueryLogger.sample()).thenReturn(true);
+
+        statementStatistics.record("select * from orders where order_time between ? and ?",
+                TimeUnit.MILLISECONDS.toNanos(250), List.of("Timestamp", "Timestamp"));
+
+        ArgumentCaptor<SlowQueryLogger.SlowStatement> captor = ArgumentCaptor.forClass(SlowQueryLogger.SlowStatement.class);
+        verify(slowQueryLogger).submit(captor.capture());
+        assertThat(captor.getValue().sql()).isEqualTo("select * from orders where order_time between ? and ?");
+        assertThat(captor.getValue().parameterTypes()).containsExactly("Timestamp", "Timestamp");
+        assertThat(captor.getValue().origin()).isEqualTo("unknown");
+    }
+
+    @Test
+    void record_SlowStatementNotSampled_ShouldNotBeSubmitted() {
+        when(slowQueryLogger.sample()).thenReturn(false);
+
+        statementStatistics.record("select 1", TimeUnit.SECONDS.toNanos(1), List.of());
+
+        verify(slowQueryLogger, never()).submit(any());
+    }
+}
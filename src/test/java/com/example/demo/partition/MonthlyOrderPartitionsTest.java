@@ -0,0 +1,139 @@
+package com.example.demo.partition;
+
+import com.example.demo.domain.Order;
+import com.example.demo.domain.OrderItem;
+import com.example.demo.dto.OrderDTO;
+import com.example.demo.dto.OrderSummaryDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class MonthlyOrderPartitionsTest {
+
+    private static final YearMonth JANUARY = YearMonth.of(2024, 1);
+    private static final YearMonth FEBRUARY = YearMonth.of(2024, 2);
+    private static final YearMonth MARCH = YearMonth.of(2024, 3);
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private MonthlyOrderPartitions partitions;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:partitions;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = spy(new JdbcTemplate(dataSource));
+        partitions = newPartitions();
+    }
+
+    @AfterEach
+    void tearDown() {
+        new JdbcTemplate(dataSource).execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void save_ShouldCreateMonthsOnDemandAndFindOrdersByIdTime() {
+        partitions.save(order("a@example.com", JANUARY.atDay(31).atTime(23, 59, 59), "2.00", 3));
+        partitions.save(order("b@example.com", FEBRUARY.atDay(1).atStartOfDay(), "1.00", 1));
+        Order order = partitions.save(order("c@example.com", LocalDateTime.now(), "2.00", 3));
+
+        assertThat(partitions.getPartitions()).contains(JANUARY, FEBRUARY, YearMonth.now(), YearMonth.now().plusMonths(1));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders_p202401", Long.class)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT orders_table FROM order_partitions WHERE month_start = DATE '2024-02-01'",
+                String.class)).isEqualTo("orders_p202402");
+        assertThat(newPartitions().getPartitions()).isEqualTo(partitions.getPartitions());
+
+        OrderDTO found = partitions.findById(order.getId()).orElseThrow();
+        assertThat(found.getTotalValue()).isEqualByComparingTo("6.00");
+        assertThat(found.getItems()).singleElement().satisfies(item -> assertThat(item.getPrice()).isEqualByComparingTo("6.00"));
+        Order other = partitions.save(order("d@example.com", LocalDateTime.now(), "1.00", 1));
+        assertThat(partitions.findByIds(List.of(order.getId(), other.getId(), order.getId() + 1_000)))
+                .extracting(OrderDTO::getId).containsExactlyInAnyOrder(order.getId(), other.getId());
+    }
+
+    @Test
+    void findBetween_ShouldOnlyReadOverlappingMonths() {
+        partitions.save(order("a@example.com", JANUARY.atDay(10).atTime(9, 0), "1.00", 1));
+        partitions.save(order("b@example.com", FEBRUARY.atDay(10).atTime(9, 0), "1.00", 1));
+        partitions.save(order("c@example.com", FEBRUARY.atDay(20).atTime(9, 0), "1.00", 1));
+        partitions.save(order("a@example.com", MARCH.atDay(10).atTime(9, 0), "1.00", 1));
+        clearInvocations(jdbcTemplate);
+
+        List<OrderDTO> orders = partitions.findBetween(JANUARY.atDay(15).atStartOfDay(), FEBRUARY.atDay(15).atStartOfDay());
+
+        assertThat(orders).extracting(OrderDTO::getBuyerEmail).containsExactly("b@example.com");
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(2)).query(sql.capture(), any(ResultSetExtractor.class), any(Object[].class));
+        assertThat(sql.getAllValues()).allMatch(statement -> !statement.contains("p202403"));
+        clearInvocations(jdbcTemplate);
+        assertThat(partitions.findSummariesBetween(JANUARY.atDay(1).atStartOfDay(), FEBRUARY.atDay(15).atStartOfDay()))
+                .extracting(OrderSummaryDTO::getBuyerEmail).containsExactly("a@example.com", "b@example.com");
+        verify(jdbcTemplate, times(2)).query(sql.capture(), any(RowMapper.class), any(Object[].class));
+        assertThat(sql.getValue()).doesNotContain("order_items");
+        assertThat(partitions.findAll()).extracting(OrderDTO::getOrderTime).isSorted();
+        assertThat(partitions.findByBuyer("A@example.com")).hasSize(2);
+    }
+
+    @Test
+    void dropPartition_ShouldRemoveTheWholeMonth() {
+        Order january = partitions.save(order("a@example.com", JANUARY.atDay(10).atTime(9, 0), "1.00", 1));
+        partitions.save(order("b@example.com", FEBRUARY.atDay(10).atTime(9, 0), "1.00", 1));
+
+        assertThat(partitions.getPartitionsEndingBefore(FEBRUARY.atDay(1).atStartOfDay())).containsExactly(JANUARY);
+        assertThat(partitions.findChunk(JANUARY, 0, 10)).extracting(OrderDTO::getId).containsExactly(january.getId());
+        clearInvocations(jdbcTemplate);
+
+        partitions.dropPartition(JANUARY);
+
+        verify(jdbcTemplate, never()).update(startsWith("DELETE FROM orders"), any(Object[].class));
+        assertThat(partitions.getPartitions()).doesNotContain(JANUARY);
+        assertThat(partitions.findById(january.getId())).isEmpty();
+        assertThat(partitions.findAll()).extracting(OrderDTO::getBuyerEmail).containsExactly("b@example.com");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.tables " +
+                "WHERE LOWER(table_name) LIKE '%p202401'", Long.class)).isZero();
+    }
+
+    @Test
+    void disabled_ShouldCreateNothing() {
+        clearInvocations(jdbcTemplate);
+        MonthlyOrderPartitions disabled = new MonthlyOrderPartitions(jdbcTemplate, new DataSourceTransactionManager(dataSource), false);
+
+        disabled.createUpcomingPartitions();
+
+        assertThat(disabled.isEnabled()).isFalse();
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    private MonthlyOrderPartitions newPartitions() {
+        return new MonthlyOrderPartitions(jdbcTemplate, new DataSourceTransactionManager(dataSource), true);
+    }
+
+    private static Order order(String buyerEmail, LocalDateTime orderTime, String unitPrice, int quantity) {
+        Order order = new Order();
+        order.setBuyerEmail(buyerEmail);
+        order.setOrderTime(orderTime);
+        order.addItem(OrderItem.builder()
+                .productId(1L)
+                .productName("Pen")
+                .price(new BigDecimal(unitPrice))
+                .quantity(quantity)
+                .build());
+        order.calculateTotalValue();
+        return order;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.demo.ratelimit;
+
+import com.example.demo.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class OrderRateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void check_ShouldThrottleBuyerRegardlessOfEmailCaseAndCountIt() {
+        OrderRateLimiter limiter = new OrderRateLimiter(true, 0.001, 2, 1000, 1000, 100, 4, 60_000, meterRegistry);
+
+        limiter.check("buyer@example.com", "client-1");
+        limiter.check("Buyer@Example.com", "client-2");
+        RateLimitExceededException ex = assertThrows(RateLimitExceededException.class,
+                () -> limiter.check("BUYER@example.com", "client-3"));
+
+        assertThat(ex.getRetryAfterSeconds()).isPositive();
+        assertThat(meterRegistry.get("demo.orders.throttled").tag("scope", "buyer").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("demo.orders.throttled").tag("scope", "client").counter().count()).isZero();
+    }
+
+    @Test
+    void check_ShouldThrottleClientAcrossBuyers() {
+        OrderRateLimiter limiter = new OrderRateLimiter(true, 1000, 1000, 0.001, 1, 100, 4, 60_000, meterRegistry);
+
+        limiter.check("a@example.com", "client-1");
+        assertThrows(RateLimitExceededException.class, () -> limiter.check("b@example.com", "client-1"));
+
+        assertThat(meterRegistry.get("demo.orders.throttled").tag("scope", "client").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void check_RefusedForTheBuyer_ShouldNotUseUpTheClientsPermit() {
+        OrderRateLimiter limiter = new OrderRateLimiter(true, 0.001, 1, 0.001, 2, 100, 4, 60_000, meterRegistry);
+
+        limiter.check("a@example.com", "client-1");
+        for (int i = 0; i < 5; i++) {
+            assertThrows(RateLimitExceededException.class, () -> limiter.check("a@example.com", "client-1"));
+        }
+        limiter.check("b@example.com", "client-1");
+
+        assertThat(meterRegistry.get("demo.orders.throttled").tag("scope", "client").counter().count()).isZero();
+    }
+
+    @Test
+    void check_WhenDisabled_ShouldNeverThrottle() {
+        OrderRateLimiter limiter = new OrderRateLimiter(false, 0.001, 1, 0.001, 1, 100, 4, 60_000, meterRegistry);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.check("a@example.com", "client-1");
+        }
+    }
+}
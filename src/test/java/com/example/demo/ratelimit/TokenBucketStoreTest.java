@@ -0,0 +1,73 @@
+package com.example.demo.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TokenBucketStoreTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void tryAcquire_ShouldAllowBurstThenThrottleUntilRefill() {
+        TokenBucketStore store = new TokenBucketStore(2, 3, 100, 4, 60_000);
+        long now = 10 * SECOND;
+
+        assertThat(store.tryAcquire("a", now)).isZero();
+        assertThat(store.tryAcquire("a", now)).isZero();
+        assertThat(store.tryAcquire("a", now)).isZero();
+        long wait = store.tryAcquire("a", now);
+
+        assertThat(wait).isEqualTo(SECOND / 2);
+        assertThat(store.tryAcquire("a", now + wait)).isZero();
+        assertThat(store.tryAcquire("a", now + wait)).isPositive();
+    }
+
+    @Test
+    void tryAcquire_ShouldKeepKeysIndependent() {
+        TokenBucketStore store = new TokenBucketStore(1, 1, 100, 4, 60_000);
+
+        assertThat(store.tryAcquire("a", SECOND)).isZero();
+        assertThat(store.tryAcquire("a", SECOND)).isPositive();
+        assertThat(store.tryAcquire("b", SECOND)).isZero();
+    }
+
+    @Test
+    void tryAcquire_WhenFull_ShouldEvictIdleBucketsOrElseTheFullestAndKeepThrottling() {
+        TokenBucketStore store = new TokenBucketStore(1, 1, 2, 1, 1_000);
+
+        store.tryAcquire("a", SECOND);
+        store.tryAcquire("b", SECOND / 2 * 3);
+        // Both buckets are still busy: "a", the one closest to full, makes room and the new key is tracked
+        assertThat(store.tryAcquire("c", SECOND / 2 * 3)).isZero();
+        assertThat(store.tryAcquire("c", SECOND / 2 * 3)).isPositive();
+        assertThat(store.tryAcquire("b", SECOND / 2 * 3)).isPositive();
+        assertThat(store.getOverflows()).isEqualTo(1);
+        assertThat(store.size()).isEqualTo(2);
+
+        // Long after refilling, the idle buckets make room for new keys
+        assertThat(store.tryAcquire("d", 10 * SECOND)).isZero();
+        assertThat(store.tryAcquire("d", 10 * SECOND)).isPositive();
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(store.getOverflows()).isEqualTo(1);
+    }
+
+    @Test
+    void release_ShouldGiveBackTheTakenPermit() {
+        TokenBucketStore store = new TokenBucketStore(1, 1, 100, 4, 60_000);
+
+        assertThat(store.tryAcquire("a", SECOND)).isZero();
+        store.release("a");
+
+        assertThat(store.tryAcquire("a", SECOND)).isZero();
+        assertThat(store.tryAcquire("a", SECOND)).isPositive();
+    }
+
+    @Test
+    void constructor_WithNonPositiveRate_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketStore(0, 1, 10, 1, 1_000));
+    }
+}
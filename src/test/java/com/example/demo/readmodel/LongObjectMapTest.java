@@ -0,0 +1,57 @@
+package com.example.demo.readmodel;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LongObjectMapTest {
+
+    @Test
+    void putGetRemove_ShouldBehaveLikeHashMapThroughResizesAndDeletes() {
+        LongObjectMap<String> map = new LongObjectMap<>(4);
+        Map<Long, String> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            // A small key space makes collisions, overwrites and removals of present keys common
+            long key = 1 + random.nextInt(3_000);
+            if (random.nextInt(3) == 0) {
+                assertThat(map.remove(key)).isEqualTo(expected.remove(key));
+            } else {
+                String value = "v" + i;
+                assertThat(map.put(key, value)).isEqualTo(expected.put(key, value));
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (long key = 1; key <= 3_000; key++) {
+            assertThat(map.get(key)).isEqualTo(expected.get(key));
+        }
+    }
+
+    @Test
+    void put_WithNegativeAndExtremeKeys_ShouldStoreThem() {
+        LongObjectMap<String> map = new LongObjectMap<>(16);
+
+        map.put(Long.MIN_VALUE, "min");
+        map.put(Long.MAX_VALUE, "max");
+        map.put(-1L, "minus one");
+
+        assertThat(map.get(Long.MIN_VALUE)).isEqualTo("min");
+        assertThat(map.get(Long.MAX_VALUE)).isEqualTo("max");
+        assertThat(map.get(-1L)).isEqualTo("minus one");
+        assertThat(map.get(1L)).isNull();
+    }
+
+    @Test
+    void put_WithReservedKey_ShouldThrowException() {
+        LongObjectMap<String> map = new LongObjectMap<>(16);
+
+        assertThrows(IllegalArgumentException.class, () -> map.put(0L, "zero"));
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.demo.readmodel;
+
+import com.example.demo.domain.Order;
+import com.example.demo.domain.OrderItem;
+import com.example.demo.dto.OrderDTO;
+import com.example.demo.event.OrderPlacedEvent;
+import com.example.demo.repository.OrderRepository;
+import com.example.demo.repository.OrderStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderReadModelTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Test
+    void load_ShouldServeOrdersByIdAndTimeWithoutLosingFields() {
+        OrderReadModel model = loadedModel(Long.MAX_VALUE, order(1, 0), order(2, 1), order(3, 2));
+
+        OrderDTO found = model.find(2L).orElseThrow();
+
+        assertThat(found.getBuyerEmail()).isEqualTo("buyer2@example.com");
+        assertThat(found.getOrderTime()).isEqualTo(BASE.plusHours(1).withNano(123_456_789));
+        assertThat(found.getTotalValue()).isEqualByComparingTo("20.00");
+        assertThat(found.getItems()).hasSize(1);
+        // Same shape as the database path, where item prices are line totals
+        assertThat(found.getItems().get(0).getPrice()).isEqualTo(new BigDecimal("20.00"));
+        assertThat(found.getItems().get(0).getQuantity()).isEqualTo(2);
+        assertThat(model.findBetween(BASE.minusDays(1), BASE.plusHours(1).withNano(123_456_789)))
+                .hasValueSatisfying(orders -> assertThat(orders).extracting(OrderDTO::getId).containsExactly(1L, 2L));
+        assertThat(model.find(99L)).isEmpty();
+    }
+
+    @Test
+    void load_BeyondBudget_ShouldKeepNewestOrdersAndOnlyAnswerRangesInsideTheWindow() {
+        long twoOrders = 2 * footprint(order(1, 0));
+        OrderReadModel model = loadedModel(twoOrders, order(1, 0), order(2, 1), order(3, 2));
+
+        assertThat(model.size()).isEqualTo(2);
+        assertThat(model.find(1L)).isEmpty();
+        assertThat(model.findBetween(BASE, BASE.plusDays(1))).isEmpty();
+        assertThat(model.findBetween(BASE.plusMinutes(1), BASE.plusDays(1)))
+                .hasValueSatisfying(orders -> assertThat(orders).extracting(OrderDTO::getId).containsExactly(2L, 3L));
+    }
+
+    @Test
+    void onOrderPlaced_BeyondBudget_ShouldEvictOldestAndMoveWindow() {
+        long twoOrders = 2 * footprint(order(1, 0));
+        OrderReadModel model = loadedModel(twoOrders, order(1, 0), order(2, 1));
+
+        model.onOrderPlaced(new OrderPlacedEvent(dto(order(3, 2))));
+
+        assertThat(model.find(1L)).isEmpty();
+        assertThat(model.find(3L)).isPresent();
+        assertThat(model.getResidentBytes()).isLessThanOrEqualTo(twoOrders);
+        assertThat(model.findBetween(BASE, BASE.plusDays(1))).isEmpty();
+        assertThat(model.findBetween(BASE.plusMinutes(1), BASE.plusDays(1))).isPresent();
+    }
+
+    @Test
+    void onOrderPlaced_WithoutItems_ShouldLeaveAHoleAndKeepResidentOrders() {
+        OrderReadModel model = loadedModel(Long.MAX_VALUE, order(1, 0), order(2, 2));
+        OrderDTO bulk = dto(order(3, 1));
+        bulk.setItems(null);
+
+        model.onOrderPlaced(new OrderPlacedEvent(bulk));
+
+        assertThat(model.find(3L)).isEmpty();
+        assertThat(model.find(1L)).isPresent();
+        assertThat(model.find(2L)).isPresent();
+        assertThat(model.size()).isEqualTo(2);
+        assertThat(model.findBetween(BASE, BASE.plusDays(1))).isEmpty();
+        assertThat(model.findBetween(BASE, BASE.plusMinutes(30)))
+                .hasValueSatisfying(orders -> assertThat(orders).extracting(OrderDTO::getId).containsExactly(1L));
+        assertThat(model.findBetween(BASE.plusHours(2), BASE.plusDays(1)))
+                .hasValueSatisfying(orders -> assertThat(orders).extracting(OrderDTO::getId).containsExactly(2L));
+    }
+
+    @Test
+    void onOrderPlaced_BeyondBudget_ShouldMoveTheWindowPastAHole() {
+        long twoOrders = 2 * footprint(order(1, 0));
+        OrderReadModel model = loadedModel(twoOrders, order(1, 0), order(2, 2));
+        OrderDTO bulk = dto(order(3, 1));
+        bulk.setItems(null);
+        model.onOrderPlaced(new OrderPlacedEvent(bulk));
+
+        model.onOrderPlaced(new OrderPlacedEvent(dto(order(4, 3))));
+        model.onOrderPlaced(new OrderPlacedEvent(dto(order(5, 4))));
+
+        assertThat(model.findBetween(BASE.plusHours(1), BASE.plusDays(1))).isEmpty();
+        assertThat(model.findBetween(BASE.plusHours(3), BASE.plusDays(1)))
+                .hasValueSatisfying(orders -> assertThat(orders).extracting(OrderDTO::getId).containsExactly(4L, 5L));
+    }
+
+    @Test
+    void find_BeforeLoadOrWhenDisabled_ShouldDeferToDatabase() {
+        OrderReadModel model = new OrderReadModel(orderRepository, List.of(), false, Long.MAX_VALUE, 10, new SimpleMeterRegistry());
+
+        model.load();
+        model.onOrderPlaced(new OrderPlacedEvent(dto(order(1, 0))));
+
+        assertThat(model.find(1L)).isEmpty();
+        assertThat(model.findBetween(BASE, BASE.plusDays(1))).isEmpty();
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void new_WhileOrdersArePartitioned_ShouldRefuseToEnable() {
+        OrderStore partitions = mock(OrderStore.class);
+        when(partitions.isEnabled()).thenReturn(true);
+
+        assertThrows(IllegalStateException.class, () -> new OrderReadModel(orderRepository, List.of(partitions),
+                true, Long.MAX_VALUE, 10, new SimpleMeterRegistry()));
+        new OrderReadModel(orderRepository, List.of(partitions), false, Long.MAX_VALUE, 10, new SimpleMeterRegistry());
+    }
+
+    private OrderReadModel loadedModel(long maxBytes, Order... orders) {
+        List<Long> newestFirst = new ArrayList<>();
+        Arrays.stream(orders).forEach(order -> newestFirst.add(0, order.getId()));
+        when(orderRepository.findIdsPlacedBeforeNewestFirst(any(), any(), any()))
+                .thenReturn(newestFirst, Collections.emptyList());
+        when(orderRepository.findAllWithItemsByIdIn(newestFirst)).thenReturn(new ArrayList<>(Arrays.asList(orders)));
+        OrderReadModel model = new OrderReadModel(orderRepository, List.of(), true, maxBytes, 10, new SimpleMeterRegistry());
+        model.load();
+        assertThat(model.isReady()).isTrue();
+        return model;
+    }
+
+    private static long footprint(Order order) {
+        return OrderReadModel.encode(dto(order)).length + OrderReadModel.ENTRY_OVERHEAD_BYTES;
+    }
+
+    private static Order order(long id, int hoursAfterBase) {
+        Order order = new Order();
+        order.setId(id);
+        order.setBuyerEmail("buyer" + id + "@example.com");
+        order.setOrderTime(BASE.plusHours(hoursAfterBase).withNano(123_456_789));
+        order.addItem(OrderItem.builder()
+                .id(id * 10)
+                .productId(5L)
+                .productName("Product 5")
+                .price(new BigDecimal("10.00"))
+                .quantity(2)
+                .build());
+        order.setTotalValue(new BigDecimal("20.00"));
+        return order;
+    }
+
+    private static OrderDTO dto(Order order) {
+        return OrderDTO.builder()
+                .id(order.getId())
+                .buyerEmail(order.getBuyerEmail())
+                .orderTime(order.getOrderTime())
+                .totalValue(order.getTotalValue())
+                .items(Collections.singletonList(OrderDTO.OrderItemDTO.builder()
+                        .id(order.getItems().get(0).getId())
+                        .productId(5L)
+                        .productName("Product 5")
+                        .price(new BigDecimal("20.00"))
+                        .quantity(2)
+                        .build()))
+                .build();
+    }
+}
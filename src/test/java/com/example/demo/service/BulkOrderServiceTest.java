@@ -0,0 +1,145 @@
+package com.example.demo.service;
+
+import com.example.demo.cache.MissingProductCache;
+import com.example.demo.domain.Order;
+import com.example.demo.dto.BulkOrderResultDTO;
+import com.example.demo.event.OrderPlacedEvent;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class BulkOrderServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private ValidatorFactory validatorFactory;
+    private MissingProductCache missingProductCache;
+    private CustomerSummaryService customerSummaryService;
+    private ApplicationEventPublisher eventPublisher;
+    private BulkOrderService bulkOrderService;
+    private final List<String> checkedBuyers = new ArrayList<>();
+    private final Consumer<String> buyerCheck = checkedBuyers::add;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:bulk;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE products(id BIGINT PRIMARY KEY, name VARCHAR(255), price NUMERIC(38, 2))");
+        jdbcTemplate.execute("CREATE TABLE orders(id BIGINT AUTO_INCREMENT PRIMARY KEY, buyer_email VARCHAR(255), " +
+                "normalized_buyer_email VARCHAR(255), order_time TIMESTAMP, total_value NUMERIC(38, 2))");
+        jdbcTemplate.execute("CREATE TABLE order_items(id BIGINT AUTO_INCREMENT PRIMARY KEY, order_id BIGINT, product_id BIGINT, " +
+                "product_name VARCHAR(255), price NUMERIC(38, 2), quantity INT)");
+        jdbcTemplate.update("INSERT INTO products VALUES (1, 'Pen', 1.50), (2, 'Notebook', 4.00), (3, 'Stapler', 12.25)");
+
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        missingProductCache = new MissingProductCache(100);
+        customerSummaryService = mock(CustomerSummaryService.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        // Batches of two, so that a handful of lines already spans several batches
+        bulkOrderService = new BulkOrderService(new ObjectMapper(), validatorFactory.getValidator(), jdbcTemplate,
+                new DataSourceTransactionManager(dataSource), missingProductCache, customerSummaryService, eventPublisher,
+                List.of(), 2, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+        jdbcTemplate.execute("DROP TABLE order_items");
+        jdbcTemplate.execute("DROP TABLE orders");
+        jdbcTemplate.execute("DROP TABLE products");
+    }
+
+    @Test
+    void placeOrder_ShouldWriteEveryLineAcrossBatches() throws IOException {
+        BulkOrderResultDTO result = place("{\"buyerEmail\":\"Bulk@Example.com\",\"note\":{\"skipped\":[1,2]},\"items\":[" +
+                "{\"productId\":1,\"quantity\":4},{\"productId\":2,\"quantity\":1},{\"productId\":1,\"quantity\":2}," +
+                "{\"productId\":3,\"quantity\":1},{\"productId\":2,\"quantity\":3}]}");
+
+        assertThat(result.getItemCount()).isEqualTo(5);
+        assertThat(result.getTotalValue()).isEqualByComparingTo("37.25");
+        assertThat(checkedBuyers).containsExactly("Bulk@Example.com");
+        assertThat(jdbcTemplate.queryForObject("SELECT total_value FROM orders WHERE id = ?", BigDecimal.class, result.getId()))
+                .isEqualByComparingTo("37.25");
+        assertThat(jdbcTemplate.queryForObject("SELECT normalized_buyer_email FROM orders", String.class))
+                .isEqualTo("bulk@example.com");
+        assertThat(jdbcTemplate.queryForList("SELECT product_name FROM order_items ORDER BY id", String.class))
+                .containsExactly("Pen", "Notebook", "Pen", "Stapler", "Notebook");
+
+        ArgumentCaptor<OrderPlacedEvent> event = ArgumentCaptor.forClass(OrderPlacedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().order().getId()).isEqualTo(result.getId());
+        assertThat(event.getValue().order().getItems()).isNull();
+        verify(customerSummaryService).recordOrder(any(Order.class));
+    }
+
+    @Test
+    void placeOrder_WithInvalidLine_ShouldNameItAndKeepNothing() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> place(
+                "{\"buyerEmail\":\"bulk@example.com\",\"items\":[{\"productId\":1,\"quantity\":1},{\"productId\":2,\"quantity\":1}," +
+                        "{\"productId\":1,\"quantity\":1},{\"productId\":2,\"quantity\":0},{\"productId\":1,\"quantity\":1}]}"));
+
+        assertThat(e.getMessage()).isEqualTo("Item 4: Quantity must be positive");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Long.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_items", Long.class)).isZero();
+        verifyNoInteractions(customerSummaryService, eventPublisher);
+    }
+
+    @Test
+    void placeOrder_WithMissingProduct_ShouldRememberItAndKeepNothing() {
+        String json = "{\"buyerEmail\":\"bulk@example.com\",\"items\":[{\"productId\":1,\"quantity\":1},{\"productId\":99,\"quantity\":1}]}";
+
+        ResourceNotFoundException e = assertThrows(ResourceNotFoundException.class, () -> place(json));
+
+        assertThat(e.getMessage()).isEqualTo("Product not found with id: 99 (item 2)");
+        assertThat(missingProductCache.isMissing(99L)).isTrue();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_items", Long.class)).isZero();
+    }
+
+    @Test
+    void placeOrder_WithItemsBeforeBuyer_ShouldBeRejected() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> place(
+                "{\"items\":[{\"productId\":1,\"quantity\":1}],\"buyerEmail\":\"bulk@example.com\"}"));
+
+        assertThat(e.getMessage()).isEqualTo("buyerEmail must come before items");
+        assertThat(checkedBuyers).isEmpty();
+    }
+
+    @Test
+    void placeOrder_WithMalformedJsonOrTooManyLines_ShouldBeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> place("{\"buyerEmail\":\"bulk@example.com\",\"items\":[{\"productId\":1,"));
+
+        StringBuilder json = new StringBuilder("{\"buyerEmail\":\"bulk@example.com\",\"items\":[");
+        for (int i = 0; i < 11; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"productId\":1,\"quantity\":1}");
+        }
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> place(json + "]}"));
+
+        assertThat(e.getMessage()).isEqualTo("At most 10 items are allowed per order");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Long.class)).isZero();
+    }
+
+    private BulkOrderResultDTO place(String json) throws IOException {
+        return bulkOrderService.placeOrder(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), buyerCheck);
+    }
+}
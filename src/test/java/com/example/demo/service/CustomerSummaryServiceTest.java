@@ -0,0 +1,153 @@
+package com.example.demo.service;
+
+import com.example.demo.domain.CustomerSummary;
+import com.example.demo.domain.Order;
+import com.example.demo.dto.CustomerSummaryDTO;
+import com.example.demo.dto.OrderDTO;
+import com.example.demo.event.OrderPlacedEvent;
+import com.example.demo.repository.CustomerSummaryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CustomerSummaryServiceTest {
+
+    @Mock
+    private CustomerSummaryRepository customerSummaryRepository;
+
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+    private CustomerSummaryService customerSummaryService;
+
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:summaries;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate.execute("CREATE TABLE customer_summaries(buyer_email VARCHAR(255) PRIMARY KEY, order_count BIGINT NOT NULL, " +
+                "lifetime_value NUMERIC(38, 2), last_order_time TIMESTAMP(6))");
+        jdbcTemplate.execute("CREATE TABLE orders(id BIGINT PRIMARY KEY, buyer_email VARCHAR(255) NOT NULL, " +
+                "normalized_buyer_email VARCHAR(255), order_time TIMESTAMP(6), total_value NUMERIC(38, 2))");
+        customerSummaryService = new CustomerSummaryService(customerSummaryRepository, jdbcTemplate, transactionManager, 100);
+
+        order = new Order();
+        order.setId(1L);
+        order.setBuyerEmail("Test@Example.com");
+        order.setOrderTime(LocalDateTime.of(2024, 3, 1, 12, 0));
+        order.setTotalValue(new BigDecimal("199.98"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void recordOrder_ShouldCreateSummaryAndThenIncrementInPlace() {
+        LocalDateTime first = order.getOrderTime();
+        customerSummaryService.recordOrder(order);
+        order.setOrderTime(first.minusDays(1));
+        order.setTotalValue(new BigDecimal("0.02"));
+        customerSummaryService.recordOrder(order);
+
+        assertThat(summary("test@example.com")).containsEntry("ORDER_COUNT", 2L)
+                .containsEntry("LIFETIME_VALUE", new BigDecimal("200.00"))
+                .containsEntry("LAST_ORDER_TIME", Timestamp.valueOf(first));
+    }
+
+    @Test
+    void recordOrder_RacingWithTheBuyersFirstOrder_ShouldRetryAsIncrement() {
+        JdbcTemplate racing = spy(jdbcTemplate);
+        doAnswer(invocation -> {
+            // Another transaction inserts the buyer's summary right after this MERGE found none
+            jdbcTemplate.update("INSERT INTO customer_summaries VALUES ('test@example.com', 1, 1.00, NULL)");
+            throw new DuplicateKeyException("Unique index or primary key violation");
+        }).doCallRealMethod().when(racing).update(anyString(), any(Object[].class));
+        customerSummaryService = new CustomerSummaryService(customerSummaryRepository, racing, transactionManager, 100);
+
+        customerSummaryService.recordOrder(order);
+
+        assertThat(summary("test@example.com")).containsEntry("ORDER_COUNT", 2L)
+                .containsEntry("LIFETIME_VALUE", new BigDecimal("200.98"));
+    }
+
+    @Test
+    void afterSingletonsInstantiated_ShouldCountOrdersStoredBeforeNormalizationOnce() {
+        LocalDateTime time = LocalDateTime.of(2024, 1, 1, 12, 0);
+        customerSummaryService.recordOrder(order);
+        storedOrder(1, "test@example.com", null, time, "10.00");
+        storedOrder(2, " TEST@example.com", null, time.plusDays(1), "5.00");
+        storedOrder(3, "other@example.com", null, time, "1.50");
+        storedOrder(4, "test@example.com", "test@example.com", time, "7.00");
+
+        customerSummaryService.afterSingletonsInstantiated();
+        customerSummaryService.afterSingletonsInstantiated();
+
+        assertThat(summary("test@example.com")).containsEntry("ORDER_COUNT", 3L)
+                .containsEntry("LIFETIME_VALUE", new BigDecimal("214.98"))
+                .containsEntry("LAST_ORDER_TIME", Timestamp.valueOf(order.getOrderTime()));
+        assertThat(summary("other@example.com")).containsEntry("ORDER_COUNT", 1L)
+                .containsEntry("LAST_ORDER_TIME", Timestamp.valueOf(time));
+        assertThat(jdbcTemplate.queryForList("SELECT DISTINCT normalized_buyer_email FROM orders ORDER BY 1", String.class))
+                .containsExactly("other@example.com", "test@example.com");
+    }
+
+    @Test
+    void getSummary_ShouldServeRepeatedReadsFromCacheUntilNextOrder() {
+        when(customerSummaryRepository.findById("test@example.com")).thenReturn(Optional.of(CustomerSummary.builder()
+                .buyerEmail("test@example.com")
+                .orderCount(2)
+                .lifetimeValue(new BigDecimal("10.00"))
+                .build()));
+
+        CustomerSummaryDTO first = customerSummaryService.getSummary("test@example.com");
+        CustomerSummaryDTO second = customerSummaryService.getSummary("TEST@example.com");
+        customerSummaryService.onOrderPlaced(new OrderPlacedEvent(OrderDTO.builder().buyerEmail("test@example.com").build()));
+        customerSummaryService.getSummary("test@example.com");
+
+        assertThat(first.getOrderCount()).isEqualTo(2);
+        assertThat(second).isSameAs(first);
+        verify(customerSummaryRepository, times(2)).findById("test@example.com");
+    }
+
+    @Test
+    void getSummary_ForUnknownBuyer_ShouldReturnEmptySummary() {
+        when(customerSummaryRepository.findById("nobody@example.com")).thenReturn(Optional.empty());
+
+        CustomerSummaryDTO result = customerSummaryService.getSummary("nobody@example.com");
+
+        assertThat(result.getOrderCount()).isZero();
+        assertThat(result.getLifetimeValue()).isEqualTo(BigDecimal.ZERO);
+        assertThat(result.getLastOrderTime()).isNull();
+    }
+
+    private Map<String, Object> summary(String buyerEmail) {
+        return jdbcTemplate.queryForMap("SELECT * FROM customer_summaries WHERE buyer_email = ?", buyerEmail);
+    }
+
+    private void storedOrder(long id, String buyerEmail, String normalizedBuyerEmail, LocalDateTime orderTime, String totalValue) {
+        jdbcTemplate.update("INSERT INTO orders VALUES (?, ?, ?, ?, ?)", id, buyerEmail, normalizedBuyerEmail,
+                Timestamp.valueOf(orderTime), new BigDecimal(totalValue));
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.demo.service;
+
+import com.example.demo.archive.OrderArchive;
+import com.example.demo.domain.Order;
+import com.example.demo.domain.OrderItem;
+import com.example.demo.dto.OrderDTO;
+import com.example.demo.partition.MonthlyOrderPartitions;
+import com.example.demo.repository.OrderRepository;
+import com.example.demo.shard.OrderShardRouter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class OrderArchiverTest {
+
+    private static final YearMonth JANUARY = YearMonth.of(2024, 1);
+
+    @TempDir
+    Path directory;
+
+    private DriverManagerDataSource dataSource;
+    private MonthlyOrderPartitions partitions;
+    private OrderArchive archive;
+    private OrderArchiver archiver;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:archiver;DB_CLOSE_DELAY=-1", "sa", "");
+        partitions = spy(new MonthlyOrderPartitions(new JdbcTemplate(dataSource), new DataSourceTransactionManager(dataSource), true));
+        archive = new OrderArchive(directory.toString(), new ObjectMapper().findAndRegisterModules(), 2, 1024 * 1024);
+        archiver = new OrderArchiver(mock(OrderRepository.class), archive, partitions, mock(OrderShardRouter.class),
+                new DataSourceTransactionManager(dataSource), Duration.ofDays(365), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        new JdbcTemplate(dataSource).execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void archiveOrdersPlacedBefore_AfterAFailedDrop_ShouldResumeWithoutDuplicates() {
+        List<Long> ids = new ArrayList<>();
+        for (int day = 1; day <= 5; day++) {
+            ids.add(partitions.save(order(JANUARY.atDay(day).atTime(9, 0))).getId());
+        }
+        LocalDateTime cutoff = JANUARY.plusMonths(1).atDay(2).atStartOfDay();
+        doThrow(new IllegalStateException("Drop failed")).doCallRealMethod().when(partitions).dropPartition(JANUARY);
+
+        assertThrows(IllegalStateException.class, () -> archiver.archiveOrdersPlacedBefore(cutoff));
+        assertThat(partitions.getArchivedThroughId(JANUARY)).isEqualTo(ids.get(4));
+        clearInvocations(partitions);
+
+        assertThat(archiver.archiveOrdersPlacedBefore(cutoff)).isZero();
+
+        verify(partitions).findChunk(eq(JANUARY), eq(ids.get(4)), anyInt());
+        assertThat(partitions.getPartitions()).doesNotContain(JANUARY);
+        assertThat(archive.findBetween(JANUARY.atDay(1).atStartOfDay(), cutoff))
+                .extracting(OrderDTO::getId).containsExactlyElementsOf(ids);
+        ids.forEach(id -> assertThat(archive.find(id)).isPresent());
+    }
+
+    @Test
+    void new_WhileOrdersAreSharded_ShouldRefuseToStart() {
+        OrderShardRouter shards = mock(OrderShardRouter.class);
+        when(shards.isEnabled()).thenReturn(true);
+
+        assertThrows(IllegalStateException.class, () -> new OrderArchiver(mock(OrderRepository.class), archive,
+                partitions, shards, new DataSourceTransactionManager(dataSource), Duration.ofDays(365), 2));
+    }
+
+    private static Order order(LocalDateTime orderTime) {
+        Order order = new Order();
+        order.setBuyerEmail("a@example.com");
+        order.setOrderTime(orderTime);
+        order.addItem(OrderItem.builder().productId(1L).productName("Pen").price(new BigDecimal("1.00")).quantity(1).build());
+        order.calculateTotalValue();
+        return order;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.demo.service;
+
+import com.example.demo.domain.OutboxEvent;
+import com.example.demo.dto.OrderDTO;
+import com.example.demo.event.OrderPlacedEvent;
+import com.example.demo.eventlog.OrderEventLog;
+import com.example.demo.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderOutboxServiceTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private OrderEventLog orderEventLog;
+    private OrderOutboxService orderOutboxService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        orderEventLog = new OrderEventLog(directory.toString(), 1024 * 1024);
+        orderOutboxService = new OrderOutboxService(outboxEventRepository, orderEventLog, objectMapper, transactionManager, 2);
+    }
+
+    @Test
+    void onOrderPlaced_ShouldWriteOutboxRowWithOrderJson() throws Exception {
+        OrderDTO order = OrderDTO.builder().id(7L).buyerEmail("test@example.com").totalValue(new BigDecimal("9.99")).build();
+
+        orderOutboxService.onOrderPlaced(new OrderPlacedEvent(order));
+
+        ArgumentCaptor<OutboxEvent> saved = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxEventRepository).save(saved.capture());
+        assertThat(saved.getValue().getOrderId()).isEqualTo(7L);
+        assertThat(saved.getValue().getEventType()).isEqualTo("OrderPlaced");
+        assertThat(objectMapper.readValue(saved.getValue().getPayload(), OrderDTO.class)).isEqualTo(order);
+    }
+
+    @Test
+    void relay_ShouldAppendPendingEventsInBatchesAndDeleteThem() throws Exception {
+        when(outboxEventRepository.findAllByOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(event(1L), event(2L)))
+                .thenReturn(List.of(event(3L)));
+
+        orderOutboxService.relay();
+
+        verify(outboxEventRepository).deleteAllByIdIn(List.of(1L, 2L));
+        verify(outboxEventRepository).deleteAllByIdIn(List.of(3L));
+        List<String> lines = Files.readAllLines(orderEventLog.read(0, 1024 * 1024).file());
+        assertThat(lines).hasSize(3);
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertThat(first.get("eventId").asLong()).isEqualTo(1L);
+        assertThat(first.get("type").asText()).isEqualTo("OrderPlaced");
+        assertThat(first.get("order").get("id").asLong()).isEqualTo(101L);
+    }
+
+    @Test
+    void relay_WithNothingPending_ShouldNotTouchLog() {
+        when(outboxEventRepository.findAllByOrderByIdAsc(any(Pageable.class))).thenReturn(Collections.emptyList());
+
+        orderOutboxService.relay();
+
+        verify(outboxEventRepository, never()).deleteAllByIdIn(any());
+        assertThat(orderEventLog.getEndOffset()).isZero();
+    }
+
+    private static OutboxEvent event(long id) {
+        return OutboxEvent.builder()
+                .id(id)
+                .eventType("OrderPlaced")
+                .orderId(100 + id)
+                .payload("{\"id\":" + (100 + id) + "}")
+                .createdAt(LocalDateTime.of(2024, 1, 1, 12, 0))
+                .build();
+    }
+}
@@ -1,18 +1,32 @@
 package com.example.demo.service;
 
+import com.example.demo.archive.OrderArchive;
+import com.example.demo.cache.MissingProductCache;
+import com.example.demo.cache.ProductCatalogSnapshot;
 import com.example.demo.domain.Order;
 import com.example.demo.domain.OrderItem;
 import com.example.demo.domain.Product;
+import com.example.demo.dto.CustomerOrdersDTO;
+import com.example.demo.dto.CustomerSummaryDTO;
 import com.example.demo.dto.OrderDTO;
+import com.example.demo.dto.OrderLookupDTO;
+import com.example.demo.dto.OrderSummaryDTO;
+import com.example.demo.dto.ProductDTO;
+import com.example.demo.event.OrderPlacedEvent;
 import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.partition.MonthlyOrderPartitions;
+import com.example.demo.readmodel.OrderReadModel;
 import com.example.demo.repository.OrderRepository;
 import com.example.demo.repository.ProductRepository;
+import com.example.demo.shard.OrderShardRouter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -20,10 +34,13 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,6 +52,33 @@ public class OrderServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private MissingProductCache missingProductCache;
+
+    @Mock
+    private ProductCatalogSnapshot productCatalogSnapshot;
+
+    @Mock
+    private CustomerSummaryService customerSummaryService;
+
+    @Mock
+    private OrderArchive orderArchive;
+
+    @Mock
+    private OrderReadModel orderReadModel;
+
+    @Mock
+    private OrderShardRouter orderShardRouter;
+
+    @Mock
+    private MonthlyOrderPartitions monthlyOrderPartitions;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -94,7 +138,7 @@ public class OrderServiceTest {
 
     @Test
     void getAllOrders_ShouldReturnAllOrders() {
-        when(orderRepository.findAll()).thenReturn(orderList);
+        when(orderRepository.findAllWithItems()).thenReturn(orderList);
 
         List<OrderDTO> result = orderService.getAllOrders();
 
@@ -104,7 +148,7 @@ public class OrderServiceTest {
         assertThat(result.get(1).getId()).isEqualTo(2L);
         assertThat(result.get(1).getBuyerEmail()).isEqualTo("another@example.com");
 
-        verify(orderRepository, times(1)).findAll();
+        verify(orderRepository, times(1)).findAllWithItems();
     }
 
     @Test
@@ -129,6 +173,76 @@ public class OrderServiceTest {
         });
 
         verify(orderRepository, times(1)).findById(999L);
+        verify(orderArchive, times(1)).find(999L);
+    }
+
+    @Test
+    void getOrderById_WithArchivedOrder_ShouldReadFromArchive() {
+        OrderDTO archived = OrderDTO.builder().id(7L).buyerEmail("old@example.com").build();
+        when(orderRepository.findById(7L)).thenReturn(Optional.empty());
+        when(orderArchive.find(7L)).thenReturn(Optional.of(archived));
+
+        OrderDTO result = orderService.getOrderById(7L);
+
+        assertThat(result).isEqualTo(archived);
+    }
+
+    @Test
+    void getOrdersByIds_ShouldQueryUnresidentOrdersOnceAndReportMissing() {
+        OrderDTO resident = OrderDTO.builder().id(5L).buyerEmail("resident@example.com").build();
+        OrderDTO archived = OrderDTO.builder().id(7L).buyerEmail("old@example.com").build();
+        when(orderReadModel.find(anyLong())).thenReturn(Optional.empty());
+        when(orderReadModel.find(5L)).thenReturn(Optional.of(resident));
+        when(orderRepository.findAllWithItemsByIdIn(List.of(2L, 1L, 7L, 9L))).thenReturn(orderList);
+        when(orderArchive.find(anyLong())).thenReturn(Optional.empty());
+        when(orderArchive.find(7L)).thenReturn(Optional.of(archived));
+
+        OrderLookupDTO result = orderService.getOrdersByIds(List.of(2L, 5L, 1L, 2L, 7L, 9L));
+
+        assertThat(result.getOrders()).extracting(OrderDTO::getId).containsExactly(2L, 5L, 1L, 7L);
+        assertThat(result.getMissingIds()).containsExactly(9L);
+        verify(orderRepository, times(1)).findAllWithItemsByIdIn(any());
+    }
+
+    @Test
+    void getOrdersByIds_WithTooManyIds_ShouldThrowException() {
+        List<Long> ids = LongStream.rangeClosed(1, LookupIds.MAX_IDS + 1).boxed().toList();
+
+        assertThrows(IllegalArgumentException.class, () -> orderService.getOrdersByIds(ids));
+        assertThrows(IllegalArgumentException.class, () -> orderService.getOrdersByIds(List.of()));
+
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void getOrderById_WithHotOrder_ShouldNotTouchArchive() {
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order1));
+
+        orderService.getOrderById(1L);
+
+        verifyNoInteractions(orderArchive);
+    }
+
+    @Test
+    void getOrderById_WithResidentOrder_ShouldNotQueryDatabase() {
+        OrderDTO resident = OrderDTO.builder().id(1L).buyerEmail("test@example.com").build();
+        when(orderReadModel.find(1L)).thenReturn(Optional.of(resident));
+
+        OrderDTO result = orderService.getOrderById(1L);
+
+        assertThat(result).isEqualTo(resident);
+        verifyNoInteractions(orderRepository, orderArchive);
+    }
+
+    @Test
+    void getOrdersBetweenDates_WithinResidentWindow_ShouldNotQueryDatabase() {
+        OrderDTO resident = OrderDTO.builder().id(1L).orderTime(startDate.plusHours(1)).build();
+        when(orderReadModel.findBetween(startDate, endDate)).thenReturn(Optional.of(List.of(resident)));
+
+        List<OrderDTO> result = orderService.getOrdersBetweenDates(startDate, endDate);
+
+        assertThat(result).containsExactly(resident);
+        verifyNoInteractions(orderRepository);
     }
 
     @Test
@@ -144,9 +258,44 @@ public class OrderServiceTest {
         verify(orderRepository, times(1)).findAllOrdersBetweenDates(startDate, endDate);
     }
 
+    @Test
+    void getOrdersBetweenDates_ShouldMergeArchivedOrdersByTimeWithoutDuplicates() {
+        OrderDTO archived = OrderDTO.builder().id(5L).orderTime(startDate.plusHours(1)).build();
+        OrderDTO alsoInDatabase = OrderDTO.builder().id(1L).orderTime(order1.getOrderTime()).buyerEmail("stale").build();
+        when(orderRepository.findAllOrdersBetweenDates(startDate, endDate)).thenReturn(Arrays.asList(order2, order1));
+        when(orderArchive.findBetween(startDate, endDate)).thenReturn(Arrays.asList(archived, alsoInDatabase));
+
+        List<OrderDTO> result = orderService.getOrdersBetweenDates(startDate, endDate);
+
+        assertThat(result).extracting(OrderDTO::getId).containsExactly(5L, 2L, 1L);
+        assertThat(result.get(2).getBuyerEmail()).isEqualTo("test@example.com");
+    }
+
+    @Test
+    void getOrderSummariesBetweenDates_ShouldNotLoadItems() {
+        OrderSummaryDTO stored = new OrderSummaryDTO(2L, "another@example.com", order2.getOrderTime(), order2.getTotalValue());
+        OrderDTO archived = OrderDTO.builder().id(5L).orderTime(startDate.plusHours(1)).totalValue(BigDecimal.ONE).build();
+        when(orderRepository.findSummariesBetweenDates(startDate, endDate)).thenReturn(List.of(stored));
+        when(orderArchive.findBetween(startDate, endDate)).thenReturn(List.of(archived));
+
+        List<OrderSummaryDTO> result = orderService.getOrderSummariesBetweenDates(startDate, endDate);
+
+        assertThat(result).extracting(OrderSummaryDTO::getId).containsExactly(5L, 2L);
+        verify(orderRepository, never()).findAllOrdersBetweenDates(any(), any());
+    }
+
+    @Test
+    void getOrderSummaries_ShouldUseProjection() {
+        OrderSummaryDTO stored = new OrderSummaryDTO(1L, "test@example.com", order1.getOrderTime(), order1.getTotalValue());
+        when(orderRepository.findAllSummaries()).thenReturn(List.of(stored));
+
+        assertThat(orderService.getOrderSummaries()).containsExactly(stored);
+        verify(orderRepository, never()).findAllWithItems();
+    }
+
     @Test
     void createOrder_ShouldReturnCreatedOrder() {
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.findAllById(Set.of(1L))).thenReturn(List.of(product));
         when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
             Order savedOrder = invocation.getArgument(0);
             savedOrder.setId(3L);
@@ -160,8 +309,10 @@ public class OrderServiceTest {
         assertThat(result.getItems()).hasSize(1);
         assertThat(result.getItems().get(0).getProductName()).isEqualTo("Test Product");
 
-        verify(productRepository, times(1)).findById(1L);
+        verify(productRepository, times(1)).findAllById(Set.of(1L));
         verify(orderRepository, times(1)).save(any(Order.class));
+        verify(customerSummaryService, times(1)).recordOrder(any(Order.class));
+        verify(eventPublisher, times(1)).publishEvent(new OrderPlacedEvent(result));
     }
 
     @Test
@@ -176,13 +327,117 @@ public class OrderServiceTest {
                 .items(Collections.singletonList(orderItemDTO))
                 .build();
 
-        when(productRepository.findById(999L)).thenReturn(Optional.empty());
+        when(productRepository.findAllById(Set.of(999L))).thenReturn(List.of());
 
         assertThrows(ResourceNotFoundException.class, () -> {
             orderService.createOrder(invalidOrderDTO);
         });
 
-        verify(productRepository, times(1)).findById(999L);
+        verify(productRepository, times(1)).findAllById(Set.of(999L));
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(missingProductCache).recordMissing(999L, 0L);
+        verifyNoInteractions(customerSummaryService, eventPublisher);
+    }
+
+    @Test
+    void createOrder_WithCatalogSnapshot_ShouldTakePricesFromIt() {
+        when(productCatalogSnapshot.isReady()).thenReturn(true);
+        when(productCatalogSnapshot.find(1L)).thenReturn(ProductDTO.builder()
+                .id(1L)
+                .name("Snapshot Product")
+                .price(new BigDecimal("12.50"))
+                .build());
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        OrderDTO result = orderService.createOrder(orderDTO);
+
+        assertThat(result.getItems()).singleElement()
+                .satisfies(item -> assertThat(item.getProductName()).isEqualTo("Snapshot Product"));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void createOrder_WithKnownMissingProduct_ShouldNotQueryDatabase() {
+        OrderDTO invalidOrderDTO = OrderDTO.builder()
+                .buyerEmail("new@example.com")
+                .items(Collections.singletonList(OrderDTO.OrderItemDTO.builder().productId(999L).quantity(1).build()))
+                .build();
+        when(missingProductCache.isMissing(999L)).thenReturn(true);
+
+        assertThrows(ResourceNotFoundException.class, () -> orderService.createOrder(invalidOrderDTO));
+
+        verifyNoInteractions(productRepository, orderRepository, eventPublisher);
+    }
+
+    @Test
+    void createOrder_WhenSharded_ShouldSaveOnShardAndReadBackFromIt() {
+        when(orderShardRouter.isEnabled()).thenReturn(true);
+        // The store is picked on construction
+        OrderService orderService = new OrderService(orderRepository, productRepository, missingProductCache,
+                productCatalogSnapshot, customerSummaryService, orderArchive, orderReadModel, orderShardRouter, monthlyOrderPartitions,
+                eventPublisher, transactionManager);
+        when(productRepository.findAllById(Set.of(1L))).thenReturn(List.of(product));
+        when(orderShardRouter.save(any(Order.class))).thenAnswer(invocation -> {
+            Order savedOrder = invocation.getArgument(0);
+            savedOrder.setId(4_398_046_511_104L);
+            return savedOrder;
+        });
+
+        OrderDTO created = orderService.createOrder(orderDTO);
+        when(orderShardRouter.findById(created.getId())).thenReturn(Optional.of(created));
+
+        assertThat(orderService.getOrderById(created.getId())).isEqualTo(created);
         verify(orderRepository, never()).save(any(Order.class));
+        verify(orderRepository, never()).findById(any());
+        verify(customerSummaryService).recordOrder(any(Order.class));
+    }
+
+    @Test
+    void getOrders_WhenSharded_ShouldStillFindOrdersPlacedBeforeSharding() {
+        when(orderShardRouter.isEnabled()).thenReturn(true);
+        OrderService orderService = new OrderService(orderRepository, productRepository, missingProductCache,
+                productCatalogSnapshot, customerSummaryService, orderArchive, orderReadModel, orderShardRouter, monthlyOrderPartitions,
+                eventPublisher, transactionManager);
+        OrderDTO sharded = OrderDTO.builder().id(4_398_046_511_104L).orderTime(LocalDateTime.now().minusHours(1))
+                .items(List.of()).build();
+        when(orderRepository.count()).thenReturn(2L);
+        when(orderShardRouter.findById(1L)).thenReturn(Optional.empty());
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order1));
+        when(orderShardRouter.findBetween(startDate, endDate)).thenReturn(List.of(sharded));
+        when(orderRepository.findAllOrdersBetweenDates(startDate, endDate)).thenReturn(orderList);
+
+        assertThat(orderService.getOrderById(1L).getId()).isEqualTo(1L);
+        assertThat(orderService.getOrdersBetweenDates(startDate, endDate))
+                .extracting(OrderDTO::getId).containsExactly(2L, sharded.getId(), 1L);
+        // Checked once, nothing adds legacy orders while sharded
+        verify(orderRepository, times(1)).count();
+    }
+
+    @Test
+    void constructor_WithShardsAndPartitionsBothEnabled_ShouldThrow() {
+        when(orderShardRouter.isEnabled()).thenReturn(true);
+        when(monthlyOrderPartitions.isEnabled()).thenReturn(true);
+
+        assertThrows(IllegalStateException.class, () -> new OrderService(orderRepository, productRepository,
+                missingProductCache, productCatalogSnapshot, customerSummaryService, orderArchive, orderReadModel, orderShardRouter,
+                monthlyOrderPartitions, eventPublisher, transactionManager));
+    }
+
+    @Test
+    void getOrdersByBuyer_ShouldLookUpNormalizedEmailAndAttachSummary() {
+        CustomerSummaryDTO summary = CustomerSummaryDTO.builder()
+                .buyerEmail("test@example.com")
+                .orderCount(1)
+                .lifetimeValue(order1.getTotalValue())
+                .lastOrderTime(order1.getOrderTime())
+                .build();
+        when(orderRepository.findAllByNormalizedBuyerEmail("test@example.com")).thenReturn(Collections.singletonList(order1));
+        when(customerSummaryService.getSummary(" Test@Example.com ")).thenReturn(summary);
+
+        CustomerOrdersDTO result = orderService.getOrdersByBuyer(" Test@Example.com ");
+
+        assertThat(result.getOrders()).hasSize(1);
+        assertThat(result.getOrders().get(0).getId()).isEqualTo(1L);
+        assertThat(result.getSummary()).isEqualTo(summary);
     }
 }
@@ -0,0 +1,156 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.PriceAdjustmentDTO;
+import com.example.demo.dto.PriceUpdateDTO;
+import com.example.demo.dto.ProductDTO;
+import com.example.demo.dto.RepricingResultDTO;
+import com.example.demo.event.ProductChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductRepricingServiceTest {
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private JdbcTemplate jdbcTemplate;
+    private ProductRepricingService productRepricingService;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:repricing;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE products(id BIGINT PRIMARY KEY, name VARCHAR(255), price NUMERIC(38, 2))");
+        jdbcTemplate.update("INSERT INTO products SELECT X, 'Product ' || X, 10.00 FROM SYSTEM_RANGE(1, 25)");
+        productRepricingService = new ProductRepricingService(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+                eventPublisher, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE products");
+    }
+
+    @Test
+    void setPrices_ShouldUpdateListedProductsInChunksAndPublishThem() {
+        List<PriceUpdateDTO> prices = new ArrayList<>();
+        for (long id = 1; id <= 15; id++) {
+            prices.add(PriceUpdateDTO.builder().id(id).price(BigDecimal.valueOf(id)).build());
+        }
+        prices.add(PriceUpdateDTO.builder().id(999L).price(BigDecimal.ONE).build());
+
+        RepricingResultDTO result = productRepricingService.setPrices(prices);
+
+        assertThat(result.getUpdated()).isEqualTo(15);
+        assertThat(price(7)).isEqualByComparingTo("7");
+        assertThat(price(16)).isEqualByComparingTo("10");
+        assertThat(publishedIds()).containsExactlyElementsOf(
+                LongStream.rangeClosed(1, 15).boxed().collect(Collectors.toList()));
+    }
+
+    @Test
+    void setPrices_WithDuplicateId_ShouldApplyLastPrice() {
+        productRepricingService.setPrices(Arrays.asList(
+                PriceUpdateDTO.builder().id(3L).price(new BigDecimal("1.00")).build(),
+                PriceUpdateDTO.builder().id(3L).price(new BigDecimal("2.00")).build()));
+
+        assertThat(price(3)).isEqualByComparingTo("2.00");
+    }
+
+    @Test
+    void setPrices_WithNonPositivePrice_ShouldThrowException() {
+        List<PriceUpdateDTO> prices = Collections.singletonList(PriceUpdateDTO.builder().id(1L).price(BigDecimal.ZERO).build());
+
+        assertThrows(IllegalArgumentException.class, () -> productRepricingService.setPrices(prices));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void setPrices_WithNullUpdate_ShouldThrowException() {
+        List<PriceUpdateDTO> prices = Arrays.asList(PriceUpdateDTO.builder().id(1L).price(BigDecimal.ONE).build(), null);
+
+        assertThrows(IllegalArgumentException.class, () -> productRepricingService.setPrices(prices));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void adjustPrices_ShouldApplyPercentageToRangeOnly() {
+        RepricingResultDTO result = productRepricingService.adjustPrices(
+                PriceAdjustmentDTO.builder().fromId(5L).toId(Long.MAX_VALUE).percent(new BigDecimal("5")).build());
+
+        assertThat(result.getUpdated()).isEqualTo(21);
+        assertThat(price(4)).isEqualByComparingTo("10.00");
+        assertThat(price(5)).isEqualByComparingTo("10.50");
+        assertThat(price(25)).isEqualByComparingTo("10.50");
+        // 5..14, 15..24 and 25..25
+        verify(eventPublisher, times(3)).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    @Test
+    void adjustPrices_ShouldRoundToCentsAndKeepPricesPositive() {
+        jdbcTemplate.update("UPDATE products SET price = 0.01 WHERE id = 1");
+
+        productRepricingService.adjustPrices(
+                PriceAdjustmentDTO.builder().fromId(1L).toId(2L).percent(new BigDecimal("-99.99")).build());
+
+        assertThat(price(1)).isEqualByComparingTo("0.01");
+        assertThat(price(2)).isEqualByComparingTo("0.01");
+    }
+
+    @Test
+    void adjustPrices_ShouldLeaveProductsWithoutPriceUnpriced() {
+        jdbcTemplate.update("UPDATE products SET price = NULL WHERE id = 2");
+
+        RepricingResultDTO result = productRepricingService.adjustPrices(
+                PriceAdjustmentDTO.builder().fromId(1L).toId(3L).percent(BigDecimal.TEN).build());
+
+        assertThat(result.getUpdated()).isEqualTo(2);
+        assertThat(price(2)).isNull();
+        assertThat(publishedIds()).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void adjustPrices_WithEmptyRange_ShouldUpdateNothing() {
+        RepricingResultDTO result = productRepricingService.adjustPrices(
+                PriceAdjustmentDTO.builder().fromId(100L).toId(200L).percent(BigDecimal.TEN).build());
+
+        assertThat(result.getUpdated()).isZero();
+        verifyNoInteractions(eventPublisher);
+    }
+
+    private BigDecimal price(long id) {
+        return jdbcTemplate.queryForObject("SELECT price FROM products WHERE id = ?", BigDecimal.class, id);
+    }
+
+    private List<Long> publishedIds() {
+        ArgumentCaptor<ProductChangedEvent> events = ArgumentCaptor.forClass(ProductChangedEvent.class);
+        verify(eventPublisher, atLeastOnce()).publishEvent(events.capture());
+        return events.getAllValues().stream()
+                .flatMap(event -> event.updated().stream())
+                .map(ProductDTO::getId)
+                .collect(Collectors.toList());
+    }
+}
@@ -1,7 +1,12 @@
 package com.example.demo.service;
 
+import com.example.demo.cache.MissingProductCache;
+import com.example.demo.cache.ProductCatalogSnapshot;
+import com.example.demo.cache.ProductPriceIndex;
 import com.example.demo.domain.Product;
 import com.example.demo.dto.ProductDTO;
+import com.example.demo.dto.ProductLookupDTO;
+import com.example.demo.event.ProductChangedEvent;
 import com.example.demo.exception.ResourceNotFoundException;
 import com.example.demo.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,6 +15,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
@@ -19,6 +26,8 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +36,18 @@ public class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductPriceIndex productPriceIndex;
+
+    @Mock
+    private MissingProductCache missingProductCache;
+
+    @Mock
+    private ProductCatalogSnapshot productCatalogSnapshot;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ProductService productService;
 
@@ -94,6 +115,27 @@ public class ProductServiceTest {
         });
 
         verify(productRepository, times(1)).findById(999L);
+        verify(missingProductCache).recordMissing(999L, 0L);
+    }
+
+    @Test
+    void getProductById_WithKnownMissingId_ShouldNotQueryDatabase() {
+        when(missingProductCache.isMissing(999L)).thenReturn(true);
+
+        assertThrows(ResourceNotFoundException.class, () -> productService.getProductById(999L));
+
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void getProductById_WithCatalogSnapshot_ShouldNotQueryDatabase() {
+        ProductDTO snapshotted = ProductDTO.builder().id(1L).name("Test Product").price(new BigDecimal("99.99")).build();
+        when(productCatalogSnapshot.isReady()).thenReturn(true);
+        when(productCatalogSnapshot.find(1L)).thenReturn(snapshotted);
+
+        assertThat(productService.getProductById(1L)).isSameAs(snapshotted);
+        assertThrows(ResourceNotFoundException.class, () -> productService.getProductById(999L));
+        verifyNoInteractions(productRepository, missingProductCache);
     }
 
     @Test
@@ -118,6 +160,7 @@ public class ProductServiceTest {
         assertThat(result.getPrice()).isEqualTo(new BigDecimal("79.99"));
 
         verify(productRepository, times(1)).save(any(Product.class));
+        verify(eventPublisher, times(1)).publishEvent(ProductChangedEvent.updated(result));
     }
 
     @Test
@@ -185,4 +228,96 @@ public class ProductServiceTest {
         verify(productRepository, times(1)).existsById(999L);
         verify(productRepository, never()).deleteById(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getProductsByPriceRange_ShouldQueryRepositoryWhenIndexNotReady() {
+        BigDecimal min = new BigDecimal("10.00");
+        BigDecimal max = new BigDecimal("100.00");
+        when(productRepository.findByPriceRange(min, max, PageRequest.of(0, 2))).thenReturn(Arrays.asList(product2, product1));
+
+        List<ProductDTO> result = productService.getProductsByPriceRange(min, max, null, null, 2);
+
+        assertThat(result).extracting(ProductDTO::getId).containsExactly(2L, 1L);
+        verify(productRepository, never()).findByPriceRangeAfter(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void getProductsByPriceRange_WithCursor_ShouldContinueAfterCursor() {
+        BigDecimal afterPrice = new BigDecimal("49.99");
+        when(productRepository.findByPriceRangeAfter(null, null, afterPrice, 2L, PageRequest.of(0, 10)))
+                .thenReturn(List.of(product1));
+
+        List<ProductDTO> result = productService.getProductsByPriceRange(null, null, afterPrice, 2L, 10);
+
+        assertThat(result).extracting(ProductDTO::getId).containsExactly(1L);
+    }
+
+    @Test
+    void getProductsByPriceRange_WithCursorWithoutPrice_ShouldContinueAfterId() {
+        when(productRepository.findByPriceRangeAfter(null, null, null, 7L, PageRequest.of(0, 10)))
+                .thenReturn(List.of(product1));
+
+        List<ProductDTO> result = productService.getProductsByPriceRange(null, null, null, 7L, 10);
+
+        assertThat(result).extracting(ProductDTO::getId).containsExactly(1L);
+    }
+
+    @Test
+    void getProductsByPriceRange_ShouldUseIndexWhenReady() {
+        ProductDTO indexed = ProductDTO.builder().id(2L).name("Another Product").price(new BigDecimal("49.99")).build();
+        when(productPriceIndex.isReady()).thenReturn(true);
+        when(productPriceIndex.range(null, null, null, null, 50)).thenReturn(List.of(indexed));
+
+        List<ProductDTO> result = productService.getProductsByPriceRange(null, null, null, null, 50);
+
+        assertThat(result).containsExactly(indexed);
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void getProductsByIds_ShouldQueryOnceAndReportMissing() {
+        when(missingProductCache.isMissing(anyLong())).thenAnswer(invocation -> invocation.getArgument(0).equals(7L));
+        when(missingProductCache.generation()).thenReturn(3L);
+        when(productRepository.findAllById(List.of(2L, 1L, 9L))).thenReturn(productList);
+
+        ProductLookupDTO result = productService.getProductsByIds(List.of(2L, 1L, 9L, 2L, 7L));
+
+        assertThat(result.getProducts()).extracting(ProductDTO::getId).containsExactly(2L, 1L);
+        assertThat(result.getMissingIds()).containsExactly(9L, 7L);
+        verify(missingProductCache).recordMissing(9L, 3L);
+    }
+
+    @Test
+    void getProductsByIds_ShouldUseIndexWhenReady() {
+        ProductDTO indexed = ProductDTO.builder().id(2L).name("Another Product").price(new BigDecimal("49.99")).build();
+        when(productPriceIndex.isReady()).thenReturn(true);
+        when(productPriceIndex.find(anyLong())).thenReturn(Optional.empty());
+        when(productPriceIndex.find(2L)).thenReturn(Optional.of(indexed));
+
+        ProductLookupDTO result = productService.getProductsByIds(List.of(2L, 8L));
+
+        assertThat(result.getProducts()).containsExactly(indexed);
+        assertThat(result.getMissingIds()).containsExactly(8L);
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void getProductsByIds_WithNullId_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> productService.getProductsByIds(Arrays.asList(1L, null)));
+
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void getProductsByPriceRange_WithInvalidArguments_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () ->
+                productService.getProductsByPriceRange(null, null, null, null, 0));
+        assertThrows(IllegalArgumentException.class, () ->
+                productService.getProductsByPriceRange(null, null, new BigDecimal("1.00"), null, 10));
+        assertThrows(IllegalArgumentException.class, () ->
+                productService.getProductsByPriceRange(new BigDecimal("5.00"), new BigDecimal("1.00"), null, null, 10));
+
+        verify(productRepository, never()).findByPriceRange(any(), any(), any());
+        verify(productPriceIndex, never()).range(any(), any(), any(), any(), anyInt());
+    }
+}
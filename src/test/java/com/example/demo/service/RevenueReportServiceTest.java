@@ -0,0 +1,128 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.RevenueReportDTO;
+import com.example.demo.exception.FeatureUnavailableException;
+import com.example.demo.repository.OrderStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RevenueReportServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+    private JdbcTemplate jdbcTemplate;
+    private RevenueReportService revenueReportService;
+    private long nextItemId = 1;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:reports;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE orders(id BIGINT PRIMARY KEY, order_time TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE order_items(id BIGINT PRIMARY KEY, order_id BIGINT, product_id BIGINT, " +
+                "product_name VARCHAR(255), price NUMERIC(38, 2), quantity INT)");
+        // Slices of one day starting at midnight, so every day but the first is split in two
+        revenueReportService = new RevenueReportService(jdbcTemplate, List.of(), 3, 1, 366);
+    }
+
+    @AfterEach
+    void tearDown() {
+        revenueReportService.destroy();
+        jdbcTemplate.execute("DROP TABLE order_items");
+        jdbcTemplate.execute("DROP TABLE orders");
+    }
+
+    @Test
+    void getRevenueReport_ShouldMergeSlicesIntoDailyAndProductTotals() {
+        order(1, START.plusHours(10), item(1, "10.00", 2), item(2, "5.50", 1));
+        order(2, START.plusDays(1).plusHours(1), item(1, "10.00", 1));
+        order(3, START.plusDays(1).plusHours(23), item(2, "5.50", 4));
+        order(4, START.plusDays(4).plusHours(12), item(3, "100.00", 1));
+
+        RevenueReportDTO report = revenueReportService.getRevenueReport(START, START.plusDays(10));
+
+        assertThat(report.getOrderCount()).isEqualTo(4);
+        assertThat(report.getUnits()).isEqualTo(9);
+        assertThat(report.getRevenue()).isEqualByComparingTo("157.50");
+        assertThat(report.getDays()).extracting(RevenueReportDTO.DailyRevenueDTO::getDate)
+                .containsExactly(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 2), LocalDate.of(2024, 3, 5));
+        RevenueReportDTO.DailyRevenueDTO secondDay = report.getDays().get(1);
+        assertThat(secondDay.getOrderCount()).isEqualTo(2);
+        assertThat(secondDay.getUnits()).isEqualTo(5);
+        assertThat(secondDay.getRevenue()).isEqualByComparingTo("32.00");
+        assertThat(report.getProducts()).extracting(RevenueReportDTO.ProductRevenueDTO::getProductId)
+                .containsExactly(3L, 1L, 2L);
+        assertThat(report.getProducts().get(1).getUnits()).isEqualTo(3);
+        assertThat(report.getProducts().get(1).getRevenue()).isEqualByComparingTo("30.00");
+    }
+
+    @Test
+    void getRevenueReport_ShouldIncludeBothBoundsAndNothingOutside() {
+        LocalDateTime end = START.plusDays(3);
+        order(1, START.minusSeconds(1), item(1, "1.00", 1));
+        order(2, START, item(1, "2.00", 1));
+        order(3, end, item(1, "3.00", 1));
+        order(4, end.plusSeconds(1), item(1, "4.00", 1));
+
+        RevenueReportDTO report = revenueReportService.getRevenueReport(START, end);
+
+        assertThat(report.getOrderCount()).isEqualTo(2);
+        assertThat(report.getRevenue()).isEqualByComparingTo("5.00");
+    }
+
+    @Test
+    void getRevenueReport_WithoutOrders_ShouldReturnEmptyReport() {
+        RevenueReportDTO report = revenueReportService.getRevenueReport(START, START.plusDays(30));
+
+        assertThat(report.getOrderCount()).isZero();
+        assertThat(report.getRevenue()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(report.getDays()).isEmpty();
+        assertThat(report.getProducts()).isEmpty();
+    }
+
+    @Test
+    void getRevenueReport_WithInvalidRange_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> revenueReportService.getRevenueReport(START.plusDays(1), START));
+        assertThrows(IllegalArgumentException.class,
+                () -> revenueReportService.getRevenueReport(START, START.plusDays(400)));
+    }
+
+    @Test
+    void getRevenueReport_WhileOrdersArePartitioned_ShouldBeRefused() {
+        OrderStore partitions = mock(OrderStore.class);
+        when(partitions.isEnabled()).thenReturn(true);
+        RevenueReportService partitioned = new RevenueReportService(jdbcTemplate, List.of(partitions), 1, 1, 366);
+        try {
+            assertThrows(FeatureUnavailableException.class, () -> partitioned.getRevenueReport(START, START.plusDays(1)));
+        } finally {
+            partitioned.destroy();
+        }
+    }
+
+    private void order(long id, LocalDateTime orderTime, Object[]... items) {
+        jdbcTemplate.update("INSERT INTO orders VALUES (?, ?)", id, Timestamp.valueOf(orderTime));
+        for (Object[] item : items) {
+            jdbcTemplate.update("INSERT INTO order_items VALUES (?, ?, ?, ?, ?, ?)",
+                    nextItemId++, id, item[0], "Product " + item[0], item[1], item[2]);
+        }
+    }
+
+    private static Object[] item(long productId, String price, int quantity) {
+        return new Object[]{productId, new BigDecimal(price), quantity};
+    }
+}
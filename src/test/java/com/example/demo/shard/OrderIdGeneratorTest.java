@@ -0,0 +1,68 @@
+package com.example.demo.shard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class OrderIdGeneratorTest {
+
+    private final AtomicLong clock = new AtomicLong(OrderIdGenerator.EPOCH_MILLIS + 1_000);
+
+    @Test
+    void next_ShouldEncodeShardAndGrow() {
+        OrderIdGenerator generator = new OrderIdGenerator(23, clock::get);
+
+        long first = generator.next();
+        long second = generator.next();
+        clock.addAndGet(1);
+        long third = generator.next();
+
+        assertThat(OrderIdGenerator.shardOf(first)).isEqualTo(23);
+        assertThat(OrderIdGenerator.shardOf(third)).isEqualTo(23);
+        assertThat(first).isPositive().isLessThan(second);
+        assertThat(second).isLessThan(third);
+    }
+
+    @Test
+    void next_WithExhaustedSequenceOrClockGoingBack_ShouldStayUniqueAndGrowing() {
+        OrderIdGenerator generator = new OrderIdGenerator(1, clock::get);
+        Set<Long> ids = new HashSet<>();
+        long previous = 0;
+
+        for (int i = 0; i < 10_000; i++) {
+            if (i == 5_000) {
+                clock.addAndGet(-50);
+            }
+            long id = generator.next();
+            assertThat(id).isGreaterThan(previous);
+            previous = id;
+            ids.add(id);
+        }
+
+        assertThat(ids).hasSize(10_000);
+    }
+
+    @Test
+    void next_ShouldStayExactAsADouble() {
+        // The last millisecond the 41 time bits can hold, in 2093
+        clock.set(OrderIdGenerator.EPOCH_MILLIS + (1L << 41) - 1);
+        OrderIdGenerator generator = new OrderIdGenerator(OrderIdGenerator.MAX_SHARDS - 1, clock::get);
+
+        for (int i = 0; i < 100; i++) {
+            long id = generator.next();
+            assertThat(id).isLessThan(1L << 53);
+            assertThat((long) (double) id).isEqualTo(id);
+        }
+    }
+
+    @Test
+    void constructor_WithShardOutOfRange_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new OrderIdGenerator(OrderIdGenerator.MAX_SHARDS));
+        assertThrows(IllegalArgumentException.class, () -> new OrderIdGenerator(-1));
+    }
+}
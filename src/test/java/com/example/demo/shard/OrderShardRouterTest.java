@@ -0,0 +1,120 @@
+package com.example.demo.shard;
+
+import com.example.demo.domain.Order;
+import com.example.demo.domain.OrderItem;
+import com.example.demo.dto.OrderDTO;
+import com.example.demo.dto.OrderSummaryDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OrderShardRouterTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 6, 1, 9, 0);
+
+    private OrderShardRouter router;
+
+    @BeforeEach
+    void setUp() {
+        // Without DB_CLOSE_DELAY each shard disappears when its pool closes
+        router = new OrderShardRouter(3, "jdbc:h2:mem:router-test-%d", 2, false, null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        router.destroy();
+    }
+
+    @Test
+    void save_ShouldKeepBuyersOnOneShardAndEncodeItInTheId() {
+        Order first = router.save(order(" Alice@Example.com", BASE, "2.50", 4));
+        Order second = router.save(order("alice@example.com", BASE.plusHours(1), "1.00", 1));
+
+        int shard = router.shardFor("alice@example.com");
+        assertThat(OrderIdGenerator.shardOf(first.getId())).isEqualTo(shard);
+        assertThat(OrderIdGenerator.shardOf(second.getId())).isEqualTo(shard);
+        assertThat(OrderIdGenerator.shardOf(first.getItems().get(0).getId())).isEqualTo(shard);
+
+        OrderDTO found = router.findById(first.getId()).orElseThrow();
+        assertThat(found.getBuyerEmail()).isEqualTo(" Alice@Example.com");
+        assertThat(found.getTotalValue()).isEqualByComparingTo("10.00");
+        assertThat(found.getItems()).singleElement().satisfies(item -> {
+            assertThat(item.getPrice()).isEqualByComparingTo("10.00");
+            assertThat(item.getQuantity()).isEqualTo(4);
+        });
+        assertThat(router.findByBuyer("ALICE@example.com")).extracting(OrderDTO::getId)
+                .containsExactly(first.getId(), second.getId());
+        Order other = router.save(order("zed@example.com", BASE, "1.00", 1));
+        assertThat(router.findByIds(List.of(second.getId(), other.getId(), new OrderIdGenerator(7).next())))
+                .extracting(OrderDTO::getId).containsExactlyInAnyOrder(second.getId(), other.getId());
+    }
+
+    @Test
+    void findBetween_ShouldMergeEveryShardByTime() {
+        for (int i = 0; i < 30; i++) {
+            router.save(order("buyer" + i + "@example.com", BASE.plusMinutes(29 - i), "1.00", 1));
+        }
+        long used = IntStream.range(0, 30)
+                .map(i -> router.shardFor("buyer" + i + "@example.com")).distinct().count();
+
+        List<OrderDTO> range = router.findBetween(BASE.plusMinutes(5), BASE.plusMinutes(24));
+        List<OrderDTO> all = router.findAll();
+
+        assertThat(used).isEqualTo(3);
+        assertThat(range).hasSize(20);
+        assertThat(range.get(0).getOrderTime()).isEqualTo(BASE.plusMinutes(5));
+        assertThat(range).isSortedAccordingTo((a, b) -> a.getOrderTime().compareTo(b.getOrderTime()));
+        assertThat(all).hasSize(30).isSortedAccordingTo((a, b) -> a.getOrderTime().compareTo(b.getOrderTime()));
+        assertThat(router.findSummariesBetween(BASE.plusMinutes(5), BASE.plusMinutes(24)))
+                .extracting(OrderSummaryDTO::getId).containsExactlyElementsOf(range.stream().map(OrderDTO::getId).toList());
+        assertThat(router.findAllSummaries()).hasSize(30);
+    }
+
+    @Test
+    void save_InsideTransactionThatRollsBack_ShouldRemoveTheOrderAgain() {
+        TransactionSynchronizationManager.initSynchronization();
+        Order order;
+        try {
+            order = router.save(order("bob@example.com", BASE, "3.00", 1));
+            assertThat(router.findById(order.getId())).isPresent();
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(router.findById(order.getId())).isEmpty();
+        assertThat(router.findByBuyer("bob@example.com")).isEmpty();
+    }
+
+    @Test
+    void findById_WithIdOfUnknownShard_ShouldBeEmpty() {
+        long foreignId = new OrderIdGenerator(7).next();
+
+        assertThat(router.findById(foreignId)).isEmpty();
+        assertThat(new OrderShardRouter(0, "", 1, false, null).isEnabled()).isFalse();
+    }
+
+    private static Order order(String buyerEmail, LocalDateTime orderTime, String unitPrice, int quantity) {
+        Order order = new Order();
+        order.setBuyerEmail(buyerEmail);
+        order.setOrderTime(orderTime);
+        order.addItem(OrderItem.builder()
+                .productId(1L)
+                .productName("Pen")
+                .price(new BigDecimal(unitPrice))
+                .quantity(quantity)
+                .build());
+        order.calculateTotalValue();
+        return order;
+    }
+}
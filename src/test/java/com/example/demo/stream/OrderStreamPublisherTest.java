@@ -0,0 +1,193 @@
+package com.example.demo.stream;
+
+import com.example.demo.dto.OrderDTO;
+import com.example.demo.event.OrderPlacedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OrderStreamPublisherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OrderStreamPublisher publisher;
+
+    @AfterEach
+    void tearDown() {
+        publisher.destroy();
+    }
+
+    @Test
+    void fanOut_ShouldDeliverEveryOrderToEverySubscriberInOrder() throws Exception {
+        publisher = newPublisher(10, 16, "sample");
+        RecordingSink first = new RecordingSink(3);
+        RecordingSink second = new RecordingSink(3);
+        publisher.subscribe(first);
+        publisher.subscribe(second);
+
+        publisher.fanOut(message(1));
+        publisher.fanOut(message(2));
+        publisher.fanOut(message(3));
+
+        assertThat(first.await()).containsExactly("1", "2", "3");
+        assertThat(second.await()).containsExactly("1", "2", "3");
+    }
+
+    @Test
+    void fanOut_WithSamplingAndFullBuffer_ShouldSkipOldestAndReportSkippedCount() throws Exception {
+        publisher = newPublisher(10, 2, "sample");
+        RecordingSink slow = new RecordingSink(3);
+        slow.blockFirstSend();
+        publisher.subscribe(slow);
+
+        publisher.fanOut(message(1));
+        slow.awaitBlocked();
+        for (int id = 2; id <= 5; id++) {
+            publisher.fanOut(message(id));
+        }
+        slow.release();
+
+        assertThat(slow.await()).containsExactly("1", "skipped 2", "4", "5");
+        assertThat(meterRegistry.counter("demo.orders.stream.dropped", "reason", "skipped").count()).isEqualTo(2);
+    }
+
+    @Test
+    void fanOut_WithDropAndFullBuffer_ShouldDisconnectSlowSubscriber() throws Exception {
+        publisher = newPublisher(10, 2, "drop");
+        RecordingSink slow = new RecordingSink(1);
+        slow.blockFirstSend();
+        publisher.subscribe(slow);
+
+        publisher.fanOut(message(1));
+        slow.awaitBlocked();
+        for (int id = 2; id <= 4; id++) {
+            publisher.fanOut(message(id));
+        }
+        slow.release();
+
+        assertThat(slow.closed).isTrue();
+        assertThat(publisher.getSubscriberCount()).isZero();
+        assertThat(meterRegistry.counter("demo.orders.stream.dropped", "reason", "slow-subscriber").count()).isEqualTo(1);
+    }
+
+    @Test
+    void publish_WithSendersStuckInAWrite_ShouldDisconnectThemAndKeepServingOthers() throws Exception {
+        publisher = new OrderStreamPublisher(10, 16, "sample", 100, 2, 60_000, 100, 60_000,
+                new ObjectMapper(), meterRegistry);
+        RecordingSink[] stuck = {new RecordingSink(0), new RecordingSink(0)};
+        for (RecordingSink sink : stuck) {
+            sink.blockFirstSend();
+            publisher.subscribe(sink);
+        }
+        publisher.onOrderPlaced(new OrderPlacedEvent(OrderDTO.builder().id(1L).build()));
+        for (RecordingSink sink : stuck) {
+            sink.awaitBlocked();
+        }
+        // Both sender threads now block until released, well past the stall timeout
+        Thread.sleep(200);
+        RecordingSink healthy = new RecordingSink(1);
+        publisher.subscribe(healthy);
+
+        publisher.onOrderPlaced(new OrderPlacedEvent(OrderDTO.builder().id(2L).build()));
+
+        try {
+            assertThat(healthy.await()).containsExactly("2");
+            assertThat(stuck[0].closed).isTrue();
+            assertThat(stuck[1].closed).isTrue();
+            assertThat(publisher.getSenderPoolSize()).isEqualTo(4);
+            assertThat(meterRegistry.counter("demo.orders.stream.dropped", "reason", "stalled-subscriber").count()).isEqualTo(2);
+        } finally {
+            for (RecordingSink sink : stuck) {
+                sink.release();
+            }
+        }
+        // Once the stuck writes return, the extra threads are given back
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (publisher.getSenderPoolSize() > 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(publisher.getSenderPoolSize()).isEqualTo(2);
+    }
+
+    @Test
+    void subscribe_BeyondLimit_ShouldBeRefused() {
+        publisher = newPublisher(1, 16, "sample");
+
+        assertThat(publisher.subscribe(new RecordingSink(0))).isPresent();
+        assertThat(publisher.subscribe(new RecordingSink(0))).isEmpty();
+    }
+
+    private OrderStreamPublisher newPublisher(int maxSubscribers, int bufferSize, String overflow) {
+        return new OrderStreamPublisher(maxSubscribers, bufferSize, overflow, 100, 2, 60_000, 60_000, 60_000,
+                new ObjectMapper(), meterRegistry);
+    }
+
+    private static OrderStreamPublisher.Message message(long id) {
+        return new OrderStreamPublisher.Message(id, "{\"id\":" + id + "}");
+    }
+
+    private static final class RecordingSink implements OrderStreamPublisher.Sink {
+
+        private final List<String> received = new ArrayList<>();
+        private final CountDownLatch expected;
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+        private volatile boolean blockFirst;
+        private volatile boolean closed;
+
+        RecordingSink(int expectedOrders) {
+            this.expected = new CountDownLatch(expectedOrders);
+        }
+
+        void blockFirstSend() {
+            blockFirst = true;
+        }
+
+        void awaitBlocked() throws InterruptedException {
+            assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+
+        void release() {
+            released.countDown();
+        }
+
+        List<String> await() throws InterruptedException {
+            assertThat(expected.await(5, TimeUnit.SECONDS)).isTrue();
+            synchronized (received) {
+                return new ArrayList<>(received);
+            }
+        }
+
+        @Override
+        public void send(OrderStreamPublisher.Message message, long skippedBefore) {
+            if (blockFirst) {
+                blockFirst = false;
+                blocked.countDown();
+                try {
+                    released.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            synchronized (received) {
+                if (skippedBefore > 0) {
+                    received.add("skipped " + skippedBefore);
+                }
+                received.add(String.valueOf(message.orderId()));
+            }
+            expected.countDown();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.demo.web;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(50);
+
+    @Test
+    void tryAcquire_ShouldRejectOnceLimitIsReached() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 2.0, 10, 60_000);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+        limiter.release(FAST);
+        assertThat(limiter.tryAcquire()).isTrue();
+
+        assertThat(limiter.getRejected()).isEqualTo(1);
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void release_WithSteadyLatencyUnderFullUse_ShouldGrowLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 10, 2.0, 4, 60_000);
+
+        for (int window = 0; window < 3; window++) {
+            runWindow(limiter, 4, FAST);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(7);
+    }
+
+    @Test
+    void release_WithInflatedLatency_ShouldCutLimitButNotBelowMinimum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 5, 20, 2.0, 4, 60_000);
+        runWindow(limiter, 4, FAST);
+        int afterBaseline = limiter.getLimit();
+
+        runWindow(limiter, 4, SLOW);
+        int afterFirstSlowWindow = limiter.getLimit();
+        for (int window = 0; window < 20; window++) {
+            runWindow(limiter, 4, SLOW);
+        }
+
+        assertThat(afterFirstSlowWindow).isLessThan(afterBaseline);
+        assertThat(limiter.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    void constructor_WithInconsistentLimits_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(10, 20, 30, 2.0, 4, 1000));
+    }
+
+    @Test
+    void filter_WhenLimitExhausted_ShouldAnswer503WithRetryAfter() throws Exception {
+        AdaptiveConcurrencyLimiter readLimiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 2.0, 4, 60_000);
+        AdaptiveConcurrencyLimiter writeLimiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 2.0, 4, 60_000);
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(readLimiter, writeLimiter, 3);
+        FilterChain chain = mock(FilterChain.class);
+        readLimiter.tryAcquire();
+
+        MockHttpServletResponse readResponse = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/products"), readResponse, chain);
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/orders"), writeResponse, chain);
+
+        assertThat(readResponse.getStatus()).isEqualTo(503);
+        assertThat(readResponse.getHeader("Retry-After")).isEqualTo("3");
+        assertThat(writeResponse.getStatus()).isEqualTo(200);
+        assertThat(writeLimiter.getInFlight()).isZero();
+        verify(chain, times(1)).doFilter(any(), any());
+    }
+
+    private static void runWindow(AdaptiveConcurrencyLimiter limiter, int requests, long rttNanos) {
+        for (int i = 0; i < requests; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+        for (int i = 0; i < requests; i++) {
+            limiter.release(rttNanos);
+        }
+    }
+}